@@ -0,0 +1,59 @@
+package com.audition.benchmark;
+
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixtures shaped like jsonplaceholder data, at any size.
+ * Bodies are a few hundred characters, like the multi-line upstream bodies, so that payload sizes are realistic.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class BenchmarkData {
+
+    private static final String BODY = "quia et suscipit suscipit recusandae consequuntur expedita et cum reprehenderit "
+        + "molestiae ut ut quas totam nostrum rerum est autem sunt rem eveniet architecto ";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Builds posts spread evenly over the given number of users.
+     *
+     * @param count The number of posts
+     * @param users The number of distinct users
+     * @return The posts, ordered by id
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public static List<AuditionPost> posts(final int count, final int users) {
+        final List<AuditionPost> posts = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            posts.add(new AuditionPost(id % users + 1, id, "sunt aut facere repellat provident occaecati " + id, BODY + id));
+        }
+        return posts;
+    }
+
+    /**
+     * Builds comments spread evenly over the given number of posts.
+     *
+     * @param count The number of comments
+     * @param posts The number of distinct posts
+     * @return The comments, ordered by id
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public static List<Comment> comments(final int count, final int posts) {
+        final List<Comment> comments = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            final Comment comment = new Comment(id, BODY + id);
+            comment.setPostId(id % posts + 1);
+            comment.setName("id labore ex et quam laborum " + id);
+            comment.setEmail("Eliseo" + id + "@gardner.biz");
+            comments.add(comment);
+        }
+        return comments;
+    }
+}
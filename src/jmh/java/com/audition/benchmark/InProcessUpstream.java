@@ -0,0 +1,78 @@
+package com.audition.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback upstream answering {@code GET /posts/{id}} and {@code GET /comments?postId=} with fixed,
+ * pre-serialized payloads and no delay, so that a benchmark measures the client rather than the server.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class InProcessUpstream implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private InProcessUpstream(final HttpServer server, final ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the upstream on an ephemeral loopback port.
+     *
+     * @param post The body of every single-post response
+     * @param comments The body of every comment list response
+     * @return The running upstream
+     * @throws IOException if the server socket cannot be bound
+     * @author Nadeem Shaikh
+     */
+    public static InProcessUpstream start(final byte[] post, final byte[] comments) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        server.createContext("/posts/", exchange -> respond(exchange, post));
+        server.createContext("/comments", exchange -> respond(exchange, comments));
+        server.setExecutor(executor);
+        server.start();
+        return new InProcessUpstream(server, executor);
+    }
+
+    /**
+     * Returns the base URL to configure as {@code audition.upstream.base-url}.
+     *
+     * @return The base URL of the upstream
+     * @author Nadeem Shaikh
+     */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private static void respond(final HttpExchange exchange, final byte[] body) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Stops the server and its executor.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.audition.benchmark;
+
+import com.audition.AuditionApplication;
+import com.audition.configuration.WebServiceConfiguration;
+import com.audition.integration.AuditionClient;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end cost of an {@link AuditionClient} call against a loopback {@link InProcessUpstream}:
+ * single-flight, resilience layer, pooled HTTP client, logging interceptor and JSON binding, with the network
+ * reduced to a local socket. Every call uses a new id, so no layer can answer from memory. Both the blocking and
+ * the reactive client are measured.
+ *
+ * @author Nadeem Shaikh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntegrationClientBenchmark {
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * The upstream client, as selected by {@code audition.http.client}.
+     */
+    @Param({"BLOCKING", "REACTIVE"})
+    public String clientType;
+
+    private InProcessUpstream upstream;
+    private ConfigurableApplicationContext context;
+    private AuditionClient client;
+
+    /**
+     * Starts the upstream and a non-web application context pointed at it.
+     *
+     * @throws IOException if the upstream cannot be started
+     * @author Nadeem Shaikh
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final ObjectMapper objectMapper = new WebServiceConfiguration().objectMapper();
+        upstream = InProcessUpstream.start(
+            objectMapper.writeValueAsBytes(BenchmarkData.posts(1, 1).get(0)),
+            objectMapper.writeValueAsBytes(BenchmarkData.comments(5, 1)));
+        context = new SpringApplicationBuilder(AuditionApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--logging.level.root=WARN",
+                "--audition.index.enabled=false",
+                "--audition.comment-index.enabled=false",
+                "--audition.http.client=" + clientType,
+                "--audition.upstream.base-url=" + upstream.baseUrl());
+        client = context.getBean(AuditionClient.class);
+    }
+
+    /**
+     * Stops the application context and the upstream.
+     *
+     * @author Nadeem Shaikh
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        upstream.close();
+    }
+
+    /**
+     * Fetches a single post.
+     *
+     * @return The post
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public AuditionPost getPostById() {
+        return client.getPostById(Integer.toString(nextId.incrementAndGet()));
+    }
+
+    /**
+     * Fetches the comments of a post.
+     *
+     * @return The comments
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public List<Comment> getCommentsByPostId() {
+        return client.getCommentsByPostId(Integer.toString(nextId.incrementAndGet()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.audition.benchmark;
+
+import com.audition.configuration.WebServiceConfiguration;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the ObjectMapper built by {@link WebServiceConfiguration#objectMapper()} reading upstream payloads
+ * and writing our responses. 100 posts and 500 comments are the jsonplaceholder sizes; the larger sizes show
+ * how the cost scales with a bigger upstream.
+ *
+ * @author Nadeem Shaikh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonBenchmark {
+
+    private static final TypeReference<List<AuditionPost>> POST_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Comment>> COMMENT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"100", "1000", "10000"})
+    public int posts;
+
+    private ObjectMapper objectMapper;
+    private List<AuditionPost> postList;
+    private byte[] postsJson;
+    private byte[] commentsJson;
+
+    /**
+     * Builds the mapper and the serialized payloads, with five comments per post.
+     *
+     * @throws IOException if the payloads cannot be written
+     * @author Nadeem Shaikh
+     */
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new WebServiceConfiguration().objectMapper();
+        postList = BenchmarkData.posts(posts, 10);
+        postsJson = objectMapper.writeValueAsBytes(postList);
+        commentsJson = objectMapper.writeValueAsBytes(BenchmarkData.comments(posts * 5, posts));
+    }
+
+    /**
+     * Reads a list of posts, as the client does for {@code GET /posts}.
+     *
+     * @return The posts
+     * @throws IOException if the payload cannot be read
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public List<AuditionPost> readPosts() throws IOException {
+        return objectMapper.readValue(postsJson, POST_LIST);
+    }
+
+    /**
+     * Reads a list of comments, as the client does for {@code GET /comments}.
+     *
+     * @return The comments
+     * @throws IOException if the payload cannot be read
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public List<Comment> readComments() throws IOException {
+        return objectMapper.readValue(commentsJson, COMMENT_LIST);
+    }
+
+    /**
+     * Writes a list of posts, as the controller does for {@code GET /posts}.
+     *
+     * @return The serialized posts
+     * @throws IOException if the posts cannot be written
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public byte[] writePosts() throws IOException {
+        return objectMapper.writeValueAsBytes(postList);
+    }
+}
@@ -0,0 +1,101 @@
+package com.audition.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.audition.benchmark.BenchmarkData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Overhead of {@link WebServiceConfiguration.LoggingInterceptor} on an upstream exchange whose body is read to
+ * the end, against the same exchange without the interceptor. Log events are formatted but not written, so the
+ * numbers measure the interceptor rather than an appender.
+ *
+ * @author Nadeem Shaikh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoggingInterceptorBenchmark {
+
+    /**
+     * INFO logs nothing, DEBUG logs request lines and headers, CAPTURE also captures every body.
+     */
+    @Param({"INFO", "DEBUG", "CAPTURE"})
+    public String mode;
+
+    private byte[] responseBody;
+    private MockClientHttpRequest request;
+    private ClientHttpRequestExecution execution;
+    private WebServiceConfiguration.LoggingInterceptor interceptor;
+
+    /**
+     * Builds the interceptor for the mode and a 100-post upstream response.
+     *
+     * @throws IOException if the response body cannot be written
+     * @author Nadeem Shaikh
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final Logger logger = (Logger) LoggerFactory.getLogger(WebServiceConfiguration.LoggingInterceptor.class);
+        logger.setAdditive(false);
+        logger.setLevel("INFO".equals(mode) ? Level.INFO : Level.DEBUG);
+
+        final HttpClientProperties.Logging logging = new HttpClientProperties.Logging();
+        logging.setBodyCaptureEnabled("CAPTURE".equals(mode));
+        logging.setBodyCaptureSampleRate(1.0);
+
+        final WebServiceConfiguration configuration = new WebServiceConfiguration();
+        interceptor = configuration.new LoggingInterceptor(logging);
+        responseBody = configuration.objectMapper().writeValueAsBytes(BenchmarkData.posts(100, 10));
+        request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/posts"));
+        execution = (httpRequest, body) -> new MockClientHttpResponse(responseBody, HttpStatus.OK);
+    }
+
+    /**
+     * Runs and drains the exchange without the interceptor.
+     *
+     * @return The number of body bytes read
+     * @throws IOException if the body cannot be read
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public int withoutInterceptor() throws IOException {
+        return drain(execution.execute(request, new byte[0]));
+    }
+
+    /**
+     * Runs and drains the exchange through the interceptor.
+     *
+     * @return The number of body bytes read
+     * @throws IOException if the body cannot be read
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public int withInterceptor() throws IOException {
+        return drain(interceptor.intercept(request, new byte[0], execution));
+    }
+
+    private static int drain(final ClientHttpResponse response) throws IOException {
+        try (response; InputStream body = response.getBody()) {
+            return body.readAllBytes().length;
+        }
+    }
+}
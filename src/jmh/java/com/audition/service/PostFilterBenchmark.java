@@ -0,0 +1,72 @@
+package com.audition.service;
+
+import com.audition.benchmark.BenchmarkData;
+import com.audition.model.AuditionPost;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of serving {@code GET /posts?userId=}: the stream filter used until the post index is loaded against
+ * the index lookup used afterwards. Lives in the service package to build {@link PostIndex.Snapshot} directly.
+ *
+ * @author Nadeem Shaikh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PostFilterBenchmark {
+
+    private static final int USERS = 10;
+
+    @Param({"100", "10000"})
+    public int posts;
+
+    private List<AuditionPost> postList;
+    private PostIndex.Snapshot snapshot;
+    private int userId;
+
+    /**
+     * Builds the post list and its index.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Setup
+    public void setUp() {
+        postList = BenchmarkData.posts(posts, USERS);
+        snapshot = PostIndex.Snapshot.build(postList, 1);
+        userId = USERS / 2;
+    }
+
+    /**
+     * Filters every post by user, as {@link AuditionService#getPostsByUserId(int)} does without an index.
+     *
+     * @return The user's posts
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public List<AuditionPost> streamFilter() {
+        return postList.stream()
+            .filter(post -> post.getUserId() == userId)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Looks the user's posts up in the post index.
+     *
+     * @return The user's posts
+     * @author Nadeem Shaikh
+     */
+    @Benchmark
+    public List<AuditionPost> indexLookup() {
+        return snapshot.getPostsByUserId(userId);
+    }
+}
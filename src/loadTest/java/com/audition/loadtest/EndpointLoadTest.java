@@ -0,0 +1,99 @@
+package com.audition.loadtest;
+
+import com.audition.AuditionApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test reporting throughput, latency percentiles, bytes on the wire and CPU cost for every
+ * {@code AuditionController} endpoint, once per accepted response encoding.
+ * It boots the application once against an {@link UpstreamSimulator} and runs each endpoint scenario in turn
+ * with the same request count and concurrency. Request ids cycle through the simulated posts, so the numbers
+ * include the cache tier as a real client mix would.
+ *
+ * <p>Tuned with system properties: {@code loadtest.requests}, {@code loadtest.concurrency},
+ * {@code loadtest.virtual-threads}, {@code loadtest.encodings} (comma separated, {@code identity} for none)
+ * and {@code loadtest.report}, plus the {@code simulator.*} properties of
+ * {@link UpstreamSimulator.Settings}. Run with {@code ./gradlew endpointLoadTest}. The results are also written
+ * as JSON to the report file so that runs can be compared.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class EndpointLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EndpointLoadTest.class);
+
+    private EndpointLoadTest() {
+    }
+
+    /**
+     * Runs every endpoint scenario and logs and writes the results.
+     *
+     * @param args Unused
+     * @throws IOException if the upstream simulator cannot be started or the report cannot be written
+     * @throws InterruptedException if the load test is interrupted
+     * @author Nadeem Shaikh
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int requests = Integer.getInteger("loadtest.requests", 2000);
+        final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        final boolean virtualThreads = Boolean.getBoolean("loadtest.virtual-threads");
+        final String[] encodings = System.getProperty("loadtest.encodings", "identity,gzip").split(",");
+        final File report = new File(System.getProperty("loadtest.report", "build/reports/loadtest/endpoints.json"));
+        final UpstreamSimulator.Settings settings = UpstreamSimulator.Settings.fromSystemProperties(0);
+
+        final Map<String, LoadResult> results = new LinkedHashMap<>();
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(settings);
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(AuditionApplication.class).run(
+                 "--server.port=0",
+                 "--logging.level.root=WARN",
+                 "--logging.level.com.audition.loadtest=INFO",
+                 "--audition.upstream.base-url=" + upstream.baseUrl(),
+                 "--audition.threads.virtual.enabled=" + virtualThreads)) {
+            final int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            for (final String encoding : encodings) {
+                final LoadGenerator generator = new LoadGenerator("identity".equals(encoding.trim()) ? null : encoding.trim());
+                for (final Map.Entry<String, IntFunction<String>> scenario : scenarios(settings).entrySet()) {
+                    final IntFunction<URI> uris = index -> URI.create("http://localhost:" + port + scenario.getValue().apply(index));
+                    generator.fire(uris, Math.min(requests, 100), Math.min(concurrency, 10));
+                    results.put(scenario.getKey() + " [" + encoding.trim() + "]", generator.fire(uris, requests, concurrency));
+                }
+            }
+        }
+
+        LOG.info("{} requests per endpoint, {} concurrent, {} threads, upstream: {}", requests, concurrency,
+            virtualThreads ? "virtual" : "platform", settings);
+        results.forEach((endpoint, result) -> LOG.info(String.format("%-50s %s", endpoint, result)));
+
+        report.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, results);
+        LOG.info("Results written to {}", report.getAbsolutePath());
+    }
+
+    private static Map<String, IntFunction<String>> scenarios(final UpstreamSimulator.Settings settings) {
+        final int posts = settings.posts();
+        final Map<String, IntFunction<String>> scenarios = new LinkedHashMap<>();
+        scenarios.put("GET /posts", index -> "/posts");
+        scenarios.put("GET /posts?userId=", index -> "/posts?userId=" + (index % settings.users() + 1));
+        scenarios.put("GET /posts?limit=&fields=", index -> "/posts?limit=10&fields=id,title&cursor=" + index % posts);
+        scenarios.put("GET /posts?ids=", index -> "/posts?ids=" + IntStream.range(0, 10)
+            .mapToObj(offset -> Integer.toString((index + offset) % posts + 1))
+            .collect(Collectors.joining(",")));
+        scenarios.put("GET /posts/{id}", index -> "/posts/" + (index % posts + 1));
+        scenarios.put("GET /posts/{id}?include=comments", index -> "/posts/" + (index % posts + 1) + "?include=comments");
+        scenarios.put("GET /posts/{id}/comments", index -> "/posts/" + (index % posts + 1) + "/comments");
+        return scenarios;
+    }
+}
@@ -0,0 +1,75 @@
+package com.audition.loadtest;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Distribution of the time the {@link UpstreamSimulator} holds back each response.
+ * Parsed from specs such as {@code fixed:200ms}, {@code uniform:50ms-250ms} or {@code lognormal:100ms-800ms};
+ * the lognormal bounds are its median and 99th percentile, which gives the long tail of a real upstream.
+ *
+ * @author Nadeem Shaikh
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Z-score of the 99th percentile of the standard normal distribution.
+     */
+    double P99_Z_SCORE = 2.326;
+
+    /**
+     * Draws the delay of one response.
+     *
+     * @param random The source of randomness
+     * @return The delay in milliseconds, never negative
+     * @author Nadeem Shaikh
+     */
+    long nextMillis(Random random);
+
+    /**
+     * Parses a distribution spec.
+     *
+     * @param spec The spec, e.g. {@code fixed:200ms}, {@code uniform:50ms-250ms} or {@code lognormal:100ms-800ms}
+     * @return The distribution
+     * @throws IllegalArgumentException if the spec cannot be parsed
+     * @author Nadeem Shaikh
+     */
+    static LatencyDistribution parse(final String spec) {
+        final String[] kindAndArguments = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+        final String[] bounds = kindAndArguments.length > 1 ? kindAndArguments[1].split("-", 2) : new String[0];
+        switch (kindAndArguments[0]) {
+            case "fixed" -> {
+                final long millis = millis(bounds, 0);
+                return random -> millis;
+            }
+            case "uniform" -> {
+                final long min = millis(bounds, 0);
+                final long max = millis(bounds, 1);
+                return random -> min + (long) (random.nextDouble() * (max - min));
+            }
+            case "lognormal" -> {
+                final double median = millis(bounds, 0);
+                final double p99 = millis(bounds, 1);
+                final double mu = Math.log(Math.max(median, 1));
+                final double sigma = Math.log(Math.max(p99, 1) / Math.max(median, 1)) / P99_Z_SCORE;
+                return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        }
+    }
+
+    private static long millis(final String[] bounds, final int index) {
+        if (index >= bounds.length) {
+            throw new IllegalArgumentException("Missing latency bound " + (index + 1));
+        }
+        final String bound = bounds[index].trim();
+        if (bound.endsWith("ms")) {
+            return Long.parseLong(bound.substring(0, bound.length() - 2));
+        }
+        if (bound.endsWith("s")) {
+            return Long.parseLong(bound.substring(0, bound.length() - 1)) * 1000;
+        }
+        return Long.parseLong(bound);
+    }
+}
@@ -0,0 +1,118 @@
+package com.audition.loadtest;
+
+import com.audition.common.concurrent.VirtualThreads;
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load generator: keeps a fixed number of requests in flight, each on its own virtual thread,
+ * and records the latency of every request, the response bytes received and the process CPU time spent.
+ * The JDK client does not decode responses, so with an {@code Accept-Encoding} the counted bytes are the
+ * compressed bytes on the wire.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String acceptEncoding;
+
+    /**
+     * Constructs a generator that asks for uncompressed responses.
+     *
+     * @author Nadeem Shaikh
+     */
+    public LoadGenerator() {
+        this(null);
+    }
+
+    /**
+     * Constructs a generator that sends the given {@code Accept-Encoding} with every request.
+     *
+     * @param acceptEncoding The accepted encoding, or null to send none
+     * @author Nadeem Shaikh
+     */
+    public LoadGenerator(final String acceptEncoding) {
+        this.acceptEncoding = acceptEncoding;
+    }
+
+    /**
+     * Sends requests and waits for all of them to complete.
+     *
+     * @param uris The URI of the request with the given index
+     * @param requests The number of requests to send
+     * @param concurrency The number of requests kept in flight
+     * @return The throughput and latency summary
+     * @throws InterruptedException if the run is interrupted
+     * @author Nadeem Shaikh
+     */
+    public LoadResult fire(final IntFunction<URI> uris, final int requests, final int concurrency)
+        throws InterruptedException {
+        final long[] latencies = new long[requests];
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicLong bodyBytes = new AtomicLong();
+        final Semaphore permits = new Semaphore(concurrency);
+
+        final long cpuStart = processCpuTime();
+        final long start = System.nanoTime();
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("loadtest-");
+        try {
+            for (int i = 0; i < requests; i++) {
+                final int index = i;
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        latencies[index] = send(uris.apply(index), errors, bodyBytes);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        return LoadResult.from(latencies, System.nanoTime() - start, errors.get(), bodyBytes.get(),
+            processCpuTime() - cpuStart);
+    }
+
+    private static long processCpuTime() {
+        return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private long send(final URI uri, final AtomicInteger errors, final AtomicLong bodyBytes) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+        if (acceptEncoding != null) {
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        final long start = System.nanoTime();
+        try {
+            final HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            bodyBytes.addAndGet(response.body().length);
+            if (response.statusCode() != 200) {
+                errors.incrementAndGet();
+            }
+        } catch (final IOException e) {
+            errors.incrementAndGet();
+        } catch (final InterruptedException e) {
+            errors.incrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,53 @@
+package com.audition.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Throughput, latency and cost summary of one load run.
+ *
+ * @param requests The number of requests sent
+ * @param errors The number of failed or non-200 requests
+ * @param throughput The completed requests per second
+ * @param p50Millis The median latency in milliseconds
+ * @param p99Millis The 99th percentile latency in milliseconds
+ * @param bytesPerResponse The mean response body size as received, i.e. still encoded
+ * @param cpuMicrosPerRequest The mean process CPU time per request in microseconds, load generator included
+ * @author Nadeem Shaikh
+ */
+public record LoadResult(int requests, int errors, double throughput, double p50Millis, double p99Millis,
+                         double bytesPerResponse, double cpuMicrosPerRequest) {
+
+    /**
+     * Summarizes the latencies and costs of a run.
+     *
+     * @param latencies The latency of every request in nanoseconds
+     * @param elapsedNanos The wall-clock duration of the run
+     * @param errors The number of failed or non-200 requests
+     * @param bodyBytes The response body bytes received over the run
+     * @param cpuNanos The process CPU time spent over the run
+     * @return The summary
+     * @author Nadeem Shaikh
+     */
+    public static LoadResult from(final long[] latencies, final long elapsedNanos, final int errors, final long bodyBytes,
+        final long cpuNanos) {
+        final long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        final int requests = Math.max(sorted.length, 1);
+        return new LoadResult(sorted.length, errors, sorted.length / (elapsedNanos / 1e9),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), (double) bodyBytes / requests, cpuNanos / 1e3 / requests);
+    }
+
+    private static double percentile(final long[] sorted, final double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,.0f req/s, p50 %.1f ms, p99 %.1f ms, %,.0f B/response, %,.0f us CPU/request, %d/%d errors",
+            throughput, p50Millis, p99Millis, bytesPerResponse, cpuMicrosPerRequest, errors, requests);
+    }
+}
@@ -0,0 +1,93 @@
+package com.audition.loadtest;
+
+import com.audition.AuditionApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test comparing the platform-thread and virtual-thread execution modes.
+ * It boots the application once per mode against an {@link UpstreamSimulator} that answers after a fixed delay,
+ * fires the same number of concurrent {@code GET /posts/{id}} requests at it and reports throughput and
+ * latency percentiles. Each request asks for a different id, so every one of them reaches the upstream.
+ *
+ * <p>Tuned with system properties: {@code loadtest.requests}, {@code loadtest.concurrency},
+ * {@code loadtest.upstream-delay-ms} and {@code loadtest.tomcat-max-threads}. Run with {@code ./gradlew loadTest}.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class ThreadingModeLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadingModeLoadTest.class);
+
+    private ThreadingModeLoadTest() {
+    }
+
+    /**
+     * Runs the load test in both execution modes and logs the comparison.
+     *
+     * @param args Unused
+     * @throws IOException if the upstream simulator cannot be started
+     * @throws InterruptedException if the load test is interrupted
+     * @author Nadeem Shaikh
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int requests = Integer.getInteger("loadtest.requests", 4000);
+        final int concurrency = Integer.getInteger("loadtest.concurrency", 1000);
+        final Duration upstreamDelay = Duration.ofMillis(Long.getLong("loadtest.upstream-delay-ms", 200));
+        final int tomcatMaxThreads = Integer.getInteger("loadtest.tomcat-max-threads", 200);
+
+        // One post per request id, a fixed delay and no errors, so only the threading model varies
+        final UpstreamSimulator.Settings settings = new UpstreamSimulator.Settings(0, random -> upstreamDelay.toMillis(),
+            0, 503, requests, 10, 1, 50, 42);
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(settings)) {
+            final LoadResult platform = run(false, upstream, requests, concurrency, tomcatMaxThreads);
+            final LoadResult virtual = run(true, upstream, requests, concurrency, tomcatMaxThreads);
+
+            LOG.info("{} requests, {} concurrent, upstream delay {} ms, {} Tomcat threads in platform mode",
+                requests, concurrency, upstreamDelay.toMillis(), tomcatMaxThreads);
+            LOG.info("platform threads: {}", platform);
+            LOG.info("virtual threads:  {}", virtual);
+            LOG.info("throughput ratio (virtual / platform): {}",
+                String.format("%.2f", virtual.throughput() / platform.throughput()));
+        }
+    }
+
+    private static LoadResult run(final boolean virtualThreads, final UpstreamSimulator upstream, final int requests,
+        final int concurrency, final int tomcatMaxThreads) throws InterruptedException {
+        // Command-line arguments, so that they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AuditionApplication.class).run(
+            "--server.port=0",
+            "--server.tomcat.threads.max=" + tomcatMaxThreads,
+            "--logging.level.root=WARN",
+            "--logging.level.com.audition.loadtest=INFO",
+            "--audition.index.enabled=false",
+            "--audition.comment-index.enabled=false",
+            "--audition.upstream.base-url=" + upstream.baseUrl(),
+            "--audition.threads.virtual.enabled=" + virtualThreads,
+            // Neither the connection pool nor the bulkhead may be the limit, only the request threads
+            "--resilience4j.bulkhead.instances.getPostById.max-concurrent-calls=" + concurrency,
+            "--audition.http.max-total-connections=" + concurrency,
+            "--audition.http.max-connections-per-route=" + concurrency,
+            "--audition.http.connection-request-timeout=60s",
+            "--audition.http.response-timeout=60s")) {
+            final int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            warmUp(port);
+            return fire(port, requests, concurrency);
+        }
+    }
+
+    private static void warmUp(final int port) throws InterruptedException {
+        fire(port, 50, 10);
+    }
+
+    private static LoadResult fire(final int port, final int requests, final int concurrency) throws InterruptedException {
+        return new LoadGenerator().fire(index -> URI.create("http://localhost:" + port + "/posts/" + (index + 1)),
+            requests, concurrency);
+    }
+}
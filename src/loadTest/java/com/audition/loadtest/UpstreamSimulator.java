@@ -0,0 +1,247 @@
+package com.audition.loadtest;
+
+import com.audition.common.concurrent.VirtualThreads;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in for jsonplaceholder serving {@code /posts}, {@code /posts/{id}}, {@code /comments?postId=} and
+ * {@code /posts/{id}/comments} from pre-serialized payloads, so load tests never reach the public service.
+ * Every response is held back by a delay drawn from a {@link LatencyDistribution}, and a configurable fraction
+ * of responses fail with a server error. Every exchange runs on its own virtual thread, so the simulator never
+ * becomes the bottleneck of a load test.
+ *
+ * <p>Run standalone with {@code ./gradlew upstreamSimulator} and point the application at it through
+ * {@code audition.upstream.base-url}.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class UpstreamSimulator implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpstreamSimulator.class);
+    private static final String POSTS_PATH = "/posts";
+    private static final String COMMENTS_PATH = "/comments";
+    private static final String COMMENTS_SUFFIX = "/comments";
+    private static final byte[] EMPTY_OBJECT = {'{', '}'};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Settings settings;
+    private final Random random;
+    private final byte[] allPosts;
+    private final byte[] allComments;
+    private final byte[][] postsById;
+    private final byte[][] commentsByPostId;
+
+    private UpstreamSimulator(final HttpServer server, final ExecutorService executor, final Settings settings)
+        throws IOException {
+        this.server = server;
+        this.executor = executor;
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final String body = "x".repeat(settings.bodyBytes());
+        final List<AuditionPost> posts = new ArrayList<>(settings.posts());
+        final List<Comment> comments = new ArrayList<>(settings.posts() * settings.commentsPerPost());
+        postsById = new byte[settings.posts() + 1][];
+        commentsByPostId = new byte[settings.posts() + 1][];
+        for (int postId = 1; postId <= settings.posts(); postId++) {
+            final AuditionPost post = new AuditionPost(postId % settings.users() + 1, postId, "title " + postId, body);
+            final List<Comment> postComments = comments(postId, settings, body);
+            posts.add(post);
+            comments.addAll(postComments);
+            postsById[postId] = objectMapper.writeValueAsBytes(post);
+            commentsByPostId[postId] = objectMapper.writeValueAsBytes(postComments);
+        }
+        allPosts = objectMapper.writeValueAsBytes(posts);
+        allComments = objectMapper.writeValueAsBytes(comments);
+    }
+
+    /**
+     * Starts the simulator on a loopback port.
+     *
+     * @param settings The payload, latency and error settings
+     * @return The running simulator
+     * @throws IOException if the server socket cannot be bound
+     * @author Nadeem Shaikh
+     */
+    public static UpstreamSimulator start(final Settings settings) throws IOException {
+        final HttpServer server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.port()), 4096);
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("upstream-simulator-");
+        final UpstreamSimulator simulator = new UpstreamSimulator(server, executor, settings);
+        server.createContext(POSTS_PATH, simulator::handlePosts);
+        server.createContext(COMMENTS_PATH, simulator::handleComments);
+        server.setExecutor(executor);
+        server.start();
+        return simulator;
+    }
+
+    /**
+     * Runs the simulator until the process is stopped, configured from {@code simulator.*} system properties.
+     *
+     * @param args Unused
+     * @throws IOException if the server socket cannot be bound
+     * @throws InterruptedException if the simulator is interrupted
+     * @author Nadeem Shaikh
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        try (UpstreamSimulator simulator = start(Settings.fromSystemProperties(8089))) {
+            LOG.info("Upstream simulator listening on {} with {}", simulator.baseUrl(), simulator.settings);
+            new CountDownLatch(1).await();
+        }
+    }
+
+    /**
+     * Returns the base URL to configure as {@code audition.upstream.base-url}.
+     *
+     * @return The base URL of the simulator
+     * @author Nadeem Shaikh
+     */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handlePosts(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        if (POSTS_PATH.equals(path) || (POSTS_PATH + "/").equals(path)) {
+            respond(exchange, allPosts);
+            return;
+        }
+        final String rest = path.substring(POSTS_PATH.length() + 1);
+        if (rest.endsWith(COMMENTS_SUFFIX)) {
+            respond(exchange, lookup(commentsByPostId, rest.substring(0, rest.length() - COMMENTS_SUFFIX.length())));
+        } else {
+            respond(exchange, lookup(postsById, rest));
+        }
+    }
+
+    private void handleComments(final HttpExchange exchange) throws IOException {
+        final String query = exchange.getRequestURI().getQuery();
+        if (query == null || !query.startsWith("postId=")) {
+            respond(exchange, allComments);
+            return;
+        }
+        final byte[] comments = lookup(commentsByPostId, query.substring("postId=".length()));
+        // Like jsonplaceholder, an unknown post has an empty comment list rather than a 404
+        respond(exchange, comments == null ? new byte[] {'[', ']'} : comments);
+    }
+
+    private static byte[] lookup(final byte[][] payloads, final String id) {
+        try {
+            final int index = Integer.parseInt(id);
+            return index > 0 && index < payloads.length ? payloads[index] : null;
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void respond(final HttpExchange exchange, final byte[] body) throws IOException {
+        try (exchange) {
+            final long delay;
+            final boolean fail;
+            synchronized (random) {
+                delay = settings.latency().nextMillis(random);
+                fail = random.nextDouble() < settings.errorRate();
+            }
+            Thread.sleep(delay);
+            if (fail) {
+                exchange.sendResponseHeaders(settings.errorStatus(), -1);
+                return;
+            }
+            final byte[] payload = body == null ? EMPTY_OBJECT : body;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(body == null ? 404 : 200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static List<Comment> comments(final int postId, final Settings settings, final String body) {
+        final List<Comment> comments = new ArrayList<>(settings.commentsPerPost());
+        for (int i = 1; i <= settings.commentsPerPost(); i++) {
+            final Comment comment = new Comment((postId - 1) * settings.commentsPerPost() + i, body);
+            comment.setPostId(postId);
+            comment.setName("comment " + i + " on post " + postId);
+            comment.setEmail("user" + i + "@example.com");
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    /**
+     * Stops the server and its executor.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Payload, latency and error settings of the simulator.
+     *
+     * @param port The port to listen on, 0 for an ephemeral port
+     * @param latency The distribution of response delays
+     * @param errorRate The fraction of responses, between 0 and 1, that fail
+     * @param errorStatus The status of a failed response
+     * @param posts The number of posts
+     * @param users The number of distinct post authors
+     * @param commentsPerPost The number of comments on every post
+     * @param bodyBytes The length of every post and comment body
+     * @param seed The seed of the latency and error draws, so that runs are repeatable
+     * @author Nadeem Shaikh
+     */
+    public record Settings(int port, LatencyDistribution latency, double errorRate, int errorStatus, int posts,
+        int users, int commentsPerPost, int bodyBytes, long seed) {
+
+        /**
+         * Reads the settings from {@code simulator.*} system properties, defaulting to jsonplaceholder sizes,
+         * a lognormal delay with a 50 ms median and a 250 ms 99th percentile, and no errors.
+         *
+         * @param defaultPort The port used unless {@code simulator.port} is set
+         * @return The settings
+         * @author Nadeem Shaikh
+         */
+        public static Settings fromSystemProperties(final int defaultPort) {
+            return new Settings(
+                Integer.getInteger("simulator.port", defaultPort),
+                LatencyDistribution.parse(System.getProperty("simulator.latency", "lognormal:50ms-250ms")),
+                Double.parseDouble(System.getProperty("simulator.error-rate", "0")),
+                Integer.getInteger("simulator.error-status", 503),
+                Integer.getInteger("simulator.posts", 100),
+                Integer.getInteger("simulator.users", 10),
+                Integer.getInteger("simulator.comments-per-post", 5),
+                Integer.getInteger("simulator.body-bytes", 200),
+                Long.getLong("simulator.seed", 42));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d posts by %d users, %d comments per post, %d-byte bodies, error rate %.3f (%d)",
+                posts, users, commentsPerPost, bodyBytes, errorRate, errorStatus);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.audition.actuator;
+
+import com.audition.service.PostIndex;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the state of the in-memory post index and allowing an on-demand refresh
+ * with {@code POST /actuator/postindex}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+@Endpoint(id = "postindex")
+public class PostIndexEndpoint {
+
+    @Autowired
+    private transient PostIndex postIndex;
+
+    /**
+     * Describes the current snapshot of the index.
+     *
+     * @return The index state
+     * @author Nadeem Shaikh
+     */
+    @ReadOperation
+    public Map<String, Object> describe() {
+        return toState(postIndex.getSnapshot());
+    }
+
+    /**
+     * Refreshes the index from upstream immediately.
+     *
+     * @return The index state after the refresh
+     * @author Nadeem Shaikh
+     */
+    @WriteOperation
+    public Map<String, Object> refresh() {
+        return toState(postIndex.refresh());
+    }
+
+    private Map<String, Object> toState(final PostIndex.Snapshot snapshot) {
+        return Map.of(
+            "ready", snapshot.getVersion() > 0,
+            "version", snapshot.getVersion(),
+            "posts", snapshot.getPosts().size(),
+            "users", snapshot.getUserCount(),
+            "refreshedAt", snapshot.getRefreshedAt().toString());
+    }
+}
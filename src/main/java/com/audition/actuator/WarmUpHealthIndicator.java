@@ -0,0 +1,63 @@
+package com.audition.actuator;
+
+import com.audition.configuration.PrefetchProperties;
+import com.audition.service.CommentIndex;
+import com.audition.service.CommentPrefetcher;
+import com.audition.service.PostIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the warm-up, included in the readiness group so that an instance only receives traffic once its
+ * data is loaded: the post and comment indexes hold a snapshot, restored or fetched, and the first comment
+ * prefetch pass, over the posts in demand or else the first posts of the index, has completed. Once
+ * {@code audition.prefetch.warm-up-timeout} has passed since startup the instance reports ready regardless, so that
+ * an upstream outage during a deploy does not keep every new instance out of service.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private transient PostIndex postIndex;
+
+    @Autowired
+    private transient CommentIndex commentIndex;
+
+    @Autowired
+    private transient CommentPrefetcher commentPrefetcher;
+
+    @Autowired
+    private transient PrefetchProperties properties;
+
+    private final long createdAt = System.nanoTime();
+
+    /**
+     * Reports UP once the warm-up has completed or timed out, OUT_OF_SERVICE before.
+     *
+     * @return The warm-up health, with the state of each step
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public Health health() {
+        final boolean postsLoaded = postIndex.isReady() || !postIndex.isEnabled();
+        final boolean commentsLoaded = commentIndex.isReady() || !commentIndex.isEnabled();
+        final boolean commentsPrefetched = commentPrefetcher.isFirstPassComplete();
+        final Health.Builder health;
+        if (postsLoaded && commentsLoaded && commentsPrefetched) {
+            health = Health.up();
+        } else if (System.nanoTime() - createdAt >= properties.getWarmUpTimeout().toNanos()) {
+            health = Health.up().withDetail("timedOut", true);
+        } else {
+            health = Health.outOfService();
+        }
+        return health
+            .withDetail("postsLoaded", postsLoaded)
+            .withDetail("commentsLoaded", commentsLoaded)
+            .withDetail("commentsPrefetched", commentsPrefetched)
+            .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.audition.common.collection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch estimating how often each {@code int} key has been seen, in a fixed amount of memory however
+ * many distinct keys there are. An estimate is never lower than the true count and is higher only when keys collide
+ * in every row. Once {@code 10 * width} keys have been added every counter is halved, so the estimates follow
+ * recent popularity rather than all-time totals.
+ * The sketch may be updated and read concurrently.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class FrequencySketch {
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int shift;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * Constructs a sketch whose rows are as wide as the power of two at or above the expected number of keys.
+     *
+     * @param expectedKeys The expected number of distinct keys
+     * @author Nadeem Shaikh
+     */
+    public FrequencySketch(final int expectedKeys) {
+        this.width = Math.max(16, Integer.highestOneBit(Math.max(1, expectedKeys - 1)) << 1);
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(width);
+        this.sampleSize = 10 * width;
+        this.counters = new AtomicIntegerArray(SEEDS.length * width);
+    }
+
+    /**
+     * Counts one occurrence of the key.
+     *
+     * @param key The key
+     * @author Nadeem Shaikh
+     */
+    public void increment(final int key) {
+        for (int row = 0; row < SEEDS.length; row++) {
+            counters.incrementAndGet(index(row, key));
+        }
+        if (additions.incrementAndGet() == sampleSize) {
+            halve();
+            additions.addAndGet(-sampleSize);
+        }
+    }
+
+    /**
+     * Estimates the number of occurrences of the key since it was last aged.
+     *
+     * @param key The key
+     * @return The estimated count
+     * @author Nadeem Shaikh
+     */
+    public int frequency(final int key) {
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            frequency = Math.min(frequency, counters.get(index(row, key)));
+        }
+        return frequency;
+    }
+
+    private void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int index(final int row, final int key) {
+        return row * width + ((key * SEEDS[row]) >>> shift);
+    }
+}
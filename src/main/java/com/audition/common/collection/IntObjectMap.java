@@ -0,0 +1,139 @@
+package com.audition.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map keyed by primitive {@code int}, avoiding the boxing and entry objects of a
+ * {@code HashMap<Integer, V>}. Lookups are a hash, a mask and usually a single array probe.
+ * The map is meant to be filled once by a single thread and then published read-only.
+ *
+ * @param <V> The type of the mapped values
+ * @author Nadeem Shaikh
+ */
+public final class IntObjectMap<V> {
+
+    private static final int PHI = 0x9E3779B9;
+
+    private final int[] slotKeys;
+    private final Object[] slotValues;
+    private final int mask;
+    private int count;
+
+    /**
+     * Constructs a map sized for the expected number of entries at a load factor of at most 0.5.
+     *
+     * @param expectedSize The expected number of entries
+     * @author Nadeem Shaikh
+     */
+    public IntObjectMap(final int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.slotKeys = new int[capacity];
+        this.slotValues = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key The key
+     * @param value The non-null value
+     * @return The previous value, or null if there was none
+     * @throws IllegalArgumentException if the value is null
+     * @throws IllegalStateException if the map is full
+     * @author Nadeem Shaikh
+     */
+    public V put(final int key, final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntObjectMap does not accept null values");
+        }
+        int slot = slot(key);
+        for (int probes = 0; probes <= mask; probes++) {
+            if (slotValues[slot] == null) {
+                slotKeys[slot] = key;
+                slotValues[slot] = value;
+                count++;
+                return null;
+            }
+            if (slotKeys[slot] == key) {
+                final V previous = valueAt(slot);
+                slotValues[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("IntObjectMap is full");
+    }
+
+    /**
+     * Returns the value mapped to the key.
+     *
+     * @param key The key
+     * @return The mapped value, or null if the key is absent
+     * @author Nadeem Shaikh
+     */
+    public V get(final int key) {
+        int slot = slot(key);
+        for (int probes = 0; probes <= mask && slotValues[slot] != null; probes++) {
+            if (slotKeys[slot] == key) {
+                return valueAt(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value mapped to the key, or the default when the key is absent.
+     *
+     * @param key The key
+     * @param defaultValue The value returned for absent keys
+     * @return The mapped value or the default
+     * @author Nadeem Shaikh
+     */
+    public V getOrDefault(final int key, final V defaultValue) {
+        final V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return The number of entries
+     * @author Nadeem Shaikh
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the keys of the map in unspecified order.
+     *
+     * @return A new array containing every key
+     * @author Nadeem Shaikh
+     */
+    public int[] keys() {
+        final int[] result = new int[count];
+        int index = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (slotValues[slot] != null) {
+                result[index++] = slotKeys[slot];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "IntObjectMap{size=" + count + ", keys=" + Arrays.toString(keys()) + '}';
+    }
+
+    private int slot(final int key) {
+        final int hash = key * PHI;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int slot) {
+        return (V) slotValues[slot];
+    }
+}
@@ -0,0 +1,34 @@
+package com.audition.common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for waiting on CompletableFutures from blocking code.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for a future and rethrows the exception it failed with, unwrapped from its CompletionException.
+     *
+     * @param future The future to wait for
+     * @param <T> The type of the future's value
+     * @return The value of the future
+     * @author Nadeem Shaikh
+     */
+    public static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
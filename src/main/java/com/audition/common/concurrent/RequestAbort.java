@@ -0,0 +1,73 @@
+package com.audition.common.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Handle to abort the blocking upstream exchange of a call from another thread.
+ * The call runs through {@link #run(Supplier)}, which binds the handle to the running thread; the HTTP engine
+ * registers how to abort its in-flight exchange with {@link #onAbort(Runnable)} as it sends each request. Aborting
+ * closes the exchange and its connection, so the call fails at once instead of holding both until the response has
+ * been read. A request sent after the handle has been aborted is aborted as soon as it registers.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class RequestAbort {
+
+    private static final ThreadLocal<RequestAbort> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReference<Runnable> action = new AtomicReference<>();
+    private volatile boolean aborted;
+
+    /**
+     * Runs a call with this handle bound to the current thread.
+     *
+     * @param call The call sending upstream requests
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    public <T> T run(final Supplier<T> call) {
+        final RequestAbort previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Registers how to abort the exchange the current thread is about to run, if it runs under a handle.
+     * The latest registration replaces the previous one, which belongs to an exchange that has already finished.
+     *
+     * @param abort The action aborting the exchange; it may run more than once and on any thread
+     * @author Nadeem Shaikh
+     */
+    public static void onAbort(final Runnable abort) {
+        final RequestAbort current = CURRENT.get();
+        if (current != null) {
+            current.action.set(abort);
+            if (current.aborted) {
+                abort.run();
+            }
+        }
+    }
+
+    /**
+     * Aborts the exchange in flight, if any, and every exchange the call sends afterwards.
+     *
+     * @author Nadeem Shaikh
+     */
+    public void abort() {
+        aborted = true;
+        final Runnable abort = action.get();
+        if (abort != null) {
+            abort.run();
+        }
+    }
+}
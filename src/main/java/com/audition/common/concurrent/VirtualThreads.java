@@ -0,0 +1,31 @@
+package com.audition.common.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factory for executors that run every task on its own virtual thread.
+ * Blocking I/O on a virtual thread unmounts it from its carrier, so thousands of slow upstream calls
+ * can be in flight at once without a large platform-thread pool.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an unbounded executor that starts a new, named virtual thread for each task.
+     *
+     * @param namePrefix The prefix of the thread names, followed by a sequence number
+     * @return The executor, to be shut down by its owner
+     * @author Nadeem Shaikh
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        final ThreadFactory threadFactory = Thread.ofVirtual().name(namePrefix, 0).factory();
+        return Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+}
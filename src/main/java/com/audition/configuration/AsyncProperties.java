@@ -0,0 +1,51 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Executor and deadlines of the asynchronous endpoints, bound from {@code audition.async.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.async")
+public class AsyncProperties {
+
+    /**
+     * Number of platform threads running the work of asynchronous requests.
+     */
+    private int poolSize = 32;
+
+    /**
+     * Number of asynchronous requests queued once every thread is busy; further requests are rejected with 503.
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * Deadline of an asynchronous endpoint without an entry in {@link #deadlines}, counted from the request.
+     */
+    private Duration defaultDeadline = Duration.ofSeconds(10);
+
+    /**
+     * Deadlines by endpoint name ({@code posts}, {@code post}, {@code comments}); a request still running or queued
+     * when its deadline passes is answered with 504.
+     */
+    private final Map<String, Duration> deadlines = new HashMap<>();
+
+    /**
+     * Returns the deadline of an endpoint.
+     *
+     * @param endpoint The endpoint name
+     * @return The configured deadline of the endpoint, or the default deadline
+     * @author Nadeem Shaikh
+     */
+    public Duration deadline(final String endpoint) {
+        return deadlines.getOrDefault(endpoint, defaultDeadline);
+    }
+}
@@ -0,0 +1,79 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-resource sizing of the in-process cache tier in front of the upstream API, bound from {@code audition.cache.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@ConfigurationProperties(prefix = "audition.cache")
+public class AuditionCacheProperties {
+
+    /**
+     * Cache holding the full list of posts.
+     */
+    private final CacheSpec posts = new CacheSpec(Duration.ofMinutes(1), 1);
+
+    /**
+     * Cache holding single posts keyed by post id.
+     */
+    private final CacheSpec postById = new CacheSpec(Duration.ofMinutes(5), 1_000);
+
+    /**
+     * Cache holding comment threads keyed by post id.
+     */
+    private final CacheSpec commentsByPostId = new CacheSpec(Duration.ofMinutes(2), 1_000);
+
+    /**
+     * Cache holding the last value successfully fetched per upstream call, served when upstream fails.
+     */
+    private final CacheSpec lastKnownGood = new CacheSpec(Duration.ofHours(24), 2_000);
+
+    /**
+     * Cache holding upstream bodies with their ETag and Last-Modified validators, used to revalidate with
+     * conditional requests once the entries above have expired.
+     */
+    private final CacheSpec validatedResponses = new CacheSpec(Duration.ofHours(1), 2_000);
+
+    /**
+     * Cache holding encoded list responses keyed by endpoint and query, written to clients without serializing.
+     */
+    private final CacheSpec serializedResponses = new CacheSpec(Duration.ofMinutes(10), 500);
+
+    /**
+     * Expiry and size bound of a single cache.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class CacheSpec {
+
+        /**
+         * Time after which an entry is evicted and reloaded from upstream.
+         */
+        private Duration ttl;
+
+        /**
+         * Maximum number of entries kept before least recently used entries are evicted.
+         */
+        private long maximumSize;
+
+        /**
+         * Constructs a cache spec with the given defaults.
+         *
+         * @param ttl The time to live of an entry
+         * @param maximumSize The maximum number of entries
+         * @author Nadeem Shaikh
+         */
+        public CacheSpec(final Duration ttl, final long maximumSize) {
+            this.ttl = ttl;
+            this.maximumSize = maximumSize;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.audition.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the limits of the batch post lookup shared by the batch endpoint and the service resolving it.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchConfiguration {
+}
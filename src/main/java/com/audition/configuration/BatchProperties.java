@@ -0,0 +1,32 @@
+package com.audition.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the batch post lookup, bound from {@code audition.batch.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of ids accepted in one batch request.
+     */
+    private int maxIds = 100;
+
+    /**
+     * Maximum number of single-post upstream calls a batch runs at the same time.
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * Number of ids missing from the cache at or above which the batch is resolved from the full post list,
+     * one upstream call, instead of one upstream call per id.
+     */
+    private int snapshotThreshold = 20;
+}
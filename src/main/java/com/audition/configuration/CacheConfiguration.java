@@ -0,0 +1,64 @@
+package com.audition.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collections;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the bounded in-process cache tier used by the service layer.
+ * Every cache is a Caffeine cache with its own TTL and size bound, and records statistics so that
+ * hit, miss, eviction and load-time metrics are published through actuator.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@EnableConfigurationProperties({AuditionCacheProperties.class, SnapshotProperties.class})
+public class CacheConfiguration {
+
+    public static final String POSTS_CACHE = "posts";
+    public static final String POST_BY_ID_CACHE = "postById";
+    public static final String COMMENTS_BY_POST_ID_CACHE = "commentsByPostId";
+    public static final String LAST_KNOWN_GOOD_CACHE = "lastKnownGood";
+    public static final String VALIDATED_RESPONSES_CACHE = "validatedResponses";
+    public static final String SERIALIZED_RESPONSES_CACHE = "serializedResponses";
+
+    /**
+     * Creates the Caffeine backed cache manager with one statically registered cache per upstream resource.
+     *
+     * @param properties The cache properties
+     * @return Configured CacheManager instance
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    public CacheManager cacheManager(final AuditionCacheProperties properties) {
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Static mode: unknown cache names are not created on the fly as unbounded caches
+        cacheManager.setCacheNames(Collections.emptyList());
+        cacheManager.registerCustomCache(POSTS_CACHE, buildCache(properties.getPosts()));
+        cacheManager.registerCustomCache(POST_BY_ID_CACHE, buildCache(properties.getPostById()));
+        cacheManager.registerCustomCache(COMMENTS_BY_POST_ID_CACHE, buildCache(properties.getCommentsByPostId()));
+        cacheManager.registerCustomCache(LAST_KNOWN_GOOD_CACHE, buildCache(properties.getLastKnownGood()));
+        cacheManager.registerCustomCache(VALIDATED_RESPONSES_CACHE, buildCache(properties.getValidatedResponses()));
+        cacheManager.registerCustomCache(SERIALIZED_RESPONSES_CACHE, buildCache(properties.getSerializedResponses()));
+        return cacheManager;
+    }
+
+    /**
+     * Builds a single Caffeine cache from its spec.
+     *
+     * @param spec The expiry and size bound of the cache
+     * @return The native Caffeine cache
+     * @author Nadeem Shaikh
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCache(final AuditionCacheProperties.CacheSpec spec) {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(spec.getTtl())
+            .maximumSize(spec.getMaximumSize())
+            .recordStats()
+            .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.audition.configuration;
+
+import com.audition.common.concurrent.VirtualThreads;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Configuration of the threads that serve requests and run asynchronous upstream calls.
+ * By default both run on bounded platform-thread pools. Setting {@code audition.threads.virtual.enabled=true}
+ * moves Tomcat request handling and the upstream executor onto virtual threads, so requests blocked on a
+ * slow upstream no longer hold one of a fixed number of platform threads.
+ *
+ * <p>The asynchronous endpoints hand their work to a separate, always bounded request executor, so that a
+ * request waiting for upstream holds one of its threads rather than a Tomcat worker.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@EnableConfigurationProperties({ThreadingProperties.class, AsyncProperties.class, PrefetchProperties.class})
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class ExecutorConfiguration {
+
+    public static final String UPSTREAM_EXECUTOR = "upstreamExecutor";
+    public static final String REQUEST_EXECUTOR = "requestExecutor";
+    public static final String PREFETCH_EXECUTOR = "prefetchExecutor";
+    public static final String TOMCAT_HANDLER_EXECUTOR = "tomcatHandlerExecutor";
+    public static final String HTTP_CLIENT_EXECUTOR = "httpClientExecutor";
+
+    private static final String UPSTREAM_THREAD_PREFIX = "upstream-";
+    private static final String HTTP_CLIENT_THREAD_PREFIX = "http-client-";
+
+    /**
+     * Creates the executor for asynchronous upstream calls.
+     * In platform mode the pool is bounded and a full queue pushes work back onto the caller's thread.
+     *
+     * @param properties The threading properties
+     * @return Configured ExecutorService instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(name = UPSTREAM_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService upstreamExecutor(final ThreadingProperties properties) {
+        if (properties.getVirtual().isEnabled()) {
+            return VirtualThreads.newThreadPerTaskExecutor(UPSTREAM_THREAD_PREFIX);
+        }
+        final ThreadingProperties.Upstream upstream = properties.getUpstream();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(upstream.getPoolSize(), upstream.getPoolSize(),
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(upstream.getQueueCapacity()),
+            new CustomizableThreadFactory(UPSTREAM_THREAD_PREFIX), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the executor on which the JDK HTTP/2 client runs its own internal tasks, such as completing responses.
+     * It is kept apart from the upstream executor, whose bounded pool is filled by the very callers blocked waiting
+     * for those completions, and it never runs work on the caller's thread, which may be the client's selector.
+     * Like the client's default executor it is unbounded; in virtual-thread mode it starts a virtual thread per task.
+     *
+     * @param properties The threading properties
+     * @return Configured ExecutorService instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(name = HTTP_CLIENT_EXECUTOR, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "audition.http", name = "version", havingValue = "HTTP_2")
+    public ExecutorService httpClientExecutor(final ThreadingProperties properties) {
+        if (properties.getVirtual().isEnabled()) {
+            return VirtualThreads.newThreadPerTaskExecutor(HTTP_CLIENT_THREAD_PREFIX);
+        }
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory(HTTP_CLIENT_THREAD_PREFIX));
+    }
+
+    /**
+     * Creates the executor running the work of asynchronous requests.
+     * A full queue rejects the request instead of running it on the caller's thread, which would pin the Tomcat
+     * worker the asynchronous endpoints exist to release.
+     *
+     * @param properties The asynchronous endpoint properties
+     * @return Configured ExecutorService instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(name = REQUEST_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService requestExecutor(final AsyncProperties properties) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(properties.getQueueCapacity()),
+            new CustomizableThreadFactory("request-"), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Publishes the pool size, active threads and queue depth of the request executor as {@code executor.*}
+     * metrics tagged {@code name=request}.
+     *
+     * @param requestExecutor The request executor
+     * @return MeterBinder registering the executor metrics
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    public MeterBinder requestExecutorMetrics(@Qualifier(REQUEST_EXECUTOR) final ExecutorService requestExecutor) {
+        return new ExecutorServiceMetrics(requestExecutor, "request", Tags.empty());
+    }
+
+    /**
+     * Creates the executor of the background comment prefetch.
+     * The queue holds one pass; a pass that does not fit is cut short and the rest is fetched by the next pass.
+     *
+     * @param properties The prefetch properties
+     * @return Configured ExecutorService instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(name = PREFETCH_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService prefetchExecutor(final PrefetchProperties properties) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.getConcurrency(), properties.getConcurrency(),
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(Math.max(1, properties.getTopPosts())),
+            new CustomizableThreadFactory("prefetch-"), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the virtual-thread-per-request executor of Tomcat's connectors.
+     * Tomcat does not stop an executor it was given, so it is a bean shut down with the context.
+     *
+     * @return Configured ExecutorService instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(name = TOMCAT_HANDLER_EXECUTOR, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "audition.threads.virtual", name = "enabled", havingValue = "true")
+    public ExecutorService tomcatHandlerExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-");
+    }
+
+    /**
+     * Replaces Tomcat's platform-thread worker pool with the virtual-thread-per-request executor.
+     *
+     * @param tomcatHandlerExecutor The virtual-thread executor of the connectors
+     * @return TomcatProtocolHandlerCustomizer installing the virtual-thread executor
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "audition.threads.virtual", name = "enabled", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+        @Qualifier(TOMCAT_HANDLER_EXECUTOR) final ExecutorService tomcatHandlerExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatHandlerExecutor);
+    }
+}
@@ -0,0 +1,56 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hedged upstream requests, bound from {@code audition.hedging.*}.
+ * A hedge is a duplicate of an upstream call sent once the first attempt has been outstanding for longer than
+ * the configured latency percentile of recent calls to the same endpoint.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.hedging")
+public class HedgingProperties {
+
+    /**
+     * Sends hedges for the configured endpoints.
+     */
+    private boolean enabled;
+
+    /**
+     * Client endpoints whose calls are hedged. Only idempotent reads belong here.
+     */
+    private List<String> endpoints = new ArrayList<>(List.of("getPostById", "getCommentsByPostId"));
+
+    /**
+     * Latency percentile of recent calls, between 0 and 1, after which a hedge is sent.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Hedge delay used until enough calls have been observed to compute the percentile.
+     */
+    private Duration initialDelay = Duration.ofMillis(200);
+
+    /**
+     * Lower bound of the hedge delay, so that a fast upstream is not hedged on noise.
+     */
+    private Duration minDelay = Duration.ofMillis(20);
+
+    /**
+     * Maximum share of calls, between 0 and 1, that may be hedged, averaged over a short burst allowance.
+     */
+    private double maxHedgeRatio = 0.05;
+
+    /**
+     * Number of recent call latencies per endpoint the percentile is computed from.
+     */
+    private int window = 1000;
+}
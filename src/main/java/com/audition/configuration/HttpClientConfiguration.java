@@ -0,0 +1,158 @@
+package com.audition.configuration;
+
+import com.audition.common.concurrent.RequestAbort;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Configuration of the pooled, keep-alive HTTP client engine used for upstream calls.
+ * The default engine is Apache HttpClient 5 with a bounded connection pool whose saturation is
+ * published to Micrometer. Setting {@code audition.http.version=HTTP_2} switches to the JDK HttpClient.
+ * Both engines ask for gzip-encoded responses and decompress them unless {@code audition.http.compression} is off.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, UpstreamProperties.class, HedgingProperties.class,
+    StaleProperties.class})
+public class HttpClientConfiguration {
+
+    private static final String VERSION_PROPERTY = "version";
+    private static final String PROPERTY_PREFIX = "audition.http";
+    private static final String HTTP_1_1 = "HTTP_1_1";
+
+    /**
+     * Creates the pooled connection manager shared by all upstream calls.
+     *
+     * @param properties The HTTP client properties
+     * @return Configured PoolingHttpClientConnectionManager instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = PROPERTY_PREFIX, name = VERSION_PROPERTY, havingValue = HTTP_1_1,
+        matchIfMissing = true)
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(final HttpClientProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxTotalConnections())
+            .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+            .setConnectionTimeToLive(TimeValue.ofMilliseconds(properties.getConnectionTimeToLive().toMillis()))
+            .setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(properties.getReadTimeout().toMillis()))
+                .build())
+            .build();
+    }
+
+    /**
+     * Creates the Apache HttpClient 5 instance backed by the pooled connection manager.
+     * Its built-in content compression sends {@code Accept-Encoding: gzip, deflate} and decodes the response body.
+     *
+     * @param connectionManager The pooled connection manager
+     * @param properties The HTTP client properties
+     * @return Configured CloseableHttpClient instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = PROPERTY_PREFIX, name = VERSION_PROPERTY, havingValue = HTTP_1_1,
+        matchIfMissing = true)
+    public CloseableHttpClient upstreamHttpClient(final PoolingHttpClientConnectionManager connectionManager,
+        final HttpClientProperties properties) {
+        final RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis()))
+            .setResponseTimeout(Timeout.ofMilliseconds(properties.getResponseTimeout().toMillis()))
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeout().toMillis()))
+            .build();
+
+        final HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleEvictionTimeout().toMillis()));
+        if (!properties.isCompression()) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates the request factory used by the RestTemplate for HTTP/1.1 upstream calls.
+     * Every request registers its cancellation with {@link RequestAbort}, since the classic engine does not abort an
+     * exchange when the sending thread is interrupted.
+     *
+     * @param httpClient The pooled Apache HttpClient
+     * @return Configured ClientHttpRequestFactory instance
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = PROPERTY_PREFIX, name = VERSION_PROPERTY, havingValue = HTTP_1_1,
+        matchIfMissing = true)
+    public ClientHttpRequestFactory pooledClientHttpRequestFactory(final CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected ClassicHttpRequest createHttpUriRequest(final HttpMethod httpMethod, final URI uri) {
+                final ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+                if (request instanceof Cancellable cancellable) {
+                    RequestAbort.onAbort(cancellable::cancel);
+                }
+                return request;
+            }
+        };
+    }
+
+    /**
+     * Publishes connection pool saturation of the upstream client to the meter registry.
+     *
+     * @param connectionManager The pooled connection manager
+     * @return MeterBinder registering the pool gauges
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = PROPERTY_PREFIX, name = VERSION_PROPERTY, havingValue = HTTP_1_1,
+        matchIfMissing = true)
+    public MeterBinder upstreamConnectionPoolMetrics(final PoolingHttpClientConnectionManager connectionManager) {
+        return new HttpClientPoolMetrics(connectionManager, "upstream");
+    }
+
+    /**
+     * Creates the request factory used by the RestTemplate for HTTP/2 upstream calls.
+     * The JDK client completes its responses on a dedicated executor, never on the upstream executor whose threads
+     * block in {@code HttpClient.send()} waiting for those completions.
+     *
+     * @param properties The HTTP client properties
+     * @param httpClientExecutor The executor of the client's internal tasks
+     * @return Configured ClientHttpRequestFactory instance
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = PROPERTY_PREFIX, name = VERSION_PROPERTY, havingValue = "HTTP_2")
+    public ClientHttpRequestFactory http2ClientHttpRequestFactory(final HttpClientProperties properties,
+        @Qualifier(ExecutorConfiguration.HTTP_CLIENT_EXECUTOR) final Executor httpClientExecutor) {
+        final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .executor(httpClientExecutor)
+            .connectTimeout(properties.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        return new JdkClientHttpRequestFactory(httpClient, properties.getResponseTimeout(), properties.isCompression());
+    }
+}
@@ -0,0 +1,74 @@
+package com.audition.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+
+/**
+ * Binds the connection pool statistics of an Apache HttpClient 5 connection manager to Micrometer.
+ *
+ * @author Nadeem Shaikh
+ */
+public class HttpClientPoolMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "audition.http.client.pool.";
+    private static final String POOL_TAG = "pool";
+
+    private final transient PoolingHttpClientConnectionManager connectionManager;
+    private final String poolName;
+
+    /**
+     * Constructs the binder for the given connection manager.
+     *
+     * @param connectionManager The connection manager to observe
+     * @param poolName The value of the pool tag on every published gauge
+     * @author Nadeem Shaikh
+     */
+    public HttpClientPoolMetrics(final PoolingHttpClientConnectionManager connectionManager, final String poolName) {
+        this.connectionManager = connectionManager;
+        this.poolName = poolName;
+    }
+
+    /**
+     * Registers the leased, pending, available, max and saturation gauges.
+     *
+     * @param registry The meter registry to register the gauges with
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + "leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+            .description("Connections currently leased to callers")
+            .tag(POOL_TAG, poolName)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + "pending", connectionManager, cm -> cm.getTotalStats().getPending())
+            .description("Callers waiting for a connection to become available")
+            .tag(POOL_TAG, poolName)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + "available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+            .description("Idle connections kept alive in the pool")
+            .tag(POOL_TAG, poolName)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + "max", connectionManager, cm -> cm.getTotalStats().getMax())
+            .description("Maximum number of connections allowed in the pool")
+            .tag(POOL_TAG, poolName)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + "saturation", connectionManager, HttpClientPoolMetrics::saturation)
+            .description("Ratio of leased connections to the pool maximum")
+            .tag(POOL_TAG, poolName)
+            .register(registry);
+    }
+
+    /**
+     * Computes the ratio of leased connections to the pool maximum.
+     *
+     * @param connectionManager The connection manager to inspect
+     * @return The saturation between 0 and 1
+     * @author Nadeem Shaikh
+     */
+    private static double saturation(final PoolingHttpClientConnectionManager connectionManager) {
+        final int max = connectionManager.getTotalStats().getMax();
+        return max == 0 ? 0 : (double) connectionManager.getTotalStats().getLeased() / max;
+    }
+}
@@ -0,0 +1,131 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning properties for the outbound HTTP client engine, bound from {@code audition.http.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.http")
+public class HttpClientProperties {
+
+    /**
+     * Protocol used for upstream calls. HTTP/1.1 runs on the pooled Apache HttpClient 5 engine,
+     * HTTP/2 runs on the JDK {@link java.net.http.HttpClient} which multiplexes over its own connections.
+     */
+    private Version version = Version.HTTP_1_1;
+
+    /**
+     * Client used for upstream calls. BLOCKING holds a thread per call in flight on the RestTemplate engine selected
+     * by {@link #version}; REACTIVE runs calls on a WebClient over a Reactor Netty pool and holds no thread while
+     * waiting for upstream.
+     */
+    private Client client = Client.BLOCKING;
+
+    /**
+     * Maximum number of pooled connections across all routes.
+     */
+    private int maxTotalConnections = 200;
+
+    /**
+     * Maximum number of pooled connections per upstream route (scheme, host and port).
+     */
+    private int maxConnectionsPerRoute = 50;
+
+    /**
+     * Maximum number of calls of the reactive client waiting for a pooled connection; further calls fail at once.
+     */
+    private int maxPendingAcquires = 1000;
+
+    /**
+     * Time allowed to establish a TCP/TLS connection.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Socket read timeout between two consecutive data packets.
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Time allowed for the upstream to start returning a response once the request is sent.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Time a caller waits to lease a connection from a saturated pool before failing.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Pooled connections idle for longer than this are evicted by the background evictor.
+     */
+    private Duration idleEvictionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Maximum lifetime of a pooled connection, regardless of activity.
+     */
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+
+    /**
+     * Requests gzip-encoded upstream responses with {@code Accept-Encoding} and decompresses them transparently,
+     * trading a little CPU for far fewer bytes on the wire for the large list payloads.
+     */
+    private boolean compression = true;
+
+    /**
+     * Wraps upstream responses in a BufferingClientHttpRequestFactory so bodies can be read more than once.
+     * Off by default, in which case Jackson parses straight from the socket stream.
+     */
+    private boolean bufferResponses;
+
+    /**
+     * Debug logging of upstream traffic.
+     */
+    private final Logging logging = new Logging();
+
+    /**
+     * Opt-in, size-capped and sampled capture of upstream bodies at DEBUG level.
+     */
+    @Getter
+    @Setter
+    public static class Logging {
+
+        /**
+         * Whether request and response bodies are captured at all.
+         */
+        private boolean bodyCaptureEnabled;
+
+        /**
+         * Maximum number of body bytes captured per exchange.
+         */
+        private int bodyCaptureMaxBytes = 2048;
+
+        /**
+         * Fraction of exchanges, between 0 and 1, whose bodies are captured.
+         */
+        private double bodyCaptureSampleRate = 0.01;
+    }
+
+    /**
+     * Supported upstream clients.
+     */
+    public enum Client {
+        BLOCKING,
+        REACTIVE
+    }
+
+    /**
+     * Supported upstream protocol versions.
+     */
+    public enum Version {
+        HTTP_1_1,
+        HTTP_2
+    }
+}
@@ -0,0 +1,214 @@
+package com.audition.configuration;
+
+import com.audition.common.concurrent.RequestAbort;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * ClientHttpRequestFactory backed by the JDK {@link HttpClient}, used when upstream calls run over HTTP/2.
+ * Response bodies are exposed as the live socket stream so message converters can read them without buffering.
+ * The JDK client does not negotiate content encoding itself, so when compression is enabled this factory asks for
+ * gzip and inflates gzip-encoded bodies on the fly. An exchange, and the body stream it answers with, is aborted
+ * through {@link RequestAbort}.
+ *
+ * @author Nadeem Shaikh
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    /**
+     * Headers managed by the JDK client itself which it refuses to accept from callers.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private static final String GZIP = "gzip";
+
+    private final transient HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final boolean compression;
+
+    /**
+     * Constructs the factory around an existing JDK HttpClient, without response compression.
+     *
+     * @param httpClient The JDK HttpClient to send requests with
+     * @param responseTimeout The maximum time to wait for a response
+     * @author Nadeem Shaikh
+     */
+    public JdkClientHttpRequestFactory(final HttpClient httpClient, final Duration responseTimeout) {
+        this(httpClient, responseTimeout, false);
+    }
+
+    /**
+     * Constructs the factory around an existing JDK HttpClient.
+     *
+     * @param httpClient The JDK HttpClient to send requests with
+     * @param responseTimeout The maximum time to wait for a response
+     * @param compression Whether gzip-encoded responses are requested and decompressed
+     * @author Nadeem Shaikh
+     */
+    public JdkClientHttpRequestFactory(final HttpClient httpClient, final Duration responseTimeout, final boolean compression) {
+        this.httpClient = httpClient;
+        this.responseTimeout = responseTimeout;
+        this.compression = compression;
+    }
+
+    /**
+     * Creates a new request for the given URI and method.
+     *
+     * @param uri The URI to send the request to
+     * @param httpMethod The HTTP method
+     * @return A request that is sent through the JDK HttpClient when executed
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public ClientHttpRequest createRequest(final URI uri, final HttpMethod httpMethod) {
+        return new JdkClientHttpRequest(uri, httpMethod);
+    }
+
+    /**
+     * ClientHttpRequest that buffers the (small) request body and sends it through the JDK HttpClient.
+     *
+     * @author Nadeem Shaikh
+     */
+    private class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream bodyStream = new ByteArrayOutputStream(0);
+
+        JdkClientHttpRequest(final URI uri, final HttpMethod method) {
+            super();
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(final HttpHeaders headers) {
+            return bodyStream;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(final HttpHeaders headers) throws IOException {
+            final HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(responseTimeout);
+            headers.forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    values.forEach(value -> builder.header(name, value));
+                }
+            });
+            if (compression && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                builder.header(HttpHeaders.ACCEPT_ENCODING, GZIP);
+            }
+            final byte[] body = bodyStream.toByteArray();
+            builder.method(method.name(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body));
+
+            final CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            RequestAbort.onAbort(() -> exchange.cancel(true));
+            try {
+                final JdkClientHttpResponse response = new JdkClientHttpResponse(exchange.get());
+                RequestAbort.onAbort(response::close);
+                return response;
+            } catch (final InterruptedException e) {
+                exchange.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the upstream response", e);
+            } catch (final CancellationException e) {
+                throw new IOException("Upstream request aborted", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
+                }
+                throw new IOException("Upstream request failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * ClientHttpResponse adapter over a JDK HttpResponse with a streaming body.
+     * A gzip-encoded body is inflated lazily, and its encoding and length headers are dropped as they no longer apply.
+     *
+     * @author Nadeem Shaikh
+     */
+    private static class JdkClientHttpResponse implements StatusCodeClientHttpResponse {
+
+        private final HttpResponse<InputStream> response;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final boolean gzipped;
+        private InputStream body;
+
+        JdkClientHttpResponse(final HttpResponse<InputStream> response) {
+            this.response = response;
+            response.headers().map().forEach(headers::addAll);
+            this.gzipped = GZIP.equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+            if (gzipped) {
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.statusCode());
+        }
+
+        @Override
+        public String getStatusText() {
+            final HttpStatus status = HttpStatus.resolve(response.statusCode());
+            return status != null ? status.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = gzipped ? new GZIPInputStream(response.body()) : response.body();
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.body().close();
+            } catch (final IOException ignored) {
+                // the connection is released back to the JDK client either way
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Background prefetch of the comment threads of the most requested posts, bound from {@code audition.prefetch.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.prefetch")
+public class PrefetchProperties {
+
+    /**
+     * Refreshes the comments of the most requested posts ahead of demand.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Interval between two prefetch passes; the first pass runs at startup.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Number of most requested posts whose comments each pass refreshes.
+     */
+    private int topPosts = 20;
+
+    /**
+     * Number of distinct posts whose request frequency is tracked.
+     */
+    private int trackedPosts = 1000;
+
+    /**
+     * Maximum number of comment threads fetched per second.
+     */
+    private int ratePerSecond = 10;
+
+    /**
+     * Number of threads fetching comment threads.
+     */
+    private int concurrency = 2;
+
+    /**
+     * Time after startup at which readiness stops waiting for the warm-up to complete.
+     */
+    private Duration warmUpTimeout = Duration.ofMinutes(1);
+}
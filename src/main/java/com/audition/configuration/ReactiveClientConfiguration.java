@@ -0,0 +1,84 @@
+package com.audition.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration of the non-blocking upstream client, active with {@code audition.http.client=REACTIVE}.
+ * Calls run on a WebClient over a Reactor Netty connection pool sized and timed out from the same
+ * {@code audition.http.*} properties as the blocking engines, so a call waiting for upstream holds a pooled
+ * connection but no thread.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "audition.http", name = "client", havingValue = "REACTIVE")
+public class ReactiveClientConfiguration {
+
+    /**
+     * Largest upstream value buffered before decoding: a single post, or one element of a list, as list bodies are
+     * decoded element by element however large the full post and comment lists grow.
+     */
+    static final int MAX_IN_MEMORY_SIZE = 1024 * 1024;
+
+    /**
+     * Creates the Reactor Netty connection pool shared by all reactive upstream calls.
+     *
+     * @param properties The HTTP client properties
+     * @return Configured ConnectionProvider instance
+     * @author Nadeem Shaikh
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(final HttpClientProperties properties) {
+        return ConnectionProvider.builder("upstream")
+            .maxConnections(properties.getMaxConnectionsPerRoute())
+            .pendingAcquireMaxCount(properties.getMaxPendingAcquires())
+            .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+            .maxIdleTime(properties.getIdleEvictionTimeout())
+            .maxLifeTime(properties.getConnectionTimeToLive())
+            .evictInBackground(properties.getIdleEvictionTimeout())
+            .metrics(true)
+            .build();
+    }
+
+    /**
+     * Creates the WebClient used by the reactive upstream client.
+     * Its Jackson codecs use the application ObjectMapper, so upstream JSON binds exactly as on the blocking client.
+     *
+     * @param connectionProvider The Reactor Netty connection pool
+     * @param properties The HTTP client properties
+     * @param objectMapper The ObjectMapper used to bind upstream bodies
+     * @return Configured WebClient instance
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    public WebClient upstreamWebClient(final ConnectionProvider connectionProvider, final HttpClientProperties properties,
+        final ObjectMapper objectMapper) {
+        final long readTimeoutMillis = properties.getReadTimeout().toMillis();
+        final HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+            .responseTimeout(properties.getResponseTimeout())
+            .doOnConnected(connection -> connection.addHandlerLast(
+                new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS)))
+            .compress(properties.isCompression());
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE);
+            })
+            .build();
+    }
+}
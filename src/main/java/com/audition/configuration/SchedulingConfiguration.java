@@ -0,0 +1,14 @@
+package com.audition.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background refresh jobs of the in-memory data tier.
+ *
+ * @author Nadeem Shaikh
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
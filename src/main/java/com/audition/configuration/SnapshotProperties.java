@@ -0,0 +1,39 @@
+package com.audition.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Local snapshot of upstream data, bound from {@code audition.snapshot.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Keeps the values fetched from upstream in a file, which a restarted instance starts from.
+     */
+    private boolean enabled;
+
+    /**
+     * Directory of the snapshot file; it should outlive the instance, e.g. a persistent volume. Only one instance
+     * uses a directory at a time, so instances sharing a host should each be given their own.
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "audition-api");
+
+    /**
+     * Interval at which values fetched since the previous flush are appended to the file.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of upstream calls whose values are kept; values of further calls are not written.
+     */
+    private int maxEntries = 2000;
+}
@@ -0,0 +1,42 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Serving of stale upstream data, bound from {@code audition.stale.*}.
+ * Ages are measured from the time the value was last fetched from upstream.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.stale")
+public class StaleProperties {
+
+    /**
+     * Answers upstream reads with the last known good value while it is within the stale-while-revalidate window,
+     * refreshing it in the background.
+     */
+    private boolean enabled;
+
+    /**
+     * Age up to which a value is fresh. Reads of a fresh value are sent upstream as usual; the stale-while-revalidate
+     * window only opens once a value is older than this.
+     */
+    private Duration maxAge = Duration.ofSeconds(30);
+
+    /**
+     * Length of the window, following {@code max-age}, in which a value is served immediately while it is refreshed
+     * in the background.
+     */
+    private Duration whileRevalidate = Duration.ofMinutes(5);
+
+    /**
+     * Maximum age of a value that is served when upstream fails, see
+     * {@code audition.resilience.fallback-to-last-known-good}.
+     */
+    private Duration ifError = Duration.ofHours(24);
+}
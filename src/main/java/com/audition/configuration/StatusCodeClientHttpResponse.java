@@ -0,0 +1,20 @@
+package com.audition.configuration;
+
+import java.io.IOException;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * ClientHttpResponse whose status is given by {@link #getStatusCode()} alone.
+ * The deprecated raw status code is still abstract in this version of Spring, so it is derived here once instead of
+ * being overridden by every response adapter.
+ *
+ * @author Nadeem Shaikh
+ */
+interface StatusCodeClientHttpResponse extends ClientHttpResponse {
+
+    @Override
+    @Deprecated
+    default int getRawStatusCode() throws IOException {
+        return getStatusCode().value();
+    }
+}
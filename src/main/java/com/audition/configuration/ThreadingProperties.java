@@ -0,0 +1,58 @@
+package com.audition.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Threading model of the servlet container and of asynchronous upstream work, bound from {@code audition.threads.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.threads")
+public class ThreadingProperties {
+
+    /**
+     * Opt-in virtual-thread execution mode.
+     */
+    private final Virtual virtual = new Virtual();
+
+    /**
+     * Platform-thread pool used for asynchronous upstream work while virtual threads are disabled.
+     */
+    private final Upstream upstream = new Upstream();
+
+    /**
+     * Virtual-thread execution mode.
+     */
+    @Getter
+    @Setter
+    public static class Virtual {
+
+        /**
+         * Runs Tomcat request handling and asynchronous upstream work on virtual threads instead of
+         * bounded platform-thread pools.
+         */
+        private boolean enabled;
+    }
+
+    /**
+     * Bounded platform-thread pool for asynchronous upstream work.
+     */
+    @Getter
+    @Setter
+    public static class Upstream {
+
+        /**
+         * Number of platform threads running upstream calls.
+         */
+        private int poolSize = 64;
+
+        /**
+         * Number of upstream calls queued once every thread is busy; further calls run on the caller's thread.
+         */
+        private int queueCapacity = 1000;
+    }
+}
@@ -0,0 +1,82 @@
+package com.audition.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Location of the upstream API and client-side load balancing across its replicas, bound from
+ * {@code audition.upstream.*}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audition.upstream")
+public class UpstreamProperties {
+
+    /**
+     * Base URL of the upstream API, used when no {@code base-urls} are configured.
+     */
+    private String baseUrl = "https://jsonplaceholder.typicode.com";
+
+    /**
+     * Base URLs of interchangeable upstream replicas, mirrors or cache sidecars to balance calls across.
+     */
+    private List<String> baseUrls = new ArrayList<>();
+
+    /**
+     * How the endpoint of each call is chosen.
+     */
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+
+    /**
+     * Passive health checking of the endpoints.
+     */
+    private final Ejection ejection = new Ejection();
+
+    /**
+     * Returns the endpoints to balance across.
+     *
+     * @return The configured base URLs, or the single base URL if none are configured
+     * @author Nadeem Shaikh
+     */
+    public List<String> getEndpoints() {
+        return baseUrls.isEmpty() ? List.of(baseUrl) : List.copyOf(baseUrls);
+    }
+
+    /**
+     * Endpoint selection strategies.
+     */
+    public enum LoadBalancing {
+        /**
+         * Each healthy endpoint in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The healthy endpoint with the fewest calls in flight, which steers traffic away from slow replicas.
+         */
+        LEAST_OUTSTANDING_REQUESTS
+    }
+
+    /**
+     * Ejection of endpoints that keep failing.
+     */
+    @Getter
+    @Setter
+    public static class Ejection {
+
+        /**
+         * Number of consecutive server errors or I/O failures after which an endpoint is ejected.
+         */
+        private int consecutiveFailures = 5;
+
+        /**
+         * Time an ejected endpoint receives no calls while other endpoints are healthy.
+         */
+        private Duration duration = Duration.ofSeconds(30);
+    }
+}
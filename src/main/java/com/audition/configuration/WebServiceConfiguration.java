@@ -1,26 +1,38 @@
 package com.audition.configuration;
 
+import com.audition.web.FieldProjection;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.BufferingClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Configuration class for web services.
@@ -34,6 +46,10 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
 
     private static final String YEAR_MONTH_DAY_PATTERN = "yyyy-MM-dd";
 
+    @Autowired
+    @Qualifier(ExecutorConfiguration.REQUEST_EXECUTOR)
+    private transient ExecutorService requestExecutor;
+
     /**
      * Creates and configures an ObjectMapper bean.
      *
@@ -45,7 +61,7 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
         final ObjectMapper objectMapper = new ObjectMapper();
         
         // 1. Allow for date format as yyyy-MM-dd
-        objectMapper.setDateFormat(new SimpleDateFormat(YEAR_MONTH_DAY_PATTERN, new Locale("en", "AU")));
+        objectMapper.setDateFormat(new SimpleDateFormat(YEAR_MONTH_DAY_PATTERN, Locale.of("en", "AU")));
         
         // 2. Do not fail on unknown properties
         objectMapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -59,51 +75,89 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
         
         // 5. Do not write dates as timestamps
         objectMapper.configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        // 6. Allow list responses to write only the fields a client asks for
+        FieldProjection.register(objectMapper);
         
         return objectMapper;
     }
 
+    /**
+     * Registers strong ETags for the post endpoints.
+     * The filter hashes each response body into an ETag and answers a matching {@code If-None-Match} with
+     * {@code 304 Not Modified}, so clients polling unchanged posts do not download them again. Pre-encoded list pages
+     * carry their own ETag and bypass the filter, so their bytes are not buffered and hashed a second time.
+     *
+     * @return The filter registration for {@code /posts} and {@code /posts/*}, and their asynchronous variants
+     * @author Nadeem Shaikh
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        final FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/posts", "/posts/*", "/async/posts", "/async/posts/*");
+        registration.setName("etagFilter");
+        return registration;
+    }
+
+    /**
+     * Runs streamed response bodies on the bounded request executor, instead of a new thread per response.
+     *
+     * @param configurer The asynchronous request support configurer
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(requestExecutor));
+    }
+
     /**
      * Creates and configures a RestTemplate bean.
+     * Responses are streamed to the message converters unless {@code audition.http.buffer-responses} is set.
      *
      * @param objectMapper The ObjectMapper to be used for JSON conversion
+     * @param clientHttpRequestFactory The pooled request factory configured in {@link HttpClientConfiguration}
+     * @param httpClientProperties The HTTP client properties
      * @return Configured RestTemplate instance
      * @author Nadeem Shaikh
      */
     @Bean
-    public RestTemplate restTemplate(final ObjectMapper objectMapper) {
-        final RestTemplate restTemplate = new RestTemplate(
-            new BufferingClientHttpRequestFactory(createClientFactory()));
+    public RestTemplate restTemplate(final ObjectMapper objectMapper, final ClientHttpRequestFactory clientHttpRequestFactory,
+        final HttpClientProperties httpClientProperties) {
+        final RestTemplate restTemplate = new RestTemplate(httpClientProperties.isBufferResponses()
+            ? new BufferingClientHttpRequestFactory(clientHttpRequestFactory)
+            : clientHttpRequestFactory);
         
         // Use object mapper
         restTemplate.setMessageConverters(List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
         
         // Create a logging interceptor
-        restTemplate.setInterceptors(List.of(new LoggingInterceptor()));
+        restTemplate.setInterceptors(List.of(new LoggingInterceptor(httpClientProperties.getLogging())));
         
         return restTemplate;
     }
 
-    /**
-     * Creates a SimpleClientHttpRequestFactory with output streaming disabled.
-     *
-     * @return Configured SimpleClientHttpRequestFactory instance
-     * @author Nadeem Shaikh
-     */
-    private SimpleClientHttpRequestFactory createClientFactory() {
-        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setOutputStreaming(false);
-        return requestFactory;
-    }
-
     /**
      * Inner class that implements ClientHttpRequestInterceptor for logging HTTP requests and responses.
+     * Request lines and statuses are logged at DEBUG; bodies are only captured when enabled and sampled,
+     * and never beyond the configured byte cap, so the response stream is not copied on the hot path.
      *
      * @author Nadeem Shaikh
      */
     protected class LoggingInterceptor implements ClientHttpRequestInterceptor {
         private static final Logger LOGGER = LoggerFactory.getLogger(LoggingInterceptor.class);
 
+        private final HttpClientProperties.Logging logging;
+
+        /**
+         * Constructs the interceptor with the given body capture settings.
+         *
+         * @param logging The body capture settings
+         * @author Nadeem Shaikh
+         */
+        protected LoggingInterceptor(final HttpClientProperties.Logging logging) {
+            this.logging = logging;
+        }
+
         /**
          * Intercepts the HTTP request, logs it, executes it, and then logs the response.
          *
@@ -115,11 +169,12 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
          * @author Nadeem Shaikh
          */
         @Override
+        @SuppressWarnings("PMD.CloseResource") // the response is closed by the RestTemplate once it is extracted
         public ClientHttpResponse intercept(final HttpRequest request, final byte[] body, final ClientHttpRequestExecution execution) throws IOException {
-            logRequest(request, body);
-            final   ClientHttpResponse response = execution.execute(request, body);
-            logResponse(response);
-            return response;
+            final boolean captureBody = shouldCaptureBody();
+            logRequest(request, body, captureBody);
+            final ClientHttpResponse response = execution.execute(request, body);
+            return logResponse(response, captureBody);
         }
 
         /**
@@ -127,25 +182,101 @@ public class WebServiceConfiguration implements WebMvcConfigurer {
          *
          * @param request The HTTP request
          * @param body The request body
+         * @param captureBody Whether the request body is captured for this exchange
          * @author Nadeem Shaikh
          */
-        protected void logRequest(final HttpRequest request, final byte[] body) {
-            LOGGER.info("Request: {} {}", request.getMethod(), request.getURI());
-            LOGGER.info("Request headers: {}", request.getHeaders());
-            LOGGER.info("Request body: {}", new String(body, StandardCharsets.UTF_8));
+        protected void logRequest(final HttpRequest request, final byte[] body, final boolean captureBody) {
+            if (!LOGGER.isDebugEnabled()) {
+                return;
+            }
+            LOGGER.debug("Request: {} {}", request.getMethod(), request.getURI());
+            LOGGER.debug("Request headers: {}", request.getHeaders());
+            if (captureBody && body.length > 0) {
+                LOGGER.debug("Request body: {}", new String(body, 0, Math.min(body.length, logging.getBodyCaptureMaxBytes()),
+                    StandardCharsets.UTF_8));
+            }
         }
 
         /**
          * Logs the details of an HTTP response.
          *
          * @param response The HTTP response
+         * @param captureBody Whether the leading bytes of the response body are captured for this exchange
+         * @return The response to hand to the message converters, still positioned at the start of the body
          * @throws IOException If an I/O error occurs while reading the response body
          * @author Nadeem Shaikh
          */
-        protected void logResponse(final ClientHttpResponse response) throws IOException {
-            LOGGER.info("Response status: {}", response.getStatusCode());
-            LOGGER.info("Response headers: {}", response.getHeaders());
-            LOGGER.info("Response body: {}", StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        @SuppressWarnings("PMD.CloseResource") // the rewound body stream is handed to the message converters
+        protected ClientHttpResponse logResponse(final ClientHttpResponse response, final boolean captureBody) throws IOException {
+            if (!LOGGER.isDebugEnabled()) {
+                return response;
+            }
+            LOGGER.debug("Response status: {}", response.getStatusCode());
+            LOGGER.debug("Response headers: {}", response.getHeaders());
+            if (!captureBody) {
+                return response;
+            }
+
+            final int maxBytes = logging.getBodyCaptureMaxBytes();
+            final BufferedInputStream bodyStream = new BufferedInputStream(response.getBody(), maxBytes);
+            bodyStream.mark(maxBytes);
+            final byte[] prefix = bodyStream.readNBytes(maxBytes);
+            bodyStream.reset();
+            LOGGER.debug("Response body (first {} bytes): {}", prefix.length, new String(prefix, StandardCharsets.UTF_8));
+            return new CapturedBodyResponse(response, bodyStream);
+        }
+
+        /**
+         * Decides whether the bodies of the current exchange are captured.
+         *
+         * @return true if capture is enabled, DEBUG is on and the exchange is sampled
+         * @author Nadeem Shaikh
+         */
+        protected boolean shouldCaptureBody() {
+            return logging.isBodyCaptureEnabled()
+                && LOGGER.isDebugEnabled()
+                && ThreadLocalRandom.current().nextDouble() < logging.getBodyCaptureSampleRate();
+        }
+    }
+
+    /**
+     * ClientHttpResponse whose body is replaced by a stream rewound after its captured prefix.
+     *
+     * @author Nadeem Shaikh
+     */
+    private static class CapturedBodyResponse implements StatusCodeClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final InputStream body;
+
+        CapturedBodyResponse(final ClientHttpResponse delegate, final InputStream body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.audition.integration;
+
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Contract of the clients of the Audition external API.
+ * The implementation is selected with {@code audition.http.client}: {@link AuditionIntegrationClient} blocks a
+ * thread for every call in flight, {@link ReactiveAuditionIntegrationClient} holds none while waiting for upstream.
+ * Both share the same caching, coalescing and resilience layers, and fail with the same exceptions.
+ *
+ * @author Nadeem Shaikh
+ */
+public interface AuditionClient {
+
+    /**
+     * Retrieves all posts from the external API.
+     *
+     * @return A list of AuditionPost objects
+     * @throws com.audition.common.exception.SystemException if there's an error fetching posts
+     * @author Nadeem Shaikh
+     */
+    List<AuditionPost> getPosts();
+
+    /**
+     * Retrieves all posts from the external API, handing each post to a sink as it is decoded from the response.
+     * The posts are never served stale while being revalidated, and the call never joins an identical call in flight,
+     * so a caller building its own copy of the data, such as an index refresh, always gets the current upstream answer
+     * through its own sinks.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt, see {@link ElementSink}
+     * @return The elements of the sink of the attempt that answered, or the kept posts if upstream answered not modified
+     * @throws com.audition.common.exception.SystemException if there's an error fetching posts
+     * @author Nadeem Shaikh
+     */
+    List<AuditionPost> getPosts(Supplier<? extends ElementSink<AuditionPost>> sinks);
+
+    /**
+     * Retrieves a specific post by its ID from the external API.
+     *
+     * @param id The ID of the post to retrieve
+     * @return The AuditionPost object corresponding to the given ID
+     * @throws com.audition.common.exception.SystemException if there's an error fetching the post or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    AuditionPost getPostById(String id);
+
+    /**
+     * Retrieves a specific post by its ID without blocking the caller.
+     *
+     * @param id The ID of the post to retrieve
+     * @return A future completed with the post, or with the SystemException raised by {@link #getPostById(String)}
+     * @author Nadeem Shaikh
+     */
+    CompletableFuture<AuditionPost> getPostByIdAsync(String id);
+
+    /**
+     * Retrieves comments for a specific post from the external API.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A list of Comment objects associated with the given post ID
+     * @throws com.audition.common.exception.SystemException if there's an error fetching comments or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    List<Comment> getCommentsByPostId(String postId);
+
+    /**
+     * Retrieves comments for a specific post without blocking the caller.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A future completed with the comments, or with the SystemException raised by {@link #getCommentsByPostId(String)}
+     * @author Nadeem Shaikh
+     */
+    CompletableFuture<List<Comment>> getCommentsByPostIdAsync(String postId);
+
+    /**
+     * Retrieves the comments of every post from the external API in one call.
+     *
+     * @return A list of all Comment objects
+     * @throws com.audition.common.exception.SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    List<Comment> getComments();
+
+    /**
+     * Retrieves the comments of every post in one call, handing each comment to a sink as it is decoded from the response.
+     * The comments are never served stale while being revalidated, and the call never joins an identical call in flight,
+     * so a caller building its own copy of the data, such as an index refresh, always gets the current upstream answer
+     * through its own sinks.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt, see {@link ElementSink}
+     * @return The elements of the sink of the attempt that answered, or the kept comments if upstream answered not modified
+     * @throws com.audition.common.exception.SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    List<Comment> getComments(Supplier<? extends ElementSink<Comment>> sinks);
+
+    /**
+     * Retrieves comments for a specific post from the external API using the direct endpoint.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A list of Comment objects associated with the given post ID
+     * @throws com.audition.common.exception.SystemException if there's an error fetching comments or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    List<Comment> getCommentsForPost(String postId);
+}
@@ -1,38 +1,89 @@
 package com.audition.integration;
 
 import com.audition.common.exception.SystemException;
+import com.audition.configuration.ExecutorConfiguration;
 import com.audition.model.AuditionPost;
 import com.audition.model.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Client for integrating with the Audition external API.
+ * A call may be answered from a recent last known good value by {@link StaleWhileRevalidate}. Otherwise identical
+ * concurrent calls are coalesced by {@link SingleFlight} into one upstream request, which is guarded
+ * by {@link UpstreamResilience}, hedged by {@link UpstreamHedging} and sent to a replica chosen by
+ * {@link UpstreamEndpoints}. Requests carry the validators of the previous response, so an unchanged resource is
+ * answered with 304 and served by {@link UpstreamValidators} without downloading it again. Lists are read from the
+ * response stream one element at a time by a {@link JsonArrayExtractor}, which hands each element to an
+ * {@link ElementSink} as it arrives. The asynchronous variants run on the upstream executor, which uses virtual
+ * threads when they are enabled.
+ *
+ * <p>This is the default, blocking client; {@code audition.http.client=REACTIVE} replaces it with
+ * {@link ReactiveAuditionIntegrationClient}.
  *
  * @author Nadeem Shaikh
  */
 @Component
-public class AuditionIntegrationClient {
+@ConditionalOnProperty(prefix = "audition.http", name = "client", havingValue = "BLOCKING", matchIfMissing = true)
+public class AuditionIntegrationClient implements AuditionClient {
+
+    public static final String GET_POSTS = "getPosts";
+    public static final String GET_POST_BY_ID = "getPostById";
+    public static final String GET_COMMENTS_BY_POST_ID = "getCommentsByPostId";
+    public static final String GET_COMMENTS_FOR_POST = "getCommentsForPost";
+    public static final String GET_COMMENTS = "getComments";
 
-    private static final String BASE_URL = "https://jsonplaceholder.typicode.com";
-    private static final String RESOURCE_NOT_FOUND = "Resource Not Found";
-    private static final String API_ERROR = "API Error";
-    private static final String ERROR_FETCHING_POST = "Error fetching post: ";
-    private static final String ERROR_FETCHING_COMMENTS = "Error fetching comments for post: ";
-    private static final String CANNOT_FIND_POST = "Cannot find a Post with id ";
-    private static final String CANNOT_FIND_COMMENTS = "Cannot find comments for post with id ";
+    static final String RESOURCE_NOT_FOUND = "Resource Not Found";
+    static final String API_ERROR = "API Error";
+    static final String ERROR_FETCHING_POST = "Error fetching post: ";
+    static final String ERROR_FETCHING_COMMENTS = "Error fetching comments for post: ";
+    static final String ERROR_FETCHING_ALL_COMMENTS = "Error fetching comments: ";
+    static final String CANNOT_FIND_POST = "Cannot find a Post with id ";
+    static final String CANNOT_FIND_COMMENTS = "Cannot find comments for post with id ";
 
     @Autowired
     private transient RestTemplate restTemplate;
 
+    @Autowired
+    private transient ObjectMapper objectMapper;
+
+    @Autowired
+    private transient StaleWhileRevalidate staleWhileRevalidate;
+
+    @Autowired
+    private transient SingleFlight singleFlight;
+
+    @Autowired
+    private transient UpstreamResilience upstreamResilience;
+
+    @Autowired
+    private transient UpstreamHedging upstreamHedging;
+
+    @Autowired
+    private transient UpstreamEndpoints upstreamEndpoints;
+
+    @Autowired
+    private transient UpstreamValidators upstreamValidators;
+
+    @Autowired
+    @Qualifier(ExecutorConfiguration.UPSTREAM_EXECUTOR)
+    private transient Executor upstreamExecutor;
+
     /**
      * Retrieves all posts from the external API.
      *
@@ -40,16 +91,108 @@ public class AuditionIntegrationClient {
      * @throws SystemException if there's an error fetching posts
      * @author Nadeem Shaikh
      */
+    @Override
     public List<AuditionPost> getPosts() {
+        return call(GET_POSTS, null, baseUrl -> fetchPosts(baseUrl, ElementSink::toList));
+    }
+
+    /**
+     * Retrieves all posts from the external API, handing each post to a sink as it is read from the response.
+     * The posts are never served stale while being revalidated, nor shared from a call in flight.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt
+     * @return The elements of the sink of the attempt that answered, or the kept posts if upstream answered not modified
+     * @throws SystemException if there's an error fetching posts
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<AuditionPost> getPosts(final Supplier<? extends ElementSink<AuditionPost>> sinks) {
+        return feed(GET_POSTS, key(GET_POSTS, null), baseUrl -> fetchPosts(baseUrl, sinks));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint, unless it is served stale while being revalidated. The call is
+     * coalesced with identical calls in flight and guarded by the endpoint's circuit breaker, bulkhead and retry.
+     * Only the call that actually goes upstream passes through the resilience layer. A slow attempt may be hedged
+     * with a duplicate, and each attempt is sent to the upstream replica selected by the load balancer.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param fetch The upstream call, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> T call(final String endpoint, final String argument, final Function<String, T> fetch) {
+        final String key = key(endpoint, argument);
+        return staleWhileRevalidate.execute(endpoint, argument, key, () -> callUpstream(endpoint, key, fetch));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint, coalesced with identical calls in flight, guarded by the endpoint's
+     * circuit breaker, bulkhead and retry, hedged if slow and sent to the replica selected by the load balancer.
+     *
+     * @param endpoint The endpoint name
+     * @param key The key identifying the call
+     * @param fetch The upstream call, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> T callUpstream(final String endpoint, final String key, final Function<String, T> fetch) {
+        return singleFlight.execute(key, () -> sendUpstream(endpoint, key, fetch));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint like {@link #callUpstream(String, String, Function)}, but never joins an
+     * identical call in flight, because the sinks of a joined call would never be fed. Identical plain calls arriving
+     * meanwhile still join it. The call is never answered stale while revalidating either.
+     *
+     * @param endpoint The endpoint name
+     * @param key The key identifying the call
+     * @param fetch The upstream call feeding the caller's sinks, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> T feed(final String endpoint, final String key, final Function<String, T> fetch) {
+        return singleFlight.lead(key, () -> sendUpstream(endpoint, key, fetch));
+    }
+
+    private <T> T sendUpstream(final String endpoint, final String key, final Function<String, T> fetch) {
+        return upstreamResilience.execute(endpoint, key,
+            () -> upstreamHedging.execute(endpoint, () -> upstreamEndpoints.execute(fetch)));
+    }
+
+    static String key(final String endpoint, final String argument) {
+        return argument == null ? endpoint : endpoint + ":" + argument;
+    }
+
+    /**
+     * Sends a conditional GET for an upstream JSON array, reads it element by element into a sink and resolves it.
+     *
+     * @param key The cache key of the call, selecting the validators sent
+     * @param uri The URI of the array
+     * @param elementType The type of the array elements
+     * @param sinks The supplier of the sink of the attempt
+     * @param <T> The type of the array elements
+     * @return The elements, or the kept elements if upstream answered 304; null if there is no body
+     */
+    private <T> List<T> fetchArray(final String key, final URI uri, final Class<T> elementType,
+        final Supplier<? extends ElementSink<T>> sinks) {
+        return upstreamValidators.exchange(key, conditional -> restTemplate.execute(uri, HttpMethod.GET,
+            restTemplate.httpEntityCallback(conditional, List.class),
+            new JsonArrayExtractor<>(objectMapper, elementType, sinks)));
+    }
+
+    private static URI uri(final String baseUrl, final String path, final Object... uriVariables) {
+        return UriComponentsBuilder.fromUriString(baseUrl + path).buildAndExpand(uriVariables).encode().toUri();
+    }
+
+    private List<AuditionPost> fetchPosts(final String baseUrl, final Supplier<? extends ElementSink<AuditionPost>> sinks) {
         try {
-            final ResponseEntity<List<AuditionPost>> response = restTemplate.exchange(
-                BASE_URL + "/posts",
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {
-                }
-            );
-            final List<AuditionPost> posts = response.getBody();
+            final String key = key(GET_POSTS, null);
+            final List<AuditionPost> posts = fetchArray(key, uri(baseUrl, "/posts"), AuditionPost.class, sinks);
             return posts != null ? posts : new ArrayList<>();
 
         } catch (final HttpClientErrorException e) {
@@ -66,16 +209,33 @@ public class AuditionIntegrationClient {
      * @throws SystemException if there's an error fetching the post or if the post is not found
      * @author Nadeem Shaikh
      */
+    @Override
     public AuditionPost getPostById(final String id) {
+        return call(GET_POST_BY_ID, id, baseUrl -> fetchPostById(baseUrl, id));
+    }
+
+    /**
+     * Retrieves a specific post by its ID on the upstream executor.
+     *
+     * @param id The ID of the post to retrieve
+     * @return A future completed with the post, or with the SystemException raised by {@link #getPostById(String)}
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public CompletableFuture<AuditionPost> getPostByIdAsync(final String id) {
+        return CompletableFuture.supplyAsync(() -> getPostById(id), upstreamExecutor);
+    }
+
+    private AuditionPost fetchPostById(final String baseUrl, final String id) {
         try {
-            final ResponseEntity<AuditionPost> response = restTemplate.exchange(
-                BASE_URL + "/posts/" + id,
+            final String key = key(GET_POST_BY_ID, id);
+            final AuditionPost post = upstreamValidators.exchange(key, conditional -> restTemplate.exchange(
+                baseUrl + "/posts/" + id,
                 HttpMethod.GET,
-                null,
+                conditional,
                 AuditionPost.class,
                 id
-            );
-            final AuditionPost post = response.getBody();
+            ));
             return post != null ? post : new AuditionPost();
 
         } catch (final HttpClientErrorException e) {
@@ -97,17 +257,28 @@ public class AuditionIntegrationClient {
      * @throws SystemException if there's an error fetching comments or if the post is not found
      * @author Nadeem Shaikh
      */
+    @Override
     public List<Comment> getCommentsByPostId(final String postId) {
+        return call(GET_COMMENTS_BY_POST_ID, postId, baseUrl -> fetchCommentsByPostId(baseUrl, postId));
+    }
+
+    /**
+     * Retrieves comments for a specific post on the upstream executor.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A future completed with the comments, or with the SystemException raised by {@link #getCommentsByPostId(String)}
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public CompletableFuture<List<Comment>> getCommentsByPostIdAsync(final String postId) {
+        return CompletableFuture.supplyAsync(() -> getCommentsByPostId(postId), upstreamExecutor);
+    }
+
+    private List<Comment> fetchCommentsByPostId(final String baseUrl, final String postId) {
         try {
-            final ResponseEntity<List<Comment>> response = restTemplate.exchange(
-                BASE_URL + "/comments?postId={postId}",
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {
-                },
-                postId
-            );
-            final List<Comment> commentList = response.getBody();
+            final String key = key(GET_COMMENTS_BY_POST_ID, postId);
+            final List<Comment> commentList = fetchArray(key, uri(baseUrl, "/comments?postId={postId}", postId),
+                Comment.class, ElementSink::toList);
             return commentList != null ? commentList : new ArrayList<>();
         } catch (final HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
@@ -121,6 +292,43 @@ public class AuditionIntegrationClient {
         }
     }
 
+    /**
+     * Retrieves the comments of every post from the external API in one call.
+     * The body is bound as it streams from the connection rather than after it has been buffered.
+     *
+     * @return A list of all Comment objects
+     * @throws SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getComments() {
+        return call(GET_COMMENTS, null, baseUrl -> fetchComments(baseUrl, ElementSink::toList));
+    }
+
+    /**
+     * Retrieves the comments of every post in one call, handing each comment to a sink as it is read from the response.
+     * The comments are never served stale while being revalidated, nor shared from a call in flight.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt
+     * @return The elements of the sink of the attempt that answered, or the kept comments if upstream answered not modified
+     * @throws SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getComments(final Supplier<? extends ElementSink<Comment>> sinks) {
+        return feed(GET_COMMENTS, key(GET_COMMENTS, null), baseUrl -> fetchComments(baseUrl, sinks));
+    }
+
+    private List<Comment> fetchComments(final String baseUrl, final Supplier<? extends ElementSink<Comment>> sinks) {
+        try {
+            final String key = key(GET_COMMENTS, null);
+            final List<Comment> comments = fetchArray(key, uri(baseUrl, "/comments"), Comment.class, sinks);
+            return comments != null ? comments : new ArrayList<>();
+        } catch (final HttpClientErrorException e) {
+            throw new SystemException(ERROR_FETCHING_ALL_COMMENTS + e.getMessage(), API_ERROR, e.getStatusCode().value(), e);
+        }
+    }
+
     /**
      * Retrieves comments for a specific post from the external API using the direct endpoint.
      *
@@ -129,16 +337,16 @@ public class AuditionIntegrationClient {
      * @throws SystemException if there's an error fetching comments or if the post is not found
      * @author [Your Name]
      */
+    @Override
     public List<Comment> getCommentsForPost(final String postId) {
+        return call(GET_COMMENTS_FOR_POST, postId, baseUrl -> fetchCommentsForPost(baseUrl, postId));
+    }
+
+    private List<Comment> fetchCommentsForPost(final String baseUrl, final String postId) {
         try {
-            final ResponseEntity<List<Comment>> response = restTemplate.exchange(
-                BASE_URL + "/posts/{postId}/comments",
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {},
-                postId
-            );
-            final List<Comment> comments = response.getBody();
+            final String key = key(GET_COMMENTS_FOR_POST, postId);
+            final List<Comment> comments = fetchArray(key, uri(baseUrl, "/posts/{postId}/comments", postId),
+                Comment.class, ElementSink::toList);
             return comments != null ? comments : new ArrayList<>();
         } catch (final HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
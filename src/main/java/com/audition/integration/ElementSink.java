@@ -0,0 +1,55 @@
+package com.audition.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Receives the elements of an upstream JSON array one at a time, as they are decoded from the response stream, and
+ * holds the list that becomes the result of the call.
+ * A new sink is taken for every upstream attempt, so hedged or retried attempts never share one. A call feeding sinks
+ * is never answered stale or joined to another caller's call, but a not modified answer still feeds no sink; a caller
+ * recognises the sink behind a result by the identity of its {@link #elements()} list.
+ *
+ * @param <T> The type of the elements
+ * @author Nadeem Shaikh
+ */
+public interface ElementSink<T> {
+
+    /**
+     * Accepts the next element of the array, in upstream order.
+     *
+     * @param element The decoded element
+     * @author Nadeem Shaikh
+     */
+    void accept(T element);
+
+    /**
+     * Returns the elements accepted so far, which is the result of the attempt once the array has been read.
+     *
+     * @return The list of the accepted elements
+     * @author Nadeem Shaikh
+     */
+    List<T> elements();
+
+    /**
+     * Creates a sink that only collects the elements into a list.
+     *
+     * @param <T> The type of the elements
+     * @return A new sink
+     * @author Nadeem Shaikh
+     */
+    static <T> ElementSink<T> toList() {
+        final List<T> elements = new ArrayList<>();
+        return new ElementSink<>() {
+            @Override
+            public void accept(final T element) {
+                elements.add(element);
+            }
+
+            @Override
+            public List<T> elements() {
+                return elements;
+            }
+        };
+    }
+}
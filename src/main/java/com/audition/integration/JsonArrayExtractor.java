@@ -0,0 +1,74 @@
+package com.audition.integration;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Reads an upstream JSON array token by token from the response stream, handing each element to an
+ * {@link ElementSink} as soon as it is decoded instead of binding the whole array first. Only one element is being
+ * bound at a time, so the consumer of the sink can start its work before the last byte of the body has arrived.
+ * A 304 or an empty body yields a response without a body, like the message converter it replaces.
+ *
+ * @param <T> The type of the array elements
+ * @author Nadeem Shaikh
+ */
+final class JsonArrayExtractor<T> implements ResponseExtractor<ResponseEntity<List<T>>> {
+
+    private final ObjectReader reader;
+    private final Supplier<? extends ElementSink<T>> sinks;
+
+    /**
+     * Constructs an extractor for one upstream attempt.
+     *
+     * @param objectMapper The ObjectMapper the elements are bound with
+     * @param elementType The type of the array elements
+     * @param sinks The supplier of the sink receiving the elements of the attempt
+     */
+    JsonArrayExtractor(final ObjectMapper objectMapper, final Class<T> elementType,
+        final Supplier<? extends ElementSink<T>> sinks) {
+        this.reader = objectMapper.readerFor(elementType);
+        this.sinks = sinks;
+    }
+
+    @Override
+    public ResponseEntity<List<T>> extractData(final ClientHttpResponse response) throws IOException {
+        final HttpStatusCode status = response.getStatusCode();
+        final ResponseEntity.BodyBuilder entity = ResponseEntity.status(status).headers(response.getHeaders());
+        if (status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return entity.build();
+        }
+        try (JsonParser parser = reader.createParser(response.getBody())) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return entity.build();
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new RestClientException("Expected a JSON array from upstream but found " + token);
+            }
+            final ElementSink<T> sink = sinks.get();
+            token = parser.nextToken();
+            while (token != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new RestClientException("Upstream JSON array ended before it was closed");
+                }
+                sink.accept(reader.readValue(parser));
+                token = parser.nextToken();
+            }
+            return entity.body(sink.elements());
+        } catch (final JsonProcessingException e) {
+            throw new RestClientException("Error while extracting upstream array of " + reader.getValueType(), e);
+        }
+    }
+}
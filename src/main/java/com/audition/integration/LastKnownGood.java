@@ -0,0 +1,30 @@
+package com.audition.integration;
+
+/**
+ * The last value successfully fetched for an upstream call, with the time it was fetched.
+ *
+ * @param value The fetched value
+ * @param fetchedAt The time the value was fetched, in epoch milliseconds
+ * @author Nadeem Shaikh
+ */
+record LastKnownGood(Object value, long fetchedAt) {
+
+    /**
+     * Stamps a value fetched now.
+     *
+     * @param value The fetched value
+     * @return The stamped value
+     */
+    static LastKnownGood of(final Object value) {
+        return new LastKnownGood(value, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the time elapsed since the value was fetched.
+     *
+     * @return The age in milliseconds
+     */
+    long age() {
+        return System.currentTimeMillis() - fetchedAt;
+    }
+}
@@ -0,0 +1,376 @@
+package com.audition.integration;
+
+import static com.audition.integration.AuditionIntegrationClient.API_ERROR;
+import static com.audition.integration.AuditionIntegrationClient.CANNOT_FIND_COMMENTS;
+import static com.audition.integration.AuditionIntegrationClient.CANNOT_FIND_POST;
+import static com.audition.integration.AuditionIntegrationClient.ERROR_FETCHING_ALL_COMMENTS;
+import static com.audition.integration.AuditionIntegrationClient.ERROR_FETCHING_COMMENTS;
+import static com.audition.integration.AuditionIntegrationClient.ERROR_FETCHING_POST;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS_BY_POST_ID;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS_FOR_POST;
+import static com.audition.integration.AuditionIntegrationClient.GET_POSTS;
+import static com.audition.integration.AuditionIntegrationClient.GET_POST_BY_ID;
+import static com.audition.integration.AuditionIntegrationClient.RESOURCE_NOT_FOUND;
+
+import com.audition.common.concurrent.Futures;
+import com.audition.common.exception.SystemException;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking client for the Audition external API, active with {@code audition.http.client=REACTIVE}.
+ * Calls go through the same stale serving, single-flight, resilience, load balancing and revalidation layers as
+ * {@link AuditionIntegrationClient}, composed as futures over a WebClient, so no thread waits while a call is in
+ * flight and a retry backoff is a timer rather than a sleep. Upstream failures are raised as the exceptions of the
+ * blocking client: a SystemException for a 4xx, an HttpServerErrorException for a 5xx and a ResourceAccessException
+ * for an I/O failure.
+ *
+ * <p>List bodies are decoded element by element as they stream in: Jackson walks the upstream array token by token
+ * and hands on each element once its last token has arrived, so the raw body is never held in memory as a whole
+ * and binding overlaps the download.
+ *
+ * <p>Slow calls are not hedged; {@code audition.hedging} only applies to the blocking client.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+@ConditionalOnProperty(prefix = "audition.http", name = "client", havingValue = "REACTIVE")
+public class ReactiveAuditionIntegrationClient implements AuditionClient {
+
+    private static final ParameterizedTypeReference<AuditionPost> POST =
+        ParameterizedTypeReference.forType(AuditionPost.class);
+
+    private final transient WebClient webClient;
+    private final transient StaleWhileRevalidate staleWhileRevalidate;
+    private final transient SingleFlight singleFlight;
+    private final transient UpstreamResilience upstreamResilience;
+    private final transient UpstreamEndpoints upstreamEndpoints;
+    private final transient UpstreamValidators upstreamValidators;
+
+    /**
+     * Constructs the reactive client.
+     *
+     * @param webClient The WebClient upstream calls are sent with
+     * @param staleWhileRevalidate The stale serving layer
+     * @param singleFlight The layer coalescing identical calls in flight
+     * @param upstreamResilience The per-endpoint circuit breaker, bulkhead and retry
+     * @param upstreamEndpoints The load balancer over the upstream replicas
+     * @param upstreamValidators The store of validators for conditional requests
+     * @author Nadeem Shaikh
+     */
+    public ReactiveAuditionIntegrationClient(final WebClient webClient, final StaleWhileRevalidate staleWhileRevalidate,
+        final SingleFlight singleFlight, final UpstreamResilience upstreamResilience,
+        final UpstreamEndpoints upstreamEndpoints, final UpstreamValidators upstreamValidators) {
+        this.webClient = webClient;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.singleFlight = singleFlight;
+        this.upstreamResilience = upstreamResilience;
+        this.upstreamEndpoints = upstreamEndpoints;
+        this.upstreamValidators = upstreamValidators;
+    }
+
+    /**
+     * Retrieves all posts from the external API, waiting for the non-blocking call.
+     *
+     * @return A list of AuditionPost objects
+     * @throws SystemException if there's an error fetching posts
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<AuditionPost> getPosts() {
+        return Futures.join(call(GET_POSTS, null, baseUrl -> getPosts(baseUrl, ElementSink::toList)));
+    }
+
+    /**
+     * Retrieves all posts, handing each post to a sink as it is decoded, waiting for the non-blocking call.
+     * The posts are never served stale while being revalidated, nor shared from a call in flight.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt
+     * @return The elements of the sink of the attempt that answered, or the kept posts if upstream answered not modified
+     * @throws SystemException if there's an error fetching posts
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<AuditionPost> getPosts(final Supplier<? extends ElementSink<AuditionPost>> sinks) {
+        return Futures.join(feed(GET_POSTS, AuditionIntegrationClient.key(GET_POSTS, null),
+            baseUrl -> getPosts(baseUrl, sinks)));
+    }
+
+    private Mono<List<AuditionPost>> getPosts(final String baseUrl, final Supplier<? extends ElementSink<AuditionPost>> sinks) {
+        return getList(GET_POSTS, null, AuditionPost.class, sinks, baseUrl + "/posts")
+            .onErrorMap(e -> translate(e, null, ERROR_FETCHING_POST))
+            .defaultIfEmpty(new ArrayList<>());
+    }
+
+    /**
+     * Retrieves a specific post by its ID, waiting for the non-blocking call.
+     *
+     * @param id The ID of the post to retrieve
+     * @return The AuditionPost object corresponding to the given ID
+     * @throws SystemException if there's an error fetching the post or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public AuditionPost getPostById(final String id) {
+        return Futures.join(getPostByIdAsync(id));
+    }
+
+    /**
+     * Retrieves a specific post by its ID without holding a thread while upstream answers.
+     *
+     * @param id The ID of the post to retrieve
+     * @return A future completed with the post, or with the SystemException raised by {@link #getPostById(String)}
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public CompletableFuture<AuditionPost> getPostByIdAsync(final String id) {
+        return call(GET_POST_BY_ID, id, baseUrl -> get(GET_POST_BY_ID, id, POST, baseUrl + "/posts/{id}", id)
+            .onErrorMap(e -> translate(e, CANNOT_FIND_POST + id, ERROR_FETCHING_POST))
+            .defaultIfEmpty(new AuditionPost()));
+    }
+
+    /**
+     * Retrieves comments for a specific post, waiting for the non-blocking call.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A list of Comment objects associated with the given post ID
+     * @throws SystemException if there's an error fetching comments or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getCommentsByPostId(final String postId) {
+        return Futures.join(getCommentsByPostIdAsync(postId));
+    }
+
+    /**
+     * Retrieves comments for a specific post without holding a thread while upstream answers.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A future completed with the comments, or with the SystemException raised by {@link #getCommentsByPostId(String)}
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public CompletableFuture<List<Comment>> getCommentsByPostIdAsync(final String postId) {
+        return call(GET_COMMENTS_BY_POST_ID, postId, baseUrl -> getList(GET_COMMENTS_BY_POST_ID, postId, Comment.class,
+            ElementSink::toList, baseUrl + "/comments?postId={postId}", postId)
+            .onErrorMap(e -> translate(e, CANNOT_FIND_COMMENTS + postId, ERROR_FETCHING_COMMENTS + postId + ": "))
+            .defaultIfEmpty(new ArrayList<>()));
+    }
+
+    /**
+     * Retrieves the comments of every post in one call, waiting for the non-blocking call.
+     *
+     * @return A list of all Comment objects
+     * @throws SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getComments() {
+        return Futures.join(call(GET_COMMENTS, null, baseUrl -> getComments(baseUrl, ElementSink::toList)));
+    }
+
+    /**
+     * Retrieves the comments of every post, handing each comment to a sink as it is decoded, waiting for the
+     * non-blocking call. The comments are never served stale while being revalidated, nor shared from a call in flight.
+     *
+     * @param sinks The supplier of the sink of each upstream attempt
+     * @return The elements of the sink of the attempt that answered, or the kept comments if upstream answered not modified
+     * @throws SystemException if there's an error fetching comments
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getComments(final Supplier<? extends ElementSink<Comment>> sinks) {
+        return Futures.join(feed(GET_COMMENTS, AuditionIntegrationClient.key(GET_COMMENTS, null),
+            baseUrl -> getComments(baseUrl, sinks)));
+    }
+
+    private Mono<List<Comment>> getComments(final String baseUrl, final Supplier<? extends ElementSink<Comment>> sinks) {
+        return getList(GET_COMMENTS, null, Comment.class, sinks, baseUrl + "/comments")
+            .onErrorMap(e -> translate(e, null, ERROR_FETCHING_ALL_COMMENTS))
+            .defaultIfEmpty(new ArrayList<>());
+    }
+
+    /**
+     * Retrieves comments for a specific post using the direct endpoint, waiting for the non-blocking call.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A list of Comment objects associated with the given post ID
+     * @throws SystemException if there's an error fetching comments or if the post is not found
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public List<Comment> getCommentsForPost(final String postId) {
+        return Futures.join(call(GET_COMMENTS_FOR_POST, postId,
+            baseUrl -> getList(GET_COMMENTS_FOR_POST, postId, Comment.class, ElementSink::toList, baseUrl + "/posts/{postId}/comments", postId)
+            .onErrorMap(e -> translate(e, CANNOT_FIND_COMMENTS + postId, ERROR_FETCHING_COMMENTS))
+            .defaultIfEmpty(new ArrayList<>())));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint, unless it is served stale while being revalidated. The call is
+     * coalesced with identical calls in flight, guarded by the endpoint's circuit breaker, bulkhead and retry,
+     * and each attempt is sent to the upstream replica selected by the load balancer.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param fetch The upstream call, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return A future of the result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> CompletableFuture<T> call(final String endpoint, final String argument,
+        final Function<String, Mono<T>> fetch) {
+        final String key = AuditionIntegrationClient.key(endpoint, argument);
+        return staleWhileRevalidate.executeAsync(endpoint, argument, key, () -> callUpstream(endpoint, key, fetch));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint, coalesced with identical calls in flight, guarded by the endpoint's
+     * circuit breaker, bulkhead and retry, and sent to the replica selected by the load balancer.
+     *
+     * @param endpoint The endpoint name
+     * @param key The key identifying the call
+     * @param fetch The upstream call, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return A future of the result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> CompletableFuture<T> callUpstream(final String endpoint, final String key,
+        final Function<String, Mono<T>> fetch) {
+        return singleFlight.executeAsync(key, () -> sendUpstream(endpoint, key, fetch));
+    }
+
+    /**
+     * Runs an upstream call for an endpoint like {@link #callUpstream(String, String, Function)}, but never joins an
+     * identical call in flight, because the sinks of a joined call would never be fed. Identical plain calls arriving
+     * meanwhile still join it. The call is never answered stale while revalidating either.
+     *
+     * @param endpoint The endpoint name
+     * @param key The key identifying the call
+     * @param fetch The upstream call feeding the caller's sinks, given the base URL of the selected replica
+     * @param <T> The type of the call result
+     * @return A future of the result of the call
+     * @author Nadeem Shaikh
+     */
+    private <T> CompletableFuture<T> feed(final String endpoint, final String key, final Function<String, Mono<T>> fetch) {
+        return singleFlight.leadAsync(key, () -> sendUpstream(endpoint, key, fetch));
+    }
+
+    private <T> CompletableFuture<T> sendUpstream(final String endpoint, final String key,
+        final Function<String, Mono<T>> fetch) {
+        return upstreamResilience.executeReactive(endpoint, key, upstreamEndpoints.executeReactive(fetch)).toFuture();
+    }
+
+    /**
+     * Sends a GET carrying the validators of the previous response and resolves its body.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param type The type of the body
+     * @param uri The URI template
+     * @param uriVariables The values of the URI template variables
+     * @param <T> The type of the body
+     * @return The body, or the kept body if upstream answered 304; empty if there is none
+     * @author Nadeem Shaikh
+     */
+    private <T> Mono<T> get(final String endpoint, final String argument, final ParameterizedTypeReference<T> type,
+        final String uri, final Object... uriVariables) {
+        final String key = AuditionIntegrationClient.key(endpoint, argument);
+        return exchange(key, conditional -> request(conditional, uri, uriVariables).retrieve().toEntity(type));
+    }
+
+    /**
+     * Sends a GET carrying the validators of the previous response and resolves its JSON array body, decoding the
+     * elements one at a time as they arrive rather than buffering the whole body first, and handing each to the sink
+     * of the attempt.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param elementType The type of the array elements
+     * @param sinks The supplier of the sink of the attempt
+     * @param uri The URI template
+     * @param uriVariables The values of the URI template variables
+     * @param <T> The type of the array elements
+     * @return The elements, or the kept elements if upstream answered 304
+     * @author Nadeem Shaikh
+     */
+    private <T> Mono<List<T>> getList(final String endpoint, final String argument, final Class<T> elementType,
+        final Supplier<? extends ElementSink<T>> sinks, final String uri, final Object... uriVariables) {
+        final String key = AuditionIntegrationClient.key(endpoint, argument);
+        return exchange(key, conditional -> request(conditional, uri, uriVariables).retrieve().toEntityFlux(elementType)
+            .flatMap(response -> Mono.fromSupplier(sinks).flatMap(sink -> response.getBody().doOnNext(sink::accept)
+                .then(Mono.fromSupplier(() -> new ResponseEntity<>(sink.elements(), response.getHeaders(), response.getStatusCode()))))));
+    }
+
+    /**
+     * Sends a request carrying the validators of the previous response for a key and resolves its body, sending it
+     * again without the validators if upstream answers 304 after the kept body has been evicted.
+     *
+     * @param key The key identifying the upstream resource
+     * @param send The request, given the conditional request entity or null for an unconditional one
+     * @param <T> The type of the body
+     * @return The body, or the kept body if upstream answered 304; empty if there is none
+     * @author Nadeem Shaikh
+     */
+    private <T> Mono<T> exchange(final String key, final Function<HttpEntity<Void>, Mono<ResponseEntity<T>>> send) {
+        return send.apply(upstreamValidators.conditionalRequest(key))
+            .flatMap(response -> upstreamValidators.isKeptBodyEvicted(key, response) ? send.apply(null) : Mono.just(response))
+            .mapNotNull(response -> upstreamValidators.resolve(key, response));
+    }
+
+    private WebClient.RequestHeadersSpec<?> request(final HttpEntity<Void> conditional, final String uri,
+        final Object... uriVariables) {
+        final WebClient.RequestHeadersSpec<?> request = webClient.get().uri(uri, uriVariables);
+        if (conditional != null) {
+            request.headers(headers -> headers.addAll(conditional.getHeaders()));
+        }
+        return request;
+    }
+
+    /**
+     * Maps a WebClient failure to the exception the blocking client raises for it.
+     *
+     * @param failure The failure of the call
+     * @param notFoundMessage The message of a 404, or null to treat a 404 like any other client error
+     * @param errorMessage The prefix of the message of other client errors
+     * @return The exception to signal
+     * @author Nadeem Shaikh
+     */
+    private static Throwable translate(final Throwable failure, final String notFoundMessage, final String errorMessage) {
+        if (failure instanceof WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                if (notFoundMessage != null && e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                    return new SystemException(notFoundMessage, RESOURCE_NOT_FOUND, 404, e);
+                }
+                return new SystemException(errorMessage + e.getMessage(), API_ERROR, e.getStatusCode().value(), e);
+            }
+            return HttpServerErrorException.create(e.getMessage(), e.getStatusCode(), e.getStatusText(), e.getHeaders(),
+                e.getResponseBodyAsByteArray(), null);
+        }
+        if (failure instanceof WebClientRequestException e) {
+            final IOException cause = e.getCause() instanceof IOException io ? io : new IOException(e.getMessage(), e);
+            return new ResourceAccessException("I/O error on GET request for \"" + e.getUri() + "\": " + e.getMessage(),
+                cause);
+        }
+        return failure;
+    }
+}
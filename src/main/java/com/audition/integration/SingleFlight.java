@@ -0,0 +1,179 @@
+package com.audition.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces concurrent identical upstream calls into a single in-flight call.
+ * Callers that arrive while a call for the same key is running wait for and share its outcome;
+ * the key is released as soon as the call finishes, so later callers always trigger a fresh call. A caller that needs
+ * its own call to run, because the call hands its elements to the caller's sinks, leads it instead of joining.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final transient Counter coalescedCalls;
+
+    /**
+     * Constructs the single-flight layer and registers its coalesced call counter.
+     *
+     * @param meterRegistry The meter registry to publish metrics to
+     * @author Nadeem Shaikh
+     */
+    public SingleFlight(final MeterRegistry meterRegistry) {
+        this.coalescedCalls = Counter.builder("audition.upstream.coalesced")
+            .description("Upstream calls avoided by joining an identical in-flight call")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Executes the call, or joins the identical call already in flight for the key.
+     *
+     * @param key The key identifying the call, made of the method name and its arguments
+     * @param call The upstream call
+     * @param <T> The type of the call result
+     * @return The result of the call, shared with every caller that joined it
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String key, final Supplier<T> call) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalescedCalls.increment();
+            return (T) await(existing);
+        }
+        return run(key, created, call);
+    }
+
+    /**
+     * Executes the call itself, never joining a call in flight, for a caller that needs the side effects of its own
+     * call, such as one handing the upstream elements to its own sinks. Identical callers arriving while it runs
+     * still join it, unless a call for the key was already in flight, in which case they keep joining that one.
+     *
+     * @param key The key identifying the call, made of the method name and its arguments
+     * @param call The upstream call
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    public <T> T lead(final String key, final Supplier<T> call) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, created) != null) {
+            return call.get();
+        }
+        return run(key, created, call);
+    }
+
+    /**
+     * Starts the asynchronous call, or joins the identical call already in flight for the key, without blocking.
+     * Synchronous and asynchronous callers of the same key share one in-flight call.
+     *
+     * @param key The key identifying the call, made of the method name and its arguments
+     * @param call The upstream call, returning a future of its result
+     * @param <T> The type of the call result
+     * @return A future of the result of the call, shared with every caller that joined it
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(final String key, final Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalescedCalls.increment();
+            // A dependent stage, so that a caller cancelling its future does not cancel the shared call
+            return existing.thenApply(result -> (T) result);
+        }
+        return runAsync(key, created, call);
+    }
+
+    /**
+     * Starts the asynchronous call itself without blocking, never joining a call in flight, like
+     * {@link #lead(String, Supplier)}.
+     *
+     * @param key The key identifying the call, made of the method name and its arguments
+     * @param call The upstream call, returning a future of its result
+     * @param <T> The type of the call result
+     * @return A future of the result of the call
+     * @author Nadeem Shaikh
+     */
+    public <T> CompletableFuture<T> leadAsync(final String key, final Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, created) != null) {
+            return call.get();
+        }
+        return runAsync(key, created, call);
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return The number of distinct keys being fetched
+     * @author Nadeem Shaikh
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private <T> T run(final String key, final CompletableFuture<Object> created, final Supplier<T> call) {
+        try {
+            final T result = call.get();
+            inFlight.remove(key, created);
+            created.complete(result);
+            return result;
+        } catch (final RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!created.isDone()) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(new IllegalStateException("In-flight call for " + key + " did not complete"));
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "PMD.AvoidCatchingGenericException"})
+    private <T> CompletableFuture<T> runAsync(final String key, final CompletableFuture<Object> created,
+        final Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, failure) -> {
+            inFlight.remove(key, created);
+            if (failure == null) {
+                created.complete(value);
+            } else {
+                created.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure);
+            }
+        });
+        return created.thenApply(value -> (T) value);
+    }
+
+    private Object await(final CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
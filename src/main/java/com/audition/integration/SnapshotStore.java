@@ -0,0 +1,549 @@
+package com.audition.integration;
+
+import static com.audition.configuration.CacheConfiguration.LAST_KNOWN_GOOD_CACHE;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS_BY_POST_ID;
+import static com.audition.integration.AuditionIntegrationClient.GET_COMMENTS_FOR_POST;
+import static com.audition.integration.AuditionIntegrationClient.GET_POSTS;
+import static com.audition.integration.AuditionIntegrationClient.GET_POST_BY_ID;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.SnapshotProperties;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local snapshot of the values fetched from upstream, so that a restarted instance starts with data instead of
+ * sending a burst of cold reads upstream.
+ * The snapshot is an append-only log of length-prefixed, CRC32-checked binary records, one per fetched value.
+ * Values are appended behind the reads by a flush job every {@code audition.snapshot.flush-interval}, and the log
+ * is rewritten with one record per call once it holds more than twice as many records as calls. A value whose
+ * content is unchanged since the latest record of its call is not appended, so the periodic index refreshes of an
+ * unchanged upstream do not grow the log; the record keeps the fetch time of its first fetch until the log is
+ * rewritten. An instance holds an exclusive lock on the directory, and an instance finding it locked by another
+ * starts without a snapshot instead of writing into the same log.
+ *
+ * <p>The log is loaded when the bean is created, so before the application reports ready. The latest record of
+ * each call seeds the last known good values with its original fetch time, and the post and comment indexes start
+ * from the full post and comment lists. A torn record at the end, left by a crash during a write, ends the load
+ * and is cut off.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class SnapshotStore {
+
+    static final String FILE_NAME = "snapshot.log";
+    static final String LOCK_FILE_NAME = "snapshot.lock";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final int MAGIC = 0x41554453;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final int COMPACTION_SLACK = 100;
+
+    private final transient SnapshotProperties properties;
+    private final transient Cache lastKnownGood;
+    private final transient AuditionLogger logger;
+    private final transient Path file;
+    private final transient Map<String, LastKnownGood> live = new ConcurrentHashMap<>();
+    private final transient Map<String, LastKnownGood> pending = new ConcurrentHashMap<>();
+    private final transient Map<String, Long> contentChecksums = new ConcurrentHashMap<>();
+    private final transient Lock lock = new ReentrantLock();
+    private transient FileChannel channel;
+    private transient FileChannel lockChannel;
+    private long records;
+
+    /**
+     * Constructs the snapshot store.
+     *
+     * @param properties The snapshot properties
+     * @param cacheManager The cache manager holding the last known good values
+     * @param meterRegistry The meter registry to publish the snapshot size to
+     * @param logger The application logger
+     * @author Nadeem Shaikh
+     */
+    public SnapshotStore(final SnapshotProperties properties, final CacheManager cacheManager,
+        final MeterRegistry meterRegistry, final AuditionLogger logger) {
+        this.properties = properties;
+        this.lastKnownGood = cacheManager.getCache(LAST_KNOWN_GOOD_CACHE);
+        this.logger = logger;
+        this.file = properties.getDirectory().resolve(FILE_NAME);
+        Gauge.builder("audition.snapshot.entries", live, Map::size)
+            .description("Upstream calls whose latest value is held in the local snapshot")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Loads the snapshot file and seeds the last known good values from it, then opens the file for appending.
+     * A file that cannot be read is logged and the instance starts without it.
+     *
+     * @author Nadeem Shaikh
+     */
+    @PostConstruct
+    public void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final long started = System.nanoTime();
+        lock.lock();
+        try {
+            Files.createDirectories(file.getParent());
+            if (!lockDirectory()) {
+                logger.warn(LOG, "Snapshot " + file + " is in use by another instance, starting without it");
+                return;
+            }
+            final long valid = read();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(valid);
+            channel.position(valid);
+            if (valid == 0) {
+                writeFully(channel, header());
+            }
+            if (needsCompaction()) {
+                compact();
+            }
+        } catch (final IOException e) {
+            logger.logErrorWithException(LOG, "Snapshot " + file + " could not be loaded, starting without it", e);
+            live.clear();
+            closeQuietly();
+            unlockDirectory();
+        } finally {
+            lock.unlock();
+        }
+        if (lastKnownGood != null) {
+            live.forEach(lastKnownGood::putIfAbsent);
+        }
+        logger.info(LOG, "Snapshot " + file + " loaded in " + (System.nanoTime() - started) / 1_000_000 + " ms: {} values",
+            live.size());
+    }
+
+    /**
+     * Records a value fetched from upstream, to be appended by the next flush.
+     *
+     * @param key The key identifying the call
+     * @param value The fetched value with its fetch time
+     * @author Nadeem Shaikh
+     */
+    void record(final String key, final LastKnownGood value) {
+        if (!properties.isEnabled() || value.value() == null || !isSupported(key)) {
+            return;
+        }
+        if (!live.containsKey(key) && live.size() >= properties.getMaxEntries()) {
+            return;
+        }
+        final LastKnownGood previous = live.put(key, value);
+        // A value revalidated with a 304 is the same instance and need not be written again
+        if (previous == null || previous.value() != value.value()) {
+            pending.put(key, value);
+        }
+    }
+
+    /**
+     * Returns the latest value of a call, as loaded from the snapshot or recorded since.
+     *
+     * @param key The key identifying the call
+     * @param <T> The type of the value
+     * @return The value, or null if the snapshot holds none
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key) {
+        final LastKnownGood entry = live.get(key);
+        return entry == null ? null : (T) entry.value();
+    }
+
+    /**
+     * Returns when the latest value of a call was fetched from upstream.
+     *
+     * @param key The key identifying the call
+     * @return The fetch time, or null if the snapshot holds no value
+     * @author Nadeem Shaikh
+     */
+    public Instant getFetchedAt(final String key) {
+        final LastKnownGood entry = live.get(key);
+        return entry == null ? null : Instant.ofEpochMilli(entry.fetchedAt());
+    }
+
+    /**
+     * Appends the values recorded since the previous flush, skipping those whose content is unchanged since the
+     * record already in the file. A failed write stops further writes, so that the file never holds a torn record
+     * followed by valid ones.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Scheduled(fixedDelayString = "${audition.snapshot.flush-interval:PT1S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (channel == null) {
+                pending.clear();
+                return;
+            }
+            final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            for (final String key : pending.keySet()) {
+                final LastKnownGood value = pending.remove(key);
+                if (value == null) {
+                    continue;
+                }
+                final byte[] record = encode(key, value);
+                final long checksum = contentChecksum(ByteBuffer.wrap(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE));
+                final Long previous = contentChecksums.put(key, checksum);
+                if (previous == null || previous != checksum) {
+                    batch.writeBytes(record);
+                    records++;
+                }
+            }
+            writeFully(channel, ByteBuffer.wrap(batch.toByteArray()));
+            if (needsCompaction()) {
+                compact();
+            }
+        } catch (final IOException e) {
+            logger.logErrorWithException(LOG, "Snapshot " + file + " could not be written, no longer updating it", e);
+            closeQuietly();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the pending values and closes the file on shutdown.
+     *
+     * @author Nadeem Shaikh
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(true);
+            }
+        } catch (final IOException e) {
+            logger.warn(LOG, "Snapshot " + file + " could not be synced: " + e);
+        } finally {
+            closeQuietly();
+            unlockDirectory();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes an exclusive lock on the snapshot directory, so that instances sharing it do not interleave their
+     * records in one file.
+     *
+     * @return false if another instance holds the directory
+     * @throws IOException if the lock file cannot be opened
+     */
+    private boolean lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(file.resolveSibling(LOCK_FILE_NAME), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        try {
+            if (lockChannel.tryLock() != null) {
+                return true;
+            }
+        } catch (final OverlappingFileLockException e) {
+            // Held by another store of this JVM
+        }
+        unlockDirectory();
+        return false;
+    }
+
+    private void unlockDirectory() {
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            // Closing the channel releases its lock
+            lockChannel.close();
+        } catch (final IOException e) {
+            logger.warn(LOG, "Snapshot lock of " + file + " could not be released: " + e);
+        }
+        lockChannel = null;
+    }
+
+    /**
+     * Reads the records of the file into the live values.
+     *
+     * @return The length of the valid part of the file, 0 if it is missing or not a snapshot of this format
+     * @throws IOException if the file cannot be read
+     */
+    private long read() throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        final ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < Integer.BYTES + 1 || in.getInt() != MAGIC || in.get() != FORMAT_VERSION) {
+            logger.warn(LOG, "Snapshot " + file + " is not in the expected format, discarding it");
+            return 0;
+        }
+        final CRC32 crc = new CRC32();
+        long valid = in.position();
+        while (in.remaining() >= RECORD_HEADER_SIZE) {
+            final int length = in.getInt();
+            final int checksum = in.getInt();
+            if (length <= 0 || length > in.remaining()) {
+                break;
+            }
+            final ByteBuffer body = in.slice(in.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum || !restore(body)) {
+                break;
+            }
+            in.position(in.position() + length);
+            valid = in.position();
+            records++;
+        }
+        if (valid < in.limit()) {
+            logger.warn(LOG, "Snapshot " + file + " ends with a torn record, discarding " + (in.limit() - valid) + " bytes");
+        }
+        return valid;
+    }
+
+    /**
+     * Decodes one record into the live values.
+     *
+     * @param body The record, without its length and checksum
+     * @return false if the record is malformed
+     */
+    private boolean restore(final ByteBuffer body) {
+        try {
+            final long checksum = contentChecksum(body.duplicate());
+            final long fetchedAt = body.getLong();
+            final String key = readString(body);
+            if (key != null && isSupported(key)) {
+                live.put(key, new LastKnownGood(decode(key, body), fetchedAt));
+                contentChecksums.put(key, checksum);
+            }
+            return true;
+        } catch (final BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return false;
+        }
+    }
+
+    private boolean needsCompaction() {
+        return records > 2L * live.size() + COMPACTION_SLACK;
+    }
+
+    /**
+     * Rewrites the file with the latest record of each call and swaps it in atomically.
+     *
+     * @throws IOException if the file cannot be rewritten
+     */
+    private void compact() throws IOException {
+        final Path compacted = file.resolveSibling(FILE_NAME + ".compact");
+        long written = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header());
+            for (final Map.Entry<String, LastKnownGood> entry : live.entrySet()) {
+                writeFully(out, ByteBuffer.wrap(encode(entry.getKey(), entry.getValue())));
+                written++;
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        logger.info(LOG, "Snapshot compacted from " + records + " records to {}", written);
+        records = written;
+    }
+
+    private void closeQuietly() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            logger.warn(LOG, "Snapshot " + file + " could not be closed: " + e);
+        }
+        channel = null;
+    }
+
+    private static void writeFully(final FileChannel out, final ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Computes the checksum of the content of a record, the key and the value without the fetch time, which tells
+     * whether a new fetch returned the same value.
+     *
+     * @param body The record, without its length and checksum
+     * @return The CRC32 of the content
+     */
+    private static long contentChecksum(final ByteBuffer body) {
+        final CRC32 crc = new CRC32();
+        crc.update(body.position(body.position() + Long.BYTES));
+        return crc.getValue();
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(Integer.BYTES + 1).putInt(MAGIC).put(FORMAT_VERSION).flip();
+    }
+
+    private static String endpoint(final String key) {
+        final int separator = key.indexOf(':');
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    private static boolean isSupported(final String key) {
+        return switch (endpoint(key)) {
+            case GET_POSTS, GET_POST_BY_ID, GET_COMMENTS_BY_POST_ID, GET_COMMENTS_FOR_POST, GET_COMMENTS -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Encodes one record: its length and CRC32, then the fetch time, the key and the value.
+     *
+     * @param key The key identifying the call
+     * @param value The fetched value with its fetch time
+     * @return The record
+     * @throws IOException never, as the record is written to memory
+     */
+    @SuppressWarnings("unchecked")
+    private static byte[] encode(final String key, final LastKnownGood value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        // Placeholders for the length and checksum, filled in once the body is written
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(value.fetchedAt());
+        writeString(out, key);
+        switch (endpoint(key)) {
+            case GET_POSTS -> writePosts(out, (List<AuditionPost>) value.value());
+            case GET_POST_BY_ID -> writePost(out, (AuditionPost) value.value());
+            default -> writeComments(out, (List<Comment>) value.value());
+        }
+        out.flush();
+        final byte[] record = bytes.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+        ByteBuffer.wrap(record).putInt(record.length - RECORD_HEADER_SIZE).putInt((int) crc.getValue());
+        return record;
+    }
+
+    private static Object decode(final String key, final ByteBuffer in) {
+        return switch (endpoint(key)) {
+            case GET_POSTS -> readPosts(in);
+            case GET_POST_BY_ID -> readPost(in);
+            default -> readComments(in);
+        };
+    }
+
+    private static void writePosts(final DataOutputStream out, final List<AuditionPost> posts) throws IOException {
+        out.writeInt(posts.size());
+        for (final AuditionPost post : posts) {
+            writePost(out, post);
+        }
+    }
+
+    private static void writePost(final DataOutputStream out, final AuditionPost post) throws IOException {
+        out.writeInt(post.getUserId());
+        out.writeInt(post.getId());
+        writeString(out, post.getTitle());
+        writeString(out, post.getBody());
+    }
+
+    private static void writeComments(final DataOutputStream out, final List<Comment> comments) throws IOException {
+        out.writeInt(comments.size());
+        for (final Comment comment : comments) {
+            out.writeInt(comment.getId());
+            out.writeInt(comment.getPostId());
+            writeString(out, comment.getName());
+            writeString(out, comment.getEmail());
+            writeString(out, comment.getBody());
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static List<AuditionPost> readPosts(final ByteBuffer in) {
+        final int size = in.getInt();
+        final List<AuditionPost> posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            posts.add(readPost(in));
+        }
+        return posts;
+    }
+
+    private static AuditionPost readPost(final ByteBuffer in) {
+        final int userId = in.getInt();
+        final int id = in.getInt();
+        return new AuditionPost(userId, id, readString(in), readString(in));
+    }
+
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static List<Comment> readComments(final ByteBuffer in) {
+        final int size = in.getInt();
+        final List<Comment> comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Comment comment = new Comment();
+            comment.setId(in.getInt());
+            comment.setPostId(in.getInt());
+            comment.setName(readString(in));
+            comment.setEmail(readString(in));
+            comment.setBody(readString(in));
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
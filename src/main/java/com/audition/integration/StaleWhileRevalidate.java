@@ -0,0 +1,215 @@
+package com.audition.integration;
+
+import static com.audition.configuration.CacheConfiguration.LAST_KNOWN_GOOD_CACHE;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.ExecutorConfiguration;
+import com.audition.configuration.StaleProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Stale-while-revalidate serving of upstream reads.
+ * When enabled, a read whose last known good value is past {@code audition.stale.max-age} but still within the
+ * following {@code audition.stale.while-revalidate} window is answered with that value at once, and the value is
+ * refreshed on the upstream executor in the background. A fresh value, younger than the max age, does not take this
+ * path: the read goes upstream as usual. At most one refresh per key is in flight; its result is published as an
+ * {@link UpstreamRefreshedEvent}.
+ *
+ * <p>Responses built from stale values, here or by the last known good fallback of {@link UpstreamResilience},
+ * are marked on the current request and counted as {@code audition.upstream.stale}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class StaleWhileRevalidate {
+
+    /**
+     * Request attribute holding why and how stale the data of the response is.
+     */
+    public static final String STALE_ATTRIBUTE = StaleWhileRevalidate.class.getName() + ".STALE";
+
+    static final String WHILE_REVALIDATE = "while-revalidate";
+    static final String IF_ERROR = "if-error";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaleWhileRevalidate.class);
+
+    private final transient StaleProperties properties;
+    private final transient Cache lastKnownGood;
+    private final transient Executor upstreamExecutor;
+    private final transient ApplicationEventPublisher eventPublisher;
+    private final transient MeterRegistry meterRegistry;
+    private final transient AuditionLogger logger;
+    private final transient Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the stale serving layer.
+     *
+     * @param properties The stale serving properties
+     * @param cacheManager The cache manager holding the last known good values
+     * @param upstreamExecutor The executor background refreshes run on
+     * @param eventPublisher The publisher of refreshed values
+     * @param meterRegistry The meter registry to publish stale serving metrics to
+     * @param logger The application logger
+     * @author Nadeem Shaikh
+     */
+    public StaleWhileRevalidate(final StaleProperties properties, final CacheManager cacheManager,
+        @Qualifier(ExecutorConfiguration.UPSTREAM_EXECUTOR) final Executor upstreamExecutor,
+        final ApplicationEventPublisher eventPublisher, final MeterRegistry meterRegistry, final AuditionLogger logger) {
+        this.properties = properties;
+        this.lastKnownGood = cacheManager.getCache(LAST_KNOWN_GOOD_CACHE);
+        this.upstreamExecutor = upstreamExecutor;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.logger = logger;
+    }
+
+    /**
+     * Answers an upstream read from its last known good value while that is stale but within the window, otherwise
+     * runs it.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param key The key identifying the call and its last known good value
+     * @param call The upstream call, which records its result as the last known good value
+     * @param <T> The type of the call result
+     * @return The last known good value, or the result of the call
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String endpoint, final String argument, final String key, final Supplier<T> call) {
+        final LastKnownGood stale = recent(key);
+        if (stale == null) {
+            return call.get();
+        }
+        refresh(endpoint, argument, key, call);
+        served(meterRegistry, endpoint, WHILE_REVALIDATE, stale.age());
+        return (T) stale.value();
+    }
+
+    /**
+     * Asynchronous variant of {@link #execute(String, String, String, Supplier)}, whose background refresh is the
+     * asynchronous call itself rather than a task on the upstream executor.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param key The key identifying the call and its last known good value
+     * @param call The upstream call, which records its result as the last known good value
+     * @param <T> The type of the call result
+     * @return A future of the last known good value, or of the result of the call
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings({"unchecked", "PMD.AvoidCatchingGenericException"})
+    public <T> CompletableFuture<T> executeAsync(final String endpoint, final String argument, final String key,
+        final Supplier<CompletableFuture<T>> call) {
+        final LastKnownGood stale = recent(key);
+        if (stale == null) {
+            return call.get();
+        }
+        if (refreshing.add(key)) {
+            try {
+                call.get().whenComplete((value, failure) -> {
+                    refreshing.remove(key);
+                    if (failure == null) {
+                        eventPublisher.publishEvent(new UpstreamRefreshedEvent(endpoint, argument, value));
+                    } else {
+                        logger.warn(LOG, "Background refresh of " + key + " failed: " + failure);
+                    }
+                });
+            } catch (final RuntimeException e) {
+                refreshing.remove(key);
+                logger.warn(LOG, "Background refresh of " + key + " failed: " + e);
+            }
+        }
+        served(meterRegistry, endpoint, WHILE_REVALIDATE, stale.age());
+        return CompletableFuture.completedFuture((T) stale.value());
+    }
+
+    /**
+     * Returns the last known good value of the key if stale serving is enabled and the value is within the
+     * stale-while-revalidate window, no longer fresh but not older than the window allows.
+     *
+     * @param key The key identifying the call
+     * @return The last known good value, or null
+     * @author Nadeem Shaikh
+     */
+    private LastKnownGood recent(final String key) {
+        if (!properties.isEnabled() || lastKnownGood == null) {
+            return null;
+        }
+        final Cache.ValueWrapper hit = lastKnownGood.get(key);
+        final LastKnownGood stale = hit == null ? null : (LastKnownGood) hit.get();
+        if (stale == null) {
+            return null;
+        }
+        final long maxAge = properties.getMaxAge().toMillis();
+        final long age = stale.age();
+        return age <= maxAge || age > maxAge + properties.getWhileRevalidate().toMillis() ? null : stale;
+    }
+
+    /**
+     * Refreshes a value on the upstream executor unless a refresh of the same key is already in flight.
+     *
+     * @param endpoint The endpoint name
+     * @param argument The argument of the call, or null if it has none
+     * @param key The key identifying the call
+     * @param call The upstream call
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void refresh(final String endpoint, final String argument, final String key, final Supplier<?> call) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    eventPublisher.publishEvent(new UpstreamRefreshedEvent(endpoint, argument, call.get()));
+                } catch (final RuntimeException e) {
+                    logger.warn(LOG, "Background refresh of " + key + " failed: " + e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            }, upstreamExecutor);
+        } catch (final RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Marks the current request as answered with stale data and counts it.
+     *
+     * @param meterRegistry The meter registry to count stale responses in
+     * @param endpoint The endpoint name
+     * @param reason Why stale data was served, {@value #WHILE_REVALIDATE} or {@value #IF_ERROR}
+     * @param ageMillis The age of the data in milliseconds
+     * @author Nadeem Shaikh
+     */
+    static void served(final MeterRegistry meterRegistry, final String endpoint, final String reason, final long ageMillis) {
+        Counter.builder("audition.upstream.stale")
+            .description("Upstream reads answered with stale data")
+            .tag("endpoint", endpoint)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        final RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(STALE_ATTRIBUTE, reason + "; age=" + ageMillis / 1000, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
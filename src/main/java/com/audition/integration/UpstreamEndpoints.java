@@ -0,0 +1,218 @@
+package com.audition.integration;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.UpstreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client-side load balancer over the configured upstream endpoints.
+ * Each call goes to one healthy endpoint, chosen round robin or by fewest outstanding requests. An endpoint
+ * that answers with consecutive server errors or I/O failures is ejected for a while; if every endpoint is
+ * ejected, calls are spread over all of them rather than failed locally. Because a retried call selects its
+ * endpoint again, retries move away from a failing replica.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class UpstreamEndpoints {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpstreamEndpoints.class);
+    private static final String METRIC_PREFIX = "audition.upstream.endpoint.";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final transient List<Endpoint> endpoints;
+    private final transient UpstreamProperties.LoadBalancing loadBalancing;
+    private final int ejectionThreshold;
+    private final long ejectionNanos;
+    private final transient AuditionLogger logger;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructs the balancer over the configured endpoints.
+     *
+     * @param properties The upstream properties
+     * @param meterRegistry The meter registry to publish per-endpoint metrics to
+     * @param logger The application logger
+     * @author Nadeem Shaikh
+     */
+    public UpstreamEndpoints(final UpstreamProperties properties, final MeterRegistry meterRegistry,
+        final AuditionLogger logger) {
+        this.loadBalancing = properties.getLoadBalancing();
+        this.ejectionThreshold = properties.getEjection().getConsecutiveFailures();
+        this.ejectionNanos = properties.getEjection().getDuration().toNanos();
+        this.logger = logger;
+        final List<Endpoint> configured = new ArrayList<>();
+        for (final String baseUrl : properties.getEndpoints()) {
+            configured.add(new Endpoint(stripTrailingSlash(baseUrl), meterRegistry));
+        }
+        this.endpoints = List.copyOf(configured);
+    }
+
+    /**
+     * Runs a call against the selected endpoint and records its outcome for health checking.
+     * A SystemException is an answer from upstream, such as a 404, and counts as healthy.
+     *
+     * @param call The upstream call, given the base URL of the selected endpoint
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    public <T> T execute(final Function<String, T> call) {
+        final Endpoint endpoint = select();
+        endpoint.outstanding.incrementAndGet();
+        try {
+            final T result = call.apply(endpoint.baseUrl);
+            endpoint.recordSuccess();
+            return result;
+        } catch (final SystemException e) {
+            endpoint.recordSuccess();
+            throw e;
+        } catch (final HttpServerErrorException | ResourceAccessException e) {
+            recordFailure(endpoint);
+            throw e;
+        } finally {
+            endpoint.outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs a reactive call against an endpoint selected on subscription, so that a resubscribing retry selects
+     * its endpoint again, and records its outcome like {@link #execute(Function)}.
+     *
+     * @param call The upstream call, given the base URL of the selected endpoint
+     * @param <T> The type of the call result
+     * @return The result of the call
+     * @author Nadeem Shaikh
+     */
+    public <T> Mono<T> executeReactive(final Function<String, Mono<T>> call) {
+        return Mono.defer(() -> {
+            final Endpoint endpoint = select();
+            endpoint.outstanding.incrementAndGet();
+            return call.apply(endpoint.baseUrl)
+                .doOnSuccess(result -> endpoint.recordSuccess())
+                .doOnError(e -> {
+                    if (e instanceof SystemException) {
+                        endpoint.recordSuccess();
+                    } else if (e instanceof HttpServerErrorException || e instanceof ResourceAccessException) {
+                        recordFailure(endpoint);
+                    }
+                })
+                .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+        });
+    }
+
+    /**
+     * Returns the base URLs of the endpoints that currently receive calls.
+     *
+     * @return The base URLs of the endpoints that are not ejected
+     * @author Nadeem Shaikh
+     */
+    public List<String> healthyEndpoints() {
+        final long now = System.nanoTime();
+        return endpoints.stream().filter(endpoint -> endpoint.isHealthy(now)).map(endpoint -> endpoint.baseUrl).toList();
+    }
+
+    /**
+     * Selects the endpoint of the next call among the healthy ones, or among all if none is healthy.
+     *
+     * @return The selected endpoint
+     * @author Nadeem Shaikh
+     */
+    Endpoint select() {
+        if (endpoints.size() == 1) {
+            return endpoints.get(0);
+        }
+        final long now = System.nanoTime();
+        List<Endpoint> candidates = endpoints.stream().filter(endpoint -> endpoint.isHealthy(now)).toList();
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+        final int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        if (loadBalancing == UpstreamProperties.LoadBalancing.ROUND_ROBIN) {
+            return candidates.get(start);
+        }
+        // Least outstanding requests, scanning from a rotating start so that ties are spread evenly
+        Endpoint selected = candidates.get(start);
+        for (int i = 1; i < candidates.size(); i++) {
+            final Endpoint candidate = candidates.get((start + i) % candidates.size());
+            if (candidate.outstanding.get() < selected.outstanding.get()) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    private void recordFailure(final Endpoint endpoint) {
+        if (endpoints.size() == 1 || endpoint.consecutiveFailures.incrementAndGet() < ejectionThreshold) {
+            return;
+        }
+        endpoint.consecutiveFailures.set(0);
+        endpoint.ejectedUntil = System.nanoTime() + ejectionNanos;
+        endpoint.ejected = true;
+        endpoint.ejections.increment();
+        logger.warn(LOG, "Ejected upstream endpoint " + endpoint.baseUrl + " after " + ejectionThreshold
+            + " consecutive failures");
+    }
+
+    private static String stripTrailingSlash(final String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Health and load of one upstream endpoint.
+     */
+    static final class Endpoint {
+
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final Counter ejections;
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+
+        Endpoint(final String baseUrl, final MeterRegistry meterRegistry) {
+            this.baseUrl = baseUrl;
+            Gauge.builder(METRIC_PREFIX + "outstanding", outstanding, AtomicInteger::get)
+                .description("Upstream calls in flight to the endpoint")
+                .tag(ENDPOINT_TAG, baseUrl)
+                .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + "ejected", this, endpoint -> endpoint.isHealthy(System.nanoTime()) ? 0 : 1)
+                .description("1 while the endpoint is ejected for consecutive failures, 0 otherwise")
+                .tag(ENDPOINT_TAG, baseUrl)
+                .register(meterRegistry);
+            this.ejections = Counter.builder(METRIC_PREFIX + "ejections")
+                .description("Times the endpoint was ejected for consecutive failures")
+                .tag(ENDPOINT_TAG, baseUrl)
+                .register(meterRegistry);
+        }
+
+        String getBaseUrl() {
+            return baseUrl;
+        }
+
+        int getOutstanding() {
+            return outstanding.get();
+        }
+
+        boolean isHealthy(final long now) {
+            return !ejected || now - ejectedUntil >= 0;
+        }
+
+        void recordSuccess() {
+            consecutiveFailures.set(0);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.audition.integration;
+
+import com.audition.common.concurrent.RequestAbort;
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.ExecutorConfiguration;
+import com.audition.configuration.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedges slow upstream calls to cut tail latency.
+ * When a call to a hedged endpoint has been outstanding for longer than the configured percentile of its recent
+ * latencies, a duplicate is sent; whichever answers first is used and the other is aborted. Hedges draw from
+ * a budget that grows with every call, which caps them at a share of traffic and keeps a struggling upstream
+ * from receiving twice the load. A 4xx answer, surfaced as SystemException, is final and is not waited out.
+ *
+ * <p>The first attempt runs on the calling thread, so a call that is not hedged costs no extra thread. A timer
+ * hands the hedge to the upstream executor once the delay has passed. The losing attempt is aborted through its
+ * {@link RequestAbort} handle, which closes its exchange and releases its connection and thread at once; the classic
+ * Apache engine does not abort an exchange on interruption.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class UpstreamHedging {
+
+    private static final String METRIC_PREFIX = "audition.upstream.hedge.";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    /**
+     * Hedges that can be sent back to back once the budget has filled up.
+     */
+    private static final long BUDGET_BURST = 10;
+    private static final long TOKEN = 1000;
+
+    private final transient Executor upstreamExecutor;
+    private final transient MeterRegistry meterRegistry;
+    private final transient HedgingProperties properties;
+    private final transient Set<String> endpoints;
+    private final transient Map<String, EndpointState> states = new ConcurrentHashMap<>();
+    private final transient ScheduledThreadPoolExecutor timer;
+    private transient volatile Thread timerThread;
+
+    /**
+     * Constructs the hedging layer.
+     *
+     * @param properties The hedging properties
+     * @param upstreamExecutor The executor running the hedges
+     * @param meterRegistry The meter registry to publish hedge metrics to
+     * @author Nadeem Shaikh
+     */
+    public UpstreamHedging(final HedgingProperties properties,
+        @Qualifier(ExecutorConfiguration.UPSTREAM_EXECUTOR) final Executor upstreamExecutor,
+        final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.upstreamExecutor = upstreamExecutor;
+        this.meterRegistry = meterRegistry;
+        this.endpoints = Set.copyOf(properties.getEndpoints());
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "hedge-timer");
+            thread.setDaemon(true);
+            timerThread = thread;
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Stops the hedge timer.
+     *
+     * @author Nadeem Shaikh
+     */
+    @PreDestroy
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Runs an upstream call, hedging it if hedging is enabled for the endpoint.
+     *
+     * @param endpoint The client endpoint name
+     * @param call The upstream call; it is run twice when hedged
+     * @param <T> The type of the call result
+     * @return The result of the first attempt to succeed
+     * @author Nadeem Shaikh
+     */
+    public <T> T execute(final String endpoint, final Supplier<T> call) {
+        if (!properties.isEnabled() || !endpoints.contains(endpoint)) {
+            return call.get();
+        }
+        final EndpointState state = states.computeIfAbsent(endpoint, EndpointState::new);
+        state.deposit();
+
+        final Race<T> race = new Race<>(state);
+        final Attempt<T> primary = race.add(call, false);
+        final ScheduledFuture<?> hedge = timer.schedule(() -> race.hedge(call), state.hedgeDelayNanos(),
+            TimeUnit.NANOSECONDS);
+        primary.run();
+        hedge.cancel(false);
+        try {
+            return race.winner.get();
+        } catch (final InterruptedException e) {
+            race.abortAll();
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for upstream", e);
+        } catch (final ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new SystemException("Upstream call failed", e.getCause());
+    }
+
+    /**
+     * The attempts of one call racing to complete a shared future.
+     *
+     * @param <T> The type of the call result
+     */
+    private final class Race<T> {
+
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final Attempt<?>[] attempts = new Attempt<?>[2];
+        private final EndpointState state;
+        private volatile RuntimeException lastFailure;
+
+        Race(final EndpointState state) {
+            this.state = state;
+        }
+
+        Attempt<T> add(final Supplier<T> call, final boolean hedge) {
+            pending.incrementAndGet();
+            final Attempt<T> attempt = new Attempt<>(call, state, this, hedge);
+            attempts[hedge ? 1 : 0] = attempt;
+            return attempt;
+        }
+
+        /**
+         * Sends the hedge when the delay has passed, unless the race is over or the budget is spent. A hedge that
+         * the saturated executor would run on the timer thread is dropped, so the timer never blocks on upstream.
+         */
+        void hedge(final Supplier<T> call) {
+            if (settled.get()) {
+                return;
+            }
+            if (!state.withdraw()) {
+                state.throttled.increment();
+                return;
+            }
+            state.sent.increment();
+            final Attempt<T> attempt = add(call, true);
+            upstreamExecutor.execute(() -> {
+                if (Thread.currentThread() == timerThread) {
+                    attempt.cancel(false);
+                } else {
+                    attempt.run();
+                }
+            });
+            if (settled.get()) {
+                attempt.abort();
+            }
+        }
+
+        /**
+         * Settles the race with the value of the first attempt to succeed. A hedge win is counted before the
+         * caller is woken, so the metric is up to date when the call returns.
+         */
+        void succeeded(final T value, final boolean hedge) {
+            if (settled.compareAndSet(false, true)) {
+                if (hedge) {
+                    state.won.increment();
+                }
+                winner.complete(value);
+                abortAll();
+            }
+        }
+
+        void failed(final RuntimeException failure) {
+            lastFailure = failure;
+            // A SystemException is a definitive answer; any other failure waits for the other attempt
+            if ((failure instanceof SystemException || pending.get() == 0) && settled.compareAndSet(false, true)) {
+                winner.completeExceptionally(failure);
+                abortAll();
+            }
+        }
+
+        /**
+         * Settles the race with the last failure once a dropped hedge leaves no attempt running.
+         */
+        void dropped() {
+            final RuntimeException failure = lastFailure;
+            if (pending.get() == 0 && failure != null && settled.compareAndSet(false, true)) {
+                winner.completeExceptionally(failure);
+            }
+        }
+
+        void abortAll() {
+            for (final Attempt<?> attempt : attempts) {
+                if (attempt != null && !attempt.isDone()) {
+                    attempt.abort();
+                }
+            }
+        }
+    }
+
+    /**
+     * One attempt of a hedged call, aborted through the HTTP engine when the other attempt wins.
+     *
+     * @param <T> The type of the call result
+     */
+    private static final class Attempt<T> extends FutureTask<T> {
+
+        private final transient EndpointState state;
+        private final transient Race<T> race;
+        private final transient RequestAbort requestAbort;
+        private final boolean hedge;
+        private final long startNanos = System.nanoTime();
+
+        Attempt(final Supplier<T> call, final EndpointState state, final Race<T> race, final boolean hedge) {
+            this(new RequestAbort(), call, state, race, hedge);
+        }
+
+        private Attempt(final RequestAbort requestAbort, final Supplier<T> call, final EndpointState state,
+            final Race<T> race, final boolean hedge) {
+            super(() -> requestAbort.run(call));
+            this.requestAbort = requestAbort;
+            this.state = state;
+            this.race = race;
+            this.hedge = hedge;
+        }
+
+        /**
+         * Aborts the exchange of the attempt and discards its outcome.
+         */
+        void abort() {
+            requestAbort.abort();
+            cancel(false);
+        }
+
+        @Override
+        protected void done() {
+            race.pending.decrementAndGet();
+            if (isCancelled()) {
+                race.dropped();
+                return;
+            }
+            try {
+                final T value = get();
+                state.record(System.nanoTime() - startNanos);
+                race.succeeded(value, hedge);
+            } catch (final ExecutionException e) {
+                final RuntimeException failure = unwrap(e);
+                if (failure instanceof SystemException) {
+                    state.record(System.nanoTime() - startNanos);
+                }
+                race.failed(failure);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Recent latencies, hedge budget and metrics of one endpoint.
+     */
+    private final class EndpointState {
+
+        private final long[] latencies = new long[Math.max(properties.getWindow(), 1)];
+        private final AtomicLong recorded = new AtomicLong();
+        private final AtomicLong budget = new AtomicLong(BUDGET_BURST * TOKEN);
+        private final long tokensPerCall = Math.round(properties.getMaxHedgeRatio() * TOKEN);
+        private final Counter sent;
+        private final Counter won;
+        private final Counter throttled;
+        private volatile long delayNanos = properties.getInitialDelay().toNanos();
+
+        EndpointState(final String endpoint) {
+            sent = Counter.builder(METRIC_PREFIX + "sent").description("Hedged duplicate requests sent")
+                .tag(ENDPOINT_TAG, endpoint).register(meterRegistry);
+            won = Counter.builder(METRIC_PREFIX + "won").description("Hedged calls answered by the hedge first")
+                .tag(ENDPOINT_TAG, endpoint).register(meterRegistry);
+            throttled = Counter.builder(METRIC_PREFIX + "throttled").description("Hedges skipped for lack of budget")
+                .tag(ENDPOINT_TAG, endpoint).register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + "delay", this, state -> state.delayNanos / 1e6)
+                .description("Current hedge delay in milliseconds").baseUnit("milliseconds")
+                .tag(ENDPOINT_TAG, endpoint).register(meterRegistry);
+        }
+
+        long hedgeDelayNanos() {
+            return delayNanos;
+        }
+
+        void deposit() {
+            budget.accumulateAndGet(tokensPerCall, (current, add) -> Math.min(current + add, BUDGET_BURST * TOKEN));
+        }
+
+        boolean withdraw() {
+            long current = budget.get();
+            while (current >= TOKEN) {
+                if (budget.compareAndSet(current, current - TOKEN)) {
+                    return true;
+                }
+                current = budget.get();
+            }
+            return false;
+        }
+
+        /**
+         * Records a latency and recomputes the percentile every time a tenth of the window has been refilled.
+         * Readers may see a slot being overwritten, which only blurs the estimate.
+         */
+        void record(final long nanos) {
+            final long count = recorded.incrementAndGet();
+            latencies[(int) ((count - 1) % latencies.length)] = nanos;
+            final int refresh = Math.max(latencies.length / 10, 1);
+            if (count >= refresh && count % refresh == 0) {
+                final long[] sorted = Arrays.copyOf(latencies, (int) Math.min(count, latencies.length));
+                Arrays.sort(sorted);
+                final int index = (int) Math.ceil(properties.getPercentile() * sorted.length) - 1;
+                delayNanos = Math.max(sorted[Math.max(index, 0)], properties.getMinDelay().toNanos());
+            }
+        }
+    }
+}
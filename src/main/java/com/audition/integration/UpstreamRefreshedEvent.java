@@ -0,0 +1,13 @@
+package com.audition.integration;
+
+/**
+ * Published when a value served stale has been refreshed from upstream in the background, so that the caches
+ * above the client can replace the stale value.
+ *
+ * @param endpoint The endpoint name
+ * @param argument The argument of the call, or null if it has none
+ * @param value The refreshed value
+ * @author Nadeem Shaikh
+ */
+public record UpstreamRefreshedEvent(String endpoint, String argument, Object value) {
+}
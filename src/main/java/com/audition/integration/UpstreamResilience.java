@@ -0,0 +1,198 @@
+package com.audition.integration;
+
+import static com.audition.configuration.CacheConfiguration.LAST_KNOWN_GOOD_CACHE;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.StaleProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards upstream calls with a per-endpoint circuit breaker, semaphore bulkhead and jittered retry.
+ * The instances are configured under {@code resilience4j.*} by endpoint name and publish their state
+ * through Micrometer. When a call fails for a reason other than a client error, the last value successfully
+ * fetched for the same key is served instead, if one is known and younger than {@code audition.stale.if-error}.
+ * Successful results are also recorded in the {@link SnapshotStore}, which a restarted instance starts from.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class UpstreamResilience {
+
+    public static final String UPSTREAM_UNAVAILABLE = "Upstream Unavailable";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UpstreamResilience.class);
+
+    private final transient CircuitBreakerRegistry circuitBreakerRegistry;
+    private final transient BulkheadRegistry bulkheadRegistry;
+    private final transient RetryRegistry retryRegistry;
+    private final transient Cache lastKnownGood;
+    private final transient SnapshotStore snapshotStore;
+    private final transient MeterRegistry meterRegistry;
+    private final transient AuditionLogger logger;
+    private final boolean fallbackEnabled;
+    private final long fallbackMaxAge;
+
+    /**
+     * Constructs the resilience layer.
+     *
+     * @param circuitBreakerRegistry The registry of per-endpoint circuit breakers
+     * @param bulkheadRegistry The registry of per-endpoint semaphore bulkheads
+     * @param retryRegistry The registry of per-endpoint retries
+     * @param cacheManager The cache manager holding the last known good values
+     * @param meterRegistry The meter registry to publish fallback metrics to
+     * @param logger The application logger
+     * @param fallbackEnabled Whether failed calls fall back to the last known good value
+     * @param staleProperties The stale serving properties, bounding the age of a fallback value
+     * @param snapshotStore The local snapshot successful results are recorded in
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public UpstreamResilience(final CircuitBreakerRegistry circuitBreakerRegistry, final BulkheadRegistry bulkheadRegistry,
+        final RetryRegistry retryRegistry, final CacheManager cacheManager, final MeterRegistry meterRegistry,
+        final AuditionLogger logger, @Value("${audition.resilience.fallback-to-last-known-good:true}") final boolean fallbackEnabled,
+        final StaleProperties staleProperties, final SnapshotStore snapshotStore) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.retryRegistry = retryRegistry;
+        this.lastKnownGood = cacheManager.getCache(LAST_KNOWN_GOOD_CACHE);
+        this.meterRegistry = meterRegistry;
+        this.logger = logger;
+        this.fallbackEnabled = fallbackEnabled;
+        this.fallbackMaxAge = staleProperties.getIfError().toMillis();
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Executes the upstream call through the retry, circuit breaker and bulkhead of the endpoint.
+     * A SystemException raised by the call is a definitive answer from upstream, such as a 404, and is
+     * rethrown as is without a fallback.
+     *
+     * @param endpoint The endpoint name, selecting the resilience4j instances
+     * @param key The key identifying the call and its last known good value
+     * @param call The upstream call
+     * @param <T> The type of the call result
+     * @return The result of the call, or the last known good value if the call failed
+     * @throws SystemException with status 503 if the breaker is open or the bulkhead is full and there is no fallback
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public <T> T execute(final String endpoint, final String key, final Supplier<T> call) {
+        final Supplier<T> guarded = Retry.decorateSupplier(retryRegistry.retry(endpoint),
+            CircuitBreaker.decorateSupplier(circuitBreakerRegistry.circuitBreaker(endpoint),
+                Bulkhead.decorateSupplier(bulkheadRegistry.bulkhead(endpoint), call)));
+        try {
+            final T result = guarded.get();
+            remember(key, result);
+            return result;
+        } catch (final RuntimeException e) {
+            return fallback(endpoint, key, e);
+        }
+    }
+
+    /**
+     * Reactive variant of {@link #execute(String, String, Supplier)}: applies the same bulkhead, circuit breaker
+     * and retry instances as operators, so that neither the call nor a retry backoff holds a thread.
+     *
+     * @param endpoint The endpoint name, selecting the resilience4j instances
+     * @param key The key identifying the call and its last known good value
+     * @param call The upstream call, subscribed again by each retry
+     * @param <T> The type of the call result
+     * @return The result of the call, or the last known good value if the call failed
+     * @author Nadeem Shaikh
+     */
+    public <T> Mono<T> executeReactive(final String endpoint, final String key, final Mono<T> call) {
+        return call
+            .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(endpoint)))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(endpoint)))
+            .transformDeferred(RetryOperator.of(retryRegistry.retry(endpoint)))
+            .doOnNext(result -> remember(key, result))
+            .onErrorResume(RuntimeException.class, e -> Mono.fromSupplier(() -> fallback(endpoint, key, e)));
+    }
+
+    /**
+     * Keeps a successful result as the last known good value of the call and records it in the local snapshot.
+     *
+     * @param key The key identifying the call
+     * @param result The result of the call
+     * @author Nadeem Shaikh
+     */
+    private void remember(final String key, final Object result) {
+        final LastKnownGood value = LastKnownGood.of(result);
+        if (fallbackEnabled && lastKnownGood != null) {
+            lastKnownGood.put(key, value);
+        }
+        snapshotStore.record(key, value);
+    }
+
+    /**
+     * Returns the last known good value for the key, or translates the failure if there is none recent enough.
+     *
+     * @param endpoint The endpoint name
+     * @param key The key identifying the call
+     * @param failure The failure of the call
+     * @param <T> The type of the call result
+     * @return The last known good value
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T fallback(final String endpoint, final String key, final RuntimeException failure) {
+        // A SystemException is a definitive answer from upstream, such as a 404, not an outage
+        if (failure instanceof SystemException || !fallbackEnabled || lastKnownGood == null) {
+            throw translate(endpoint, failure);
+        }
+        final Cache.ValueWrapper hit = lastKnownGood.get(key);
+        final LastKnownGood fallback = hit == null ? null : (LastKnownGood) hit.get();
+        if (fallback == null || fallback.age() > fallbackMaxAge) {
+            throw translate(endpoint, failure);
+        }
+        logger.warn(LOG, "Serving last known good value for " + key + " after upstream failure: " + failure);
+        Counter.builder("audition.upstream.fallback")
+            .description("Upstream failures answered with the last known good value")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .increment();
+        StaleWhileRevalidate.served(meterRegistry, endpoint, StaleWhileRevalidate.IF_ERROR, fallback.age());
+        return (T) fallback.value();
+    }
+
+    /**
+     * Maps rejections of the resilience layer itself to a 503 SystemException, leaving upstream failures unchanged.
+     *
+     * @param endpoint The endpoint name
+     * @param failure The failure of the call
+     * @return The exception to throw
+     * @author Nadeem Shaikh
+     */
+    private RuntimeException translate(final String endpoint, final RuntimeException failure) {
+        if (failure instanceof CallNotPermittedException) {
+            return new SystemException("Circuit breaker for " + endpoint + " is open, upstream calls are suspended",
+                UPSTREAM_UNAVAILABLE, 503, failure);
+        }
+        if (failure instanceof BulkheadFullException) {
+            return new SystemException("Too many concurrent upstream calls for " + endpoint,
+                UPSTREAM_UNAVAILABLE, 503, failure);
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,145 @@
+package com.audition.integration;
+
+import static com.audition.configuration.CacheConfiguration.VALIDATED_RESPONSES_CACHE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Conditional upstream requests.
+ * The ETag and Last-Modified validators of every upstream response are kept with its parsed body. The next
+ * request for the same key carries them as {@code If-None-Match} and {@code If-Modified-Since}, and a
+ * {@code 304 Not Modified} answer is served from the kept body, so an unchanged resource is neither downloaded
+ * nor parsed again. A {@code 304} can still arrive after the kept body has been evicted, in which case the request
+ * is repeated without the validators.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class UpstreamValidators {
+
+    private final transient Cache validatedResponses;
+    private final transient Counter notModified;
+
+    /**
+     * Constructs the validator store.
+     *
+     * @param cacheManager The cache manager holding the validated responses
+     * @param meterRegistry The meter registry to publish revalidation metrics to
+     * @author Nadeem Shaikh
+     */
+    public UpstreamValidators(final CacheManager cacheManager, final MeterRegistry meterRegistry) {
+        this.validatedResponses = cacheManager.getCache(VALIDATED_RESPONSES_CACHE);
+        this.notModified = Counter.builder("audition.upstream.not-modified")
+            .description("Upstream requests answered with 304 Not Modified and served from the kept body")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the request entity for a key, carrying the validators of its last response.
+     *
+     * @param key The key identifying the upstream resource
+     * @return The request entity with conditional headers, or null if no validator is known
+     * @author Nadeem Shaikh
+     */
+    public HttpEntity<Void> conditionalRequest(final String key) {
+        final Validated validated = lookup(key);
+        if (validated == null) {
+            return null;
+        }
+        final HttpHeaders headers = new HttpHeaders();
+        if (validated.etag() != null) {
+            headers.setIfNoneMatch(validated.etag());
+        }
+        if (validated.lastModified() > 0) {
+            headers.setIfModifiedSince(validated.lastModified());
+        }
+        return new HttpEntity<>(headers);
+    }
+
+    /**
+     * Sends a request carrying the validators of the last response for a key and resolves its body. If upstream
+     * answers 304 but the kept body has been evicted meanwhile, the request is sent again without the validators.
+     *
+     * @param key The key identifying the upstream resource
+     * @param request The upstream request, given the conditional request entity or null for an unconditional one
+     * @param <T> The type of the body
+     * @return The kept body if upstream answered 304, the response body otherwise
+     * @author Nadeem Shaikh
+     */
+    public <T> T exchange(final String key, final Function<HttpEntity<Void>, ResponseEntity<T>> request) {
+        final ResponseEntity<T> response = request.apply(conditionalRequest(key));
+        return resolve(key, isKeptBodyEvicted(key, response) ? request.apply(null) : response);
+    }
+
+    /**
+     * Tells whether upstream answered 304 to a conditional request whose kept body is no longer held, so the
+     * request has to be sent again without the validators.
+     *
+     * @param key The key identifying the upstream resource
+     * @param response The upstream response
+     * @return true if the response is a 304 with no kept body to serve
+     * @author Nadeem Shaikh
+     */
+    public boolean isKeptBodyEvicted(final String key, final ResponseEntity<?> response) {
+        return response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && lookup(key) == null;
+    }
+
+    /**
+     * Resolves the body of an upstream response, keeping its validators for the next request.
+     *
+     * @param key The key identifying the upstream resource
+     * @param response The upstream response
+     * @param <T> The type of the body
+     * @return The kept body if upstream answered 304, the response body otherwise
+     * @throws ResourceAccessException if upstream answered 304 and the kept body has been evicted, so that the
+     *     retry sends the request again without the validators
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T resolve(final String key, final ResponseEntity<T> response) {
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            final Validated validated = lookup(key);
+            if (validated == null) {
+                throw new ResourceAccessException("Upstream answered 304 Not Modified for " + key
+                    + " but its kept body has been evicted");
+            }
+            notModified.increment();
+            return (T) validated.body();
+        }
+        final T body = response.getBody();
+        final String etag = response.getHeaders().getETag();
+        final long lastModified = response.getHeaders().getLastModified();
+        if (validatedResponses != null && body != null && (etag != null || lastModified > 0)) {
+            validatedResponses.put(key, new Validated(etag, lastModified, body));
+        }
+        return body;
+    }
+
+    private Validated lookup(final String key) {
+        if (validatedResponses == null) {
+            return null;
+        }
+        final Cache.ValueWrapper hit = validatedResponses.get(key);
+        return hit == null ? null : (Validated) hit.get();
+    }
+
+    /**
+     * A parsed upstream body with its validators.
+     *
+     * @param etag The entity tag, or null
+     * @param lastModified The last modification time in epoch milliseconds, or -1
+     * @param body The parsed body
+     */
+    private record Validated(String etag, long lastModified, Object body) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.audition.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of looking up one id in a batch post request.
+ * Exactly one of {@code post} and {@code error} is set, so a failed id does not fail the whole batch.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPostResult {
+
+    private String id;
+    private int status;
+    private AuditionPost post;
+    private String error;
+
+    /**
+     * Creates the result of an id that resolved to a post.
+     *
+     * @param id The requested id
+     * @param post The post
+     * @return The successful result
+     * @author Nadeem Shaikh
+     */
+    public static BatchPostResult found(final String id, final AuditionPost post) {
+        return new BatchPostResult(id, 200, post, null);
+    }
+
+    /**
+     * Creates the result of an id that could not be resolved.
+     *
+     * @param id The requested id
+     * @param status The HTTP status the single-post endpoint would have answered with
+     * @param error The reason the lookup failed
+     * @return The failed result
+     * @author Nadeem Shaikh
+     */
+    public static BatchPostResult failed(final String id, final int status, final String error) {
+        return new BatchPostResult(id, status, null, error);
+    }
+}
@@ -0,0 +1,32 @@
+package com.audition.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A post together with its comments, served by the aggregate post endpoint.
+ *
+ * @author Nadeem Shaikh
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PostWithComments extends AuditionPost {
+
+    private List<Comment> comments = new ArrayList<>();
+
+    /**
+     * Constructs the aggregate from a post and its comments.
+     *
+     * @param post The post
+     * @param comments The comments of the post
+     * @author Nadeem Shaikh
+     */
+    public PostWithComments(final AuditionPost post, final List<Comment> comments) {
+        super(post.getUserId(), post.getId(), post.getTitle(), post.getBody());
+        this.comments = comments;
+    }
+}
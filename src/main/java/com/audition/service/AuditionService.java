@@ -1,14 +1,43 @@
 package com.audition.service;
 
+import static com.audition.configuration.CacheConfiguration.COMMENTS_BY_POST_ID_CACHE;
+import static com.audition.configuration.CacheConfiguration.POSTS_CACHE;
+import static com.audition.configuration.CacheConfiguration.POST_BY_ID_CACHE;
+
+import com.audition.common.collection.IntObjectMap;
+import com.audition.common.concurrent.Futures;
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.BatchProperties;
+import com.audition.integration.AuditionClient;
 import com.audition.integration.AuditionIntegrationClient;
+import com.audition.integration.UpstreamRefreshedEvent;
 import com.audition.model.AuditionPost;
+import com.audition.model.BatchPostResult;
 import com.audition.model.Comment;
+import com.audition.model.PostWithComments;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for handling Audition-related operations.
+ * Reads go through a bounded in-process cache; concurrent misses for the same key are collapsed
+ * into a single upstream call by the integration client. Once loaded, the post and comment indexes answer reads
+ * without going upstream. Parallel reads are composed from the client's asynchronous calls, which hold no thread
+ * while waiting for upstream on the reactive client.
  *
  * @author Nadeem Shaikh
  */
@@ -16,16 +45,51 @@ import org.springframework.stereotype.Service;
 public class AuditionService {
 
     @Autowired
-    private transient AuditionIntegrationClient auditionIntegrationClient;
+    private transient AuditionClient auditionIntegrationClient;
+
+    @Autowired
+    private transient CacheManager cacheManager;
+
+    @Autowired
+    private transient PostIndex postIndex;
+
+    @Autowired
+    private transient CommentIndex commentIndex;
+
+    @Autowired
+    private transient BatchProperties batchProperties;
+
+    @Autowired
+    private transient PostDemand postDemand;
 
     /**
-     * Retrieves all posts.
+     * Retrieves all posts, from the post index once it has been loaded.
      *
      * @return A list of AuditionPost objects
      * @author Nadeem Shaikh
      */
     public List<AuditionPost> getPosts() {
-        return auditionIntegrationClient.getPosts();
+        if (postIndex.isReady()) {
+            return postIndex.getSnapshot().getPosts();
+        }
+        return cached(POSTS_CACHE, SimpleKey.EMPTY, auditionIntegrationClient::getPosts);
+    }
+
+    /**
+     * Retrieves the posts of a specific user.
+     * Served by a single lookup in the post index once it has been loaded, by filtering all posts until then.
+     *
+     * @param userId The ID of the user whose posts to retrieve
+     * @return A list of AuditionPost objects belonging to the user
+     * @author Nadeem Shaikh
+     */
+    public List<AuditionPost> getPostsByUserId(final int userId) {
+        if (postIndex.isReady()) {
+            return postIndex.getSnapshot().getPostsByUserId(userId);
+        }
+        return getPosts().stream()
+            .filter(post -> post.getUserId() == userId)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -36,18 +100,331 @@ public class AuditionService {
      * @author Nadeem Shaikh
      */
     public AuditionPost getPostById(final String postId) {
-        return auditionIntegrationClient.getPostById(postId);
+        postDemand.record(postId);
+        return cached(POST_BY_ID_CACHE, postId, () -> auditionIntegrationClient.getPostById(postId));
     }
 
     /**
-     * Retrieves comments for a specific post.
+     * Retrieves comments for a specific post, from the comment index once it has been loaded.
      *
      * @param postId The ID of the post to retrieve comments for
      * @return A list of Comment objects associated with the given post ID
      * @author Nadeem Shaikh
      */
     public List<Comment> getCommentsByPostId(final String postId) {
-        return auditionIntegrationClient.getCommentsByPostId(postId);
+        postDemand.record(postId);
+        if (isIndexed(postId)) {
+            return commentIndex.getSnapshot().getCommentsByPostId(Integer.parseInt(postId));
+        }
+        return cached(COMMENTS_BY_POST_ID_CACHE, postId, () -> auditionIntegrationClient.getCommentsByPostId(postId));
+    }
+
+    /**
+     * Fetches the comments of a post from upstream and replaces the cached ones, ahead of demand.
+     *
+     * @param postId The ID of the post whose comments to refresh
+     * @author Nadeem Shaikh
+     */
+    public void refreshCommentsByPostId(final String postId) {
+        final List<Comment> comments = auditionIntegrationClient.getCommentsByPostId(postId);
+        final Cache cache = cacheManager.getCache(COMMENTS_BY_POST_ID_CACHE);
+        if (cache != null) {
+            cache.put(postId, comments);
+        }
+    }
+
+    /**
+     * Retrieves many posts by id, reporting the outcome of each id separately.
+     * Ids are served from the post index once it has been loaded, otherwise from the post cache. Cache misses are
+     * resolved from the full post list when there are at least {@code audition.batch.snapshot-threshold} of them,
+     * and fetched one by one, at most {@code audition.batch.max-concurrency} at a time, when there are fewer.
+     *
+     * @param ids The IDs of the posts to retrieve; a repeated ID is answered once
+     * @return One result per distinct ID, in request order
+     * @author Nadeem Shaikh
+     */
+    public List<BatchPostResult> getPostsByIds(final List<String> ids) {
+        final List<String> distinct = ids.stream().distinct().collect(Collectors.toList());
+        if (postIndex.isReady()) {
+            final PostIndex.Snapshot snapshot = postIndex.getSnapshot();
+            return distinct.stream()
+                .map(id -> toResult(id, lookup(snapshot::getPost, id)))
+                .collect(Collectors.toList());
+        }
+
+        final Map<String, BatchPostResult> results = new ConcurrentHashMap<>();
+        final List<String> misses = new ArrayList<>();
+        final Cache cache = cacheManager.getCache(POST_BY_ID_CACHE);
+        for (final String id : distinct) {
+            final Cache.ValueWrapper hit = cache == null ? null : cache.get(id);
+            if (hit != null && hit.get() != null) {
+                results.put(id, BatchPostResult.found(id, (AuditionPost) hit.get()));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.size() >= batchProperties.getSnapshotThreshold()) {
+            resolveFromPostList(misses, results, cache);
+        } else {
+            fetchConcurrently(misses, results);
+        }
+        return distinct.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves ids from the full post list, one upstream call however many ids there are.
+     * Falls back to single-post calls if the list cannot be fetched.
+     *
+     * @param ids The IDs to resolve
+     * @param results The results, keyed by ID
+     * @param cache The post cache the resolved posts are added to, or null
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void resolveFromPostList(final List<String> ids, final Map<String, BatchPostResult> results,
+        final Cache cache) {
+        final List<AuditionPost> posts;
+        try {
+            posts = getPosts();
+        } catch (final RuntimeException e) {
+            fetchConcurrently(ids, results);
+            return;
+        }
+        final IntObjectMap<AuditionPost> postsById = new IntObjectMap<>(posts.size());
+        for (final AuditionPost post : posts) {
+            postsById.put(post.getId(), post);
+        }
+        for (final String id : ids) {
+            final AuditionPost post = lookup(postsById::get, id);
+            if (post != null && cache != null) {
+                cache.put(id, post);
+            }
+            results.put(id, toResult(id, post));
+        }
+    }
+
+    /**
+     * Fetches ids one by one through {@link #getPostByIdAsync(String)} in a bounded number of chains, each
+     * starting the fetch of the next pending id when its previous fetch completes until none is left.
+     *
+     * @param ids The IDs to fetch
+     * @param results The results, keyed by ID
+     * @author Nadeem Shaikh
+     */
+    private void fetchConcurrently(final List<String> ids, final Map<String, BatchPostResult> results) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final int chains = Math.max(1, Math.min(batchProperties.getMaxConcurrency(), ids.size()));
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[chains];
+        for (int i = 0; i < chains; i++) {
+            tasks[i] = fetchNext(ids, next, results);
+        }
+        CompletableFuture.allOf(tasks).join();
+    }
+
+    /**
+     * Fetches the next pending id of a batch, then the one after it, until every id has been taken.
+     *
+     * @param ids The IDs to fetch
+     * @param next The index of the next pending ID
+     * @param results The results, keyed by ID
+     * @return A future completed once this chain finds no pending ID left
+     * @author Nadeem Shaikh
+     */
+    private CompletableFuture<Void> fetchNext(final List<String> ids, final AtomicInteger next,
+        final Map<String, BatchPostResult> results) {
+        final int index = next.getAndIncrement();
+        if (index >= ids.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final String id = ids.get(index);
+        return getPostByIdAsync(id)
+            .handle((post, failure) -> failure == null ? toResult(id, post) : failed(id, failure))
+            .thenCompose(result -> {
+                results.put(id, result);
+                return fetchNext(ids, next, results);
+            });
+    }
+
+    /**
+     * Turns the failure of a single post of a batch into an inline error result.
+     *
+     * @param id The ID of the post
+     * @param failure The failure, possibly wrapped in a CompletionException
+     * @return The result for the ID
+     * @author Nadeem Shaikh
+     */
+    private static BatchPostResult failed(final String id, final Throwable failure) {
+        final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause() : failure;
+        if (cause instanceof SystemException e) {
+            final int status = e.getStatusCode() == null ? 500 : e.getStatusCode();
+            return BatchPostResult.failed(id, status, e.getMessage());
+        }
+        return BatchPostResult.failed(id, 500, "Error fetching post: " + cause.getMessage());
+    }
+
+    private static AuditionPost lookup(final IntFunction<AuditionPost> postsById, final String id) {
+        try {
+            return postsById.apply(Integer.parseInt(id));
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BatchPostResult toResult(final String id, final AuditionPost post) {
+        return post == null ? BatchPostResult.failed(id, 404, "Cannot find a Post with id " + id)
+            : BatchPostResult.found(id, post);
+    }
+
+    /**
+     * Retrieves a post together with its comments.
+     * The comments are requested asynchronously before the post is read on the calling thread, so the latency is
+     * that of the slower of the two reads rather than their sum, without a thread waiting for the comments.
+     *
+     * @param postId The ID of the post to retrieve
+     * @return The post with its comments, or null if the post was not found
+     * @throws com.audition.common.exception.SystemException if either read fails
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public PostWithComments getPostWithComments(final String postId) {
+        final CompletableFuture<List<Comment>> comments = getCommentsByPostIdAsync(postId);
+        final AuditionPost post;
+        try {
+            post = getPostById(postId);
+        } catch (final RuntimeException e) {
+            comments.cancel(false);
+            throw e;
+        }
+        if (post == null) {
+            comments.cancel(false);
+            return null;
+        }
+        return new PostWithComments(post, Futures.join(comments));
     }
 
-}
\ No newline at end of file
+    /**
+     * Retrieves a specific post by its ID without blocking the caller on a cache miss.
+     *
+     * @param postId The ID of the post to retrieve
+     * @return A future of the post
+     * @author Nadeem Shaikh
+     */
+    private CompletableFuture<AuditionPost> getPostByIdAsync(final String postId) {
+        return cachedAsync(POST_BY_ID_CACHE, postId, () -> auditionIntegrationClient.getPostByIdAsync(postId));
+    }
+
+    /**
+     * Retrieves comments for a specific post without blocking the caller on a cache miss.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @return A future of the comments, completed at once if they are indexed or cached
+     * @author Nadeem Shaikh
+     */
+    private CompletableFuture<List<Comment>> getCommentsByPostIdAsync(final String postId) {
+        if (isIndexed(postId)) {
+            return CompletableFuture.completedFuture(commentIndex.getSnapshot().getCommentsByPostId(Integer.parseInt(postId)));
+        }
+        return cachedAsync(COMMENTS_BY_POST_ID_CACHE, postId, () -> auditionIntegrationClient.getCommentsByPostIdAsync(postId));
+    }
+
+    /**
+     * Indicates whether the comments of a post are served by the comment index.
+     * Ids that are not numbers are left to upstream, which answers them as it always has.
+     *
+     * @param postId The ID of the post
+     * @return true if the comment index is loaded and the ID is a number
+     * @author Nadeem Shaikh
+     */
+    private boolean isIndexed(final String postId) {
+        if (!commentIndex.isReady()) {
+            return false;
+        }
+        try {
+            Integer.parseInt(postId);
+            return true;
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replaces a cached value that was served stale with the value refreshed from upstream in the background.
+     *
+     * @param event The refreshed value
+     * @author Nadeem Shaikh
+     */
+    @EventListener
+    public void onUpstreamRefreshed(final UpstreamRefreshedEvent event) {
+        final String cacheName = switch (event.endpoint()) {
+            case AuditionIntegrationClient.GET_POSTS -> POSTS_CACHE;
+            case AuditionIntegrationClient.GET_POST_BY_ID -> POST_BY_ID_CACHE;
+            case AuditionIntegrationClient.GET_COMMENTS_BY_POST_ID -> COMMENTS_BY_POST_ID_CACHE;
+            default -> null;
+        };
+        final Cache cache = cacheName == null ? null : cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.put(event.argument() == null ? SimpleKey.EMPTY : event.argument(), event.value());
+        }
+    }
+
+    /**
+     * Returns the cached value for the key, loading it through the loader on a miss.
+     * The load runs outside the cache's internal lock so that a virtual thread blocked on upstream does not pin
+     * its carrier thread, nor stall other keys of the same bin; concurrent misses for the same key still share one
+     * upstream call through the client's single-flight layer. A loaded value does not replace one cached meanwhile,
+     * which may be the background refresh of the stale value being loaded.
+     *
+     * @param cacheName The name of the cache to read from
+     * @param key The cache key
+     * @param loader The upstream call used on a miss
+     * @param <T> The type of the cached value
+     * @return The cached or freshly loaded value
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(final String cacheName, final Object key, final Supplier<T> loader) {
+        final Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        final Cache.ValueWrapper hit = cache.get(key);
+        if (hit != null) {
+            return (T) hit.get();
+        }
+        final T value = loader.get();
+        final Cache.ValueWrapper existing = cache.putIfAbsent(key, value);
+        return existing != null ? (T) existing.get() : value;
+    }
+
+    /**
+     * Asynchronous variant of {@link #cached(String, Object, Supplier)}: answers a hit with a completed future and
+     * caches the value a miss is loaded with once its future completes.
+     *
+     * @param cacheName The name of the cache to read from
+     * @param key The cache key
+     * @param loader The asynchronous upstream call used on a miss
+     * @param <T> The type of the cached value
+     * @return A future of the cached or freshly loaded value
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> cachedAsync(final String cacheName, final Object key,
+        final Supplier<CompletableFuture<T>> loader) {
+        final Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        final Cache.ValueWrapper hit = cache.get(key);
+        if (hit != null) {
+            return CompletableFuture.completedFuture((T) hit.get());
+        }
+        return loader.get().thenApply(value -> {
+            cache.putIfAbsent(key, value);
+            return value;
+        });
+    }
+}
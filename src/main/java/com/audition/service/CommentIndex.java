@@ -0,0 +1,243 @@
+package com.audition.service;
+
+import com.audition.common.collection.IntObjectMap;
+import com.audition.integration.AuditionIntegrationClient;
+import com.audition.model.Comment;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of the comments of every post, loaded with a single upstream call for the full comment list and
+ * refreshed in the background, so that the comments of a post are served without a call per post.
+ * Each refresh builds an immutable {@link Snapshot} holding all comments in one array ordered by post, grouping the
+ * comments through a {@link Snapshot.Builder} as they are read from the upstream response. Refreshing, swapping and
+ * restoring the snapshot are shared with the {@link PostIndex} through {@link RefreshableIndex}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class CommentIndex extends RefreshableIndex<Comment, CommentIndex.Snapshot, CommentIndex.Snapshot.Builder> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommentIndex.class);
+
+    /**
+     * Constructs the index, empty until it is restored or refreshed.
+     *
+     * @author Nadeem Shaikh
+     */
+    public CommentIndex() {
+        super(LOG, "Comment index", AuditionIntegrationClient.GET_COMMENTS, Snapshot.EMPTY);
+    }
+
+    @Override
+    @Value("${audition.comment-index.enabled:true}")
+    void setEnabled(final boolean enabled) {
+        super.setEnabled(enabled);
+    }
+
+    /**
+     * Refreshes the index on the configured interval, keeping the previous snapshot if upstream fails.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelayString = "${audition.comment-index.refresh-interval:PT2M}")
+    public void scheduledRefresh() {
+        super.scheduledRefresh();
+    }
+
+    @Override
+    List<Comment> fetch(final Supplier<Snapshot.Builder> sinks) {
+        return auditionIntegrationClient.getComments(sinks);
+    }
+
+    @Override
+    Snapshot.Builder newBuilder() {
+        return new Snapshot.Builder();
+    }
+
+    @Override
+    Snapshot.Builder builderOf(final List<Comment> comments) {
+        return Snapshot.Builder.of(comments);
+    }
+
+    /**
+     * Immutable view of the comments at one point in time.
+     * The comments are held in a single array sorted by post id, and each post maps to a shared, unmodifiable view of
+     * its range of that array, so a post costs one map slot and a view instead of a boxed key, an entry and a list.
+     *
+     * @author Nadeem Shaikh
+     */
+    public static final class Snapshot implements IndexSnapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, new IntObjectMap<>(0), 0, Instant.EPOCH);
+
+        @Getter
+        private final int commentCount;
+        private final IntObjectMap<List<Comment>> commentsByPostId;
+        @Getter
+        private final long version;
+        @Getter
+        private final Instant refreshedAt;
+
+        private Snapshot(final int commentCount, final IntObjectMap<List<Comment>> commentsByPostId, final long version,
+            final Instant refreshedAt) {
+            this.commentCount = commentCount;
+            this.commentsByPostId = commentsByPostId;
+            this.version = version;
+            this.refreshedAt = refreshedAt;
+        }
+
+        /**
+         * Builds a snapshot from the full list of comments, preserving upstream order within each post.
+         *
+         * @param comments The full list of comments
+         * @param version The version of the snapshot
+         * @param refreshedAt The time the comments were fetched from upstream
+         * @return The snapshot
+         * @author Nadeem Shaikh
+         */
+        static Snapshot build(final List<Comment> comments, final long version, final Instant refreshedAt) {
+            return Builder.of(comments).build(version, refreshedAt);
+        }
+
+        private static Snapshot sortAndBuild(final List<Comment> comments, final long version, final Instant refreshedAt) {
+            final Comment[] sorted = comments.toArray(new Comment[0]);
+            // Stable, and linear on the upstream list, which is already grouped by post
+            Arrays.sort(sorted, Comparator.comparingInt(Comment::getPostId));
+            final List<Comment> all = Collections.unmodifiableList(Arrays.asList(sorted));
+
+            int posts = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i].getPostId() != sorted[i - 1].getPostId()) {
+                    posts++;
+                }
+            }
+            final IntObjectMap<List<Comment>> byPostId = new IntObjectMap<>(posts);
+            int start = 0;
+            for (int i = 1; i <= sorted.length; i++) {
+                if (i == sorted.length || sorted[i].getPostId() != sorted[start].getPostId()) {
+                    byPostId.put(sorted[start].getPostId(), all.subList(start, i));
+                    start = i;
+                }
+            }
+            return new Snapshot(sorted.length, byPostId, version, refreshedAt);
+        }
+
+        /**
+         * Returns the comments of the given post.
+         *
+         * @param postId The post id
+         * @return The shared, unmodifiable list of the post's comments, empty if the post has none
+         * @author Nadeem Shaikh
+         */
+        public List<Comment> getCommentsByPostId(final int postId) {
+            return commentsByPostId.getOrDefault(postId, Collections.emptyList());
+        }
+
+        /**
+         * Returns the number of distinct posts with at least one comment.
+         *
+         * @return The number of indexed posts
+         * @author Nadeem Shaikh
+         */
+        public int getPostCount() {
+            return commentsByPostId.size();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{version=" + version + ", comments=" + commentCount + ", posts=" + commentsByPostId.size()
+                + ", refreshedAt=" + refreshedAt + '}';
+        }
+
+        /**
+         * Collects the comments of one upstream attempt as they are decoded, recording where the comments of each post
+         * start. While the posts arrive in ascending order, as upstream returns them, the snapshot is built from
+         * those runs without sorting.
+         *
+         * @author Nadeem Shaikh
+         */
+        static final class Builder implements SnapshotBuilder<Comment, Snapshot> {
+
+            private final List<Comment> comments;
+            private int[] runStarts = new int[16];
+            private int runs;
+            private boolean ordered = true;
+
+            Builder() {
+                this(new ArrayList<>());
+            }
+
+            private Builder(final List<Comment> comments) {
+                this.comments = comments;
+            }
+
+            /**
+             * Creates a builder fed with a list of comments already read.
+             *
+             * @param comments The full list of comments
+             * @return The builder
+             * @author Nadeem Shaikh
+             */
+            static Builder of(final List<Comment> comments) {
+                final Builder builder = new Builder(new ArrayList<>(comments.size()));
+                comments.forEach(builder::accept);
+                return builder;
+            }
+
+            @Override
+            public void accept(final Comment comment) {
+                final int index = comments.size();
+                if (index == 0 || comment.getPostId() != comments.get(index - 1).getPostId()) {
+                    if (index > 0 && comment.getPostId() < comments.get(index - 1).getPostId()) {
+                        ordered = false;
+                    }
+                    if (runs == runStarts.length) {
+                        runStarts = Arrays.copyOf(runStarts, runs * 2);
+                    }
+                    runStarts[runs++] = index;
+                }
+                comments.add(comment);
+            }
+
+            @Override
+            public List<Comment> elements() {
+                return comments;
+            }
+
+            /**
+             * Builds the snapshot of the comments collected so far.
+             *
+             * @param version The version of the snapshot
+             * @param refreshedAt The time the comments were fetched from upstream
+             * @return The snapshot
+             * @author Nadeem Shaikh
+             */
+            @Override
+            public Snapshot build(final long version, final Instant refreshedAt) {
+                if (!ordered) {
+                    return sortAndBuild(comments, version, refreshedAt);
+                }
+                final List<Comment> all = Collections.unmodifiableList(comments);
+                final IntObjectMap<List<Comment>> byPostId = new IntObjectMap<>(runs);
+                for (int run = 0; run < runs; run++) {
+                    final int end = run + 1 < runs ? runStarts[run + 1] : all.size();
+                    byPostId.put(all.get(runStarts[run]).getPostId(), all.subList(runStarts[run], end));
+                }
+                return new Snapshot(all.size(), byPostId, version, refreshedAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.audition.service;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.ExecutorConfiguration;
+import com.audition.configuration.PrefetchProperties;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the comment threads of the most requested posts ahead of demand, so that their readers find them
+ * cached rather than waiting for upstream.
+ * Every {@code audition.prefetch.interval}, starting at startup, the {@code audition.prefetch.top-posts} posts most
+ * requested according to {@link PostDemand} are fetched on the prefetch executor, paced to
+ * {@code audition.prefetch.rate-per-second}. A pass still running when the next one is due is not overlapped.
+ * The posts themselves are kept warm by the {@link PostIndex}, and once the {@link CommentIndex} is loaded it
+ * serves every comment thread, so passes fetch nothing.
+ *
+ * <p>Readiness waits for the first pass. Demand is unknown right after startup, so until posts are requested the
+ * first pass takes the first {@code audition.prefetch.top-posts} posts of the post index instead, and it is put off
+ * while neither demand nor the post index is known yet. The warm-up timeout bounds how long readiness waits for it.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class CommentPrefetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommentPrefetcher.class);
+    private static final String METRIC_NAME = "audition.prefetch.comments";
+    private static final String METRIC_DESCRIPTION = "Comment threads fetched ahead of demand";
+
+    private final transient AuditionService auditionService;
+    private final transient PostDemand postDemand;
+    private final transient CommentIndex commentIndex;
+    private final transient PostIndex postIndex;
+    private final transient PrefetchProperties properties;
+    private final transient Executor prefetchExecutor;
+    private final transient RateLimiter rateLimiter;
+    private final transient AuditionLogger logger;
+    private final transient Counter fetched;
+    private final transient Counter failed;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean firstPassComplete;
+
+    /**
+     * Constructs the prefetcher.
+     *
+     * @param auditionService The service whose comment cache is refreshed
+     * @param postDemand The request frequencies of the posts
+     * @param commentIndex The comment index, which makes prefetching unnecessary once loaded
+     * @param postIndex The post index, whose first posts are prefetched while there is no demand yet
+     * @param properties The prefetch properties
+     * @param prefetchExecutor The executor the comment threads are fetched on
+     * @param meterRegistry The meter registry to publish prefetch counts to
+     * @param logger The application logger
+     * @author Nadeem Shaikh
+     */
+    public CommentPrefetcher(final AuditionService auditionService, final PostDemand postDemand, final CommentIndex commentIndex,
+        final PostIndex postIndex, final PrefetchProperties properties, @Qualifier(ExecutorConfiguration.PREFETCH_EXECUTOR) final Executor prefetchExecutor,
+        final MeterRegistry meterRegistry, final AuditionLogger logger) {
+        this.auditionService = auditionService;
+        this.postDemand = postDemand;
+        this.commentIndex = commentIndex;
+        this.postIndex = postIndex;
+        this.properties = properties;
+        this.prefetchExecutor = prefetchExecutor;
+        this.rateLimiter = RateLimiter.of("prefetch", RateLimiterConfig.custom()
+            .limitForPeriod(Math.max(1, properties.getRatePerSecond()))
+            .limitRefreshPeriod(Duration.ofSeconds(1))
+            .timeoutDuration(properties.getInterval())
+            .build());
+        this.logger = logger;
+        this.fetched = Counter.builder(METRIC_NAME)
+            .description(METRIC_DESCRIPTION)
+            .tag("result", "success")
+            .register(meterRegistry);
+        this.failed = Counter.builder(METRIC_NAME)
+            .description(METRIC_DESCRIPTION)
+            .tag("result", "failure")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts a prefetch pass over the most requested posts, unless the previous pass is still running.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${audition.prefetch.interval:PT1M}")
+    public void prefetch() {
+        if (!properties.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        final List<String> hot = hot();
+        if (hot == null) {
+            running.set(false);
+            return;
+        }
+        final List<CompletableFuture<Void>> fetches = new ArrayList<>(hot.size());
+        for (final String postId : hot) {
+            try {
+                fetches.add(CompletableFuture.runAsync(() -> fetch(postId), prefetchExecutor));
+            } catch (final RejectedExecutionException e) {
+                break;
+            }
+        }
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, failure) -> {
+            running.set(false);
+            if (!firstPassComplete) {
+                firstPassComplete = true;
+                logger.info(LOG, "First comment prefetch pass complete: {} comment threads", fetches.size());
+            }
+        });
+    }
+
+    /**
+     * Indicates whether the first prefetch pass after startup has completed, or prefetch is disabled.
+     *
+     * @return true once the comment threads of the first pass have been fetched or have failed
+     * @author Nadeem Shaikh
+     */
+    public boolean isFirstPassComplete() {
+        return firstPassComplete || !properties.isEnabled();
+    }
+
+    /**
+     * Picks the posts whose comment threads the pass fetches.
+     *
+     * @return The IDs of the posts, or null to put off the first pass until demand or the post index is known
+     */
+    private List<String> hot() {
+        if (commentIndex.isReady()) {
+            return List.of();
+        }
+        final List<String> demanded = postDemand.top(properties.getTopPosts());
+        if (!demanded.isEmpty() || firstPassComplete) {
+            return demanded;
+        }
+        if (!postIndex.isReady()) {
+            return postIndex.isEnabled() ? null : List.of();
+        }
+        return postIndex.getSnapshot().getPosts().stream()
+            .limit(properties.getTopPosts())
+            .map(post -> String.valueOf(post.getId()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetches the comment thread of one post once the rate limiter permits it.
+     *
+     * @param postId The ID of the post
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void fetch(final String postId) {
+        try {
+            RateLimiter.waitForPermission(rateLimiter);
+            auditionService.refreshCommentsByPostId(postId);
+            fetched.increment();
+        } catch (final RuntimeException e) {
+            failed.increment();
+            logger.warn(LOG, "Prefetch of the comments of post " + postId + " failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.audition.service;
+
+import com.audition.common.collection.FrequencySketch;
+import com.audition.configuration.PrefetchProperties;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how often each post is requested, so that the posts worth prefetching can be picked.
+ * Frequencies are estimated by a {@link FrequencySketch} of fixed size, which ages them as requests come in. Up to
+ * {@code audition.prefetch.tracked-posts} requested ids are kept as candidates; a candidate whose frequency has aged
+ * to zero gives its place to the next new id.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class PostDemand {
+
+    private final transient FrequencySketch sketch;
+    private final transient Set<Integer> candidates = ConcurrentHashMap.newKeySet();
+    private final int maxCandidates;
+
+    /**
+     * Constructs the demand tracker.
+     *
+     * @param properties The prefetch properties
+     * @author Nadeem Shaikh
+     */
+    public PostDemand(final PrefetchProperties properties) {
+        this.sketch = new FrequencySketch(properties.getTrackedPosts());
+        this.maxCandidates = properties.getTrackedPosts();
+    }
+
+    /**
+     * Counts one request for the post; ids that are not numbers are ignored.
+     *
+     * @param postId The ID of the requested post
+     * @author Nadeem Shaikh
+     */
+    public void record(final String postId) {
+        final int id;
+        try {
+            id = Integer.parseInt(postId);
+        } catch (final NumberFormatException e) {
+            return;
+        }
+        sketch.increment(id);
+        if (candidates.size() < maxCandidates) {
+            candidates.add(id);
+        }
+    }
+
+    /**
+     * Returns the most requested posts.
+     *
+     * @param count The maximum number of posts to return
+     * @return The IDs of the posts, most requested first
+     * @author Nadeem Shaikh
+     */
+    public List<String> top(final int count) {
+        candidates.removeIf(id -> sketch.frequency(id) == 0);
+        return candidates.stream()
+            .sorted(Comparator.<Integer>comparingInt(sketch::frequency).reversed())
+            .limit(count)
+            .map(String::valueOf)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,264 @@
+package com.audition.service;
+
+import com.audition.common.collection.IntObjectMap;
+import com.audition.integration.AuditionIntegrationClient;
+import com.audition.model.AuditionPost;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of all upstream posts, refreshed in the background.
+ * Each refresh builds an immutable {@link Snapshot} keyed by primitive ids, so filtered reads are a single hash lookup
+ * returning a precomputed, shared list. A refresh groups the posts through a {@link Snapshot.Builder} as they are
+ * read from the upstream response; refreshing, swapping and restoring the snapshot are inherited from
+ * {@link RefreshableIndex}.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class PostIndex extends RefreshableIndex<AuditionPost, PostIndex.Snapshot, PostIndex.Snapshot.Builder> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostIndex.class);
+
+    /**
+     * Constructs the index, empty until it is restored or refreshed.
+     *
+     * @author Nadeem Shaikh
+     */
+    public PostIndex() {
+        super(LOG, "Post index", AuditionIntegrationClient.GET_POSTS, Snapshot.EMPTY);
+    }
+
+    @Override
+    @Value("${audition.index.enabled:true}")
+    void setEnabled(final boolean enabled) {
+        super.setEnabled(enabled);
+    }
+
+    /**
+     * Refreshes the index on the configured interval, keeping the previous snapshot if upstream fails.
+     *
+     * @author Nadeem Shaikh
+     */
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelayString = "${audition.index.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        super.scheduledRefresh();
+    }
+
+    @Override
+    List<AuditionPost> fetch(final Supplier<Snapshot.Builder> sinks) {
+        return auditionIntegrationClient.getPosts(sinks);
+    }
+
+    @Override
+    Snapshot.Builder newBuilder() {
+        return new Snapshot.Builder();
+    }
+
+    @Override
+    Snapshot.Builder builderOf(final List<AuditionPost> posts) {
+        return Snapshot.Builder.of(posts);
+    }
+
+    /**
+     * Immutable, primitive-keyed view of the posts at one point in time.
+     * The posts are held in a single list in upstream order. When the posts of each user are contiguous, as upstream
+     * returns them, each user maps to a shared view of its range of that list rather than to a list of its own.
+     *
+     * @author Nadeem Shaikh
+     */
+    public static final class Snapshot implements IndexSnapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), new IntObjectMap<>(0),
+            new IntObjectMap<>(0), 0, Instant.EPOCH);
+
+        @Getter
+        private final List<AuditionPost> posts;
+        private final IntObjectMap<AuditionPost> postsById;
+        private final IntObjectMap<List<AuditionPost>> postsByUserId;
+        @Getter
+        private final long version;
+        @Getter
+        private final Instant refreshedAt;
+
+        private Snapshot(final List<AuditionPost> posts, final IntObjectMap<AuditionPost> postsById,
+            final IntObjectMap<List<AuditionPost>> postsByUserId, final long version, final Instant refreshedAt) {
+            this.posts = posts;
+            this.postsById = postsById;
+            this.postsByUserId = postsByUserId;
+            this.version = version;
+            this.refreshedAt = refreshedAt;
+        }
+
+        /**
+         * Builds a snapshot from the full list of posts, just fetched from upstream.
+         *
+         * @param posts The full list of posts
+         * @param version The version of the snapshot
+         * @return The snapshot
+         * @author Nadeem Shaikh
+         */
+        static Snapshot build(final List<AuditionPost> posts, final long version) {
+            return build(posts, version, Instant.now());
+        }
+
+        /**
+         * Builds a snapshot from the full list of posts, preserving upstream order within each user.
+         *
+         * @param posts The full list of posts
+         * @param version The version of the snapshot
+         * @param refreshedAt The time the posts were fetched from upstream
+         * @return The snapshot
+         * @author Nadeem Shaikh
+         */
+        static Snapshot build(final List<AuditionPost> posts, final long version, final Instant refreshedAt) {
+            return Builder.of(posts).build(version, refreshedAt);
+        }
+
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+        private static IntObjectMap<List<AuditionPost>> groupByUserId(final List<AuditionPost> posts) {
+            final IntObjectMap<List<AuditionPost>> grouped = new IntObjectMap<>(posts.size());
+            for (final AuditionPost post : posts) {
+                List<AuditionPost> userPosts = grouped.get(post.getUserId());
+                if (userPosts == null) {
+                    userPosts = new ArrayList<>();
+                    grouped.put(post.getUserId(), userPosts);
+                }
+                userPosts.add(post);
+            }
+
+            final IntObjectMap<List<AuditionPost>> byUserId = new IntObjectMap<>(grouped.size());
+            for (final int userId : grouped.keys()) {
+                byUserId.put(userId, Collections.unmodifiableList(grouped.get(userId)));
+            }
+            return byUserId;
+        }
+
+        /**
+         * Returns the post with the given id.
+         *
+         * @param id The post id
+         * @return The post, or null if it is not indexed
+         * @author Nadeem Shaikh
+         */
+        public AuditionPost getPost(final int id) {
+            return postsById.get(id);
+        }
+
+        /**
+         * Returns the posts of the given user.
+         *
+         * @param userId The user id
+         * @return The shared, unmodifiable list of the user's posts, empty if the user has none
+         * @author Nadeem Shaikh
+         */
+        public List<AuditionPost> getPostsByUserId(final int userId) {
+            return postsByUserId.getOrDefault(userId, Collections.emptyList());
+        }
+
+        /**
+         * Returns the number of distinct users with at least one post.
+         *
+         * @return The number of indexed users
+         * @author Nadeem Shaikh
+         */
+        public int getUserCount() {
+            return postsByUserId.size();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{version=" + version + ", posts=" + posts.size() + ", users=" + postsByUserId.size()
+                + ", refreshedAt=" + refreshedAt + '}';
+        }
+
+        /**
+         * Collects the posts of one upstream attempt as they are decoded, recording where each run of posts of the
+         * same user starts, so that the snapshot is built without grouping the posts again.
+         *
+         * @author Nadeem Shaikh
+         */
+        static final class Builder implements SnapshotBuilder<AuditionPost, Snapshot> {
+
+            private final List<AuditionPost> posts;
+            private int[] runStarts = new int[16];
+            private int runs;
+
+            Builder() {
+                this(new ArrayList<>());
+            }
+
+            private Builder(final List<AuditionPost> posts) {
+                this.posts = posts;
+            }
+
+            /**
+             * Creates a builder fed with a list of posts already read.
+             *
+             * @param posts The full list of posts
+             * @return The builder
+             * @author Nadeem Shaikh
+             */
+            static Builder of(final List<AuditionPost> posts) {
+                final Builder builder = new Builder(new ArrayList<>(posts.size()));
+                posts.forEach(builder::accept);
+                return builder;
+            }
+
+            @Override
+            public void accept(final AuditionPost post) {
+                final int index = posts.size();
+                if (index == 0 || post.getUserId() != posts.get(index - 1).getUserId()) {
+                    if (runs == runStarts.length) {
+                        runStarts = Arrays.copyOf(runStarts, runs * 2);
+                    }
+                    runStarts[runs++] = index;
+                }
+                posts.add(post);
+            }
+
+            @Override
+            public List<AuditionPost> elements() {
+                return posts;
+            }
+
+            /**
+             * Builds the snapshot of the posts collected so far.
+             *
+             * @param version The version of the snapshot
+             * @param refreshedAt The time the posts were fetched from upstream
+             * @return The snapshot
+             * @author Nadeem Shaikh
+             */
+            @Override
+            public Snapshot build(final long version, final Instant refreshedAt) {
+                final List<AuditionPost> all = Collections.unmodifiableList(posts);
+                final IntObjectMap<AuditionPost> byId = new IntObjectMap<>(all.size());
+                for (final AuditionPost post : all) {
+                    byId.put(post.getId(), post);
+                }
+                IntObjectMap<List<AuditionPost>> byUserId = new IntObjectMap<>(runs);
+                for (int run = 0; run < runs; run++) {
+                    final int end = run + 1 < runs ? runStarts[run + 1] : all.size();
+                    if (byUserId.put(all.get(runStarts[run]).getUserId(), all.subList(runStarts[run], end)) != null) {
+                        // The posts of a user are not contiguous
+                        byUserId = groupByUserId(all);
+                        break;
+                    }
+                }
+                return new Snapshot(all, byId, byUserId, version, refreshedAt);
+            }
+        }
+    }
+}
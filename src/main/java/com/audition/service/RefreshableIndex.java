@@ -0,0 +1,226 @@
+package com.audition.service;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.integration.AuditionClient;
+import com.audition.integration.ElementSink;
+import com.audition.integration.SnapshotStore;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * In-memory index of a full upstream list, refreshed in the background and swapped in atomically as an immutable
+ * snapshot. A refresh feeds the elements to a {@link SnapshotBuilder} as they are read from the upstream response,
+ * and on startup the index is restored from the list held by the local snapshot store, so it serves reads before
+ * the first refresh reaches upstream. Each index only defines the shape of its snapshot and how the list is fetched.
+ *
+ * @param <T> The type of the indexed elements
+ * @param <S> The type of the snapshot
+ * @param <B> The type of the builder collecting the elements of one upstream attempt
+ * @author Nadeem Shaikh
+ */
+public abstract class RefreshableIndex<T, S extends RefreshableIndex.IndexSnapshot,
+    B extends RefreshableIndex.SnapshotBuilder<T, S>> {
+
+    @Autowired
+    protected transient AuditionClient auditionIntegrationClient;
+
+    @Autowired
+    private transient SnapshotStore snapshotStore;
+
+    @Autowired
+    private transient AuditionLogger logger;
+
+    private transient boolean enabled;
+
+    private final Logger log;
+    private final String name;
+    private final String key;
+    private final S empty;
+    private final AtomicReference<S> current;
+    private final Lock refreshLock = new ReentrantLock();
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param log The logger of the index
+     * @param name The name of the index in log messages
+     * @param key The key of the upstream list in the snapshot store
+     * @param empty The empty snapshot served before the first refresh, with version 0
+     * @author Nadeem Shaikh
+     */
+    protected RefreshableIndex(final Logger log, final String name, final String key, final S empty) {
+        this.log = log;
+        this.name = name;
+        this.key = key;
+        this.empty = empty;
+        this.current = new AtomicReference<>(empty);
+    }
+
+    /**
+     * Fetches the full list from upstream, handing its elements to the sinks.
+     *
+     * @param sinks The supplier of the builder of each upstream attempt
+     * @return The elements of the builder of the attempt that answered, or the kept list if upstream answered not modified
+     */
+    abstract List<T> fetch(Supplier<B> sinks);
+
+    /**
+     * Creates an empty builder for one upstream attempt.
+     *
+     * @return The builder
+     */
+    abstract B newBuilder();
+
+    /**
+     * Creates a builder fed with a list already read.
+     *
+     * @param elements The full list
+     * @return The builder
+     */
+    abstract B builderOf(List<T> elements);
+
+    /**
+     * Sets whether the index is refreshed and serves reads.
+     *
+     * @param enabled false to leave the index empty
+     */
+    void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Restores the first snapshot from the list of the local snapshot store, if it holds it.
+     *
+     * @author Nadeem Shaikh
+     */
+    @PostConstruct
+    public void restore() {
+        final List<T> elements = snapshotStore.get(key);
+        if (!enabled || elements == null) {
+            return;
+        }
+        final S restored = builderOf(elements).build(1, snapshotStore.getFetchedAt(key));
+        if (current.compareAndSet(empty, restored)) {
+            logger.info(log, name + " restored from the local snapshot: {}", restored);
+        }
+    }
+
+    /**
+     * Refreshes the index on its configured interval, keeping the previous snapshot if upstream fails.
+     *
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (final RuntimeException e) {
+            logger.logErrorWithException(log, name + " refresh failed, serving snapshot version " + current.get().getVersion(), e);
+        }
+    }
+
+    /**
+     * Fetches the full list from upstream and atomically replaces the current snapshot.
+     *
+     * @return The new snapshot
+     * @author Nadeem Shaikh
+     */
+    public S refresh() {
+        // A lock rather than a monitor, so a refresh blocked on upstream does not pin a virtual thread
+        refreshLock.lock();
+        try {
+            final List<B> attempts = new CopyOnWriteArrayList<>();
+            final List<T> elements = fetch(() -> {
+                final B builder = newBuilder();
+                attempts.add(builder);
+                return builder;
+            });
+            // The builder of the attempt that answered; the kept list of a not modified answer is grouped after the fact
+            final B fed = attempts.stream().filter(builder -> builder.elements() == elements).findFirst()
+                .orElseGet(() -> builderOf(elements));
+            final S refreshed = fed.build(current.get().getVersion() + 1, Instant.now());
+            current.set(refreshed);
+            logger.info(log, name + " refreshed: {}", refreshed);
+            return refreshed;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Indicates whether the index is refreshed and serves reads.
+     *
+     * @return false if the index is disabled by configuration
+     * @author Nadeem Shaikh
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indicates whether at least one snapshot has been loaded.
+     *
+     * @return true if the index can serve reads
+     * @author Nadeem Shaikh
+     */
+    public boolean isReady() {
+        return current.get().getVersion() > 0;
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return The current snapshot, empty with version 0 before the first refresh
+     * @author Nadeem Shaikh
+     */
+    public S getSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Immutable view of an index at one point in time.
+     *
+     * @author Nadeem Shaikh
+     */
+    public interface IndexSnapshot {
+
+        /**
+         * Returns the version of the snapshot, incremented by every refresh.
+         *
+         * @return The version, 0 for the empty snapshot
+         * @author Nadeem Shaikh
+         */
+        long getVersion();
+    }
+
+    /**
+     * Collects the elements of one upstream attempt as they are decoded and builds the snapshot from them.
+     *
+     * @param <T> The type of the elements
+     * @param <S> The type of the snapshot
+     * @author Nadeem Shaikh
+     */
+    public interface SnapshotBuilder<T, S> extends ElementSink<T> {
+
+        /**
+         * Builds the snapshot of the elements collected so far.
+         *
+         * @param version The version of the snapshot
+         * @param refreshedAt The time the elements were fetched from upstream
+         * @return The snapshot
+         * @author Nadeem Shaikh
+         */
+        S build(long version, Instant refreshedAt);
+    }
+}
@@ -0,0 +1,146 @@
+package com.audition.web;
+
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.AsyncProperties;
+import com.audition.configuration.ExecutorConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Runs the work of asynchronous endpoints on the bounded request executor under a per-endpoint deadline.
+ * The returned future fails with a TimeoutException once the deadline of {@code audition.async.deadlines} passes,
+ * which is answered with 504; work still queued at that point is dropped rather than started, and work already
+ * running is interrupted. A full executor fails the request at once with a 503 SystemException.
+ *
+ * <p>The current request is bound to the worker thread, so that request attributes set by lower layers, such as
+ * the stale data marker, still reach the response. The binding lapses with the deadline, as the container may
+ * recycle the request once the 504 has been sent.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class AsyncHandlerExecutor {
+
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final transient Executor requestExecutor;
+    private final transient AsyncProperties properties;
+    private final transient MeterRegistry meterRegistry;
+
+    /**
+     * Constructs the asynchronous handler executor.
+     *
+     * @param requestExecutor The bounded executor running the work of asynchronous requests
+     * @param properties The asynchronous endpoint properties
+     * @param meterRegistry The meter registry to count timed out and rejected requests in
+     * @author Nadeem Shaikh
+     */
+    public AsyncHandlerExecutor(@Qualifier(ExecutorConfiguration.REQUEST_EXECUTOR) final Executor requestExecutor,
+        final AsyncProperties properties, final MeterRegistry meterRegistry) {
+        this.requestExecutor = requestExecutor;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work of a request on the request executor.
+     *
+     * @param endpoint The endpoint name, selecting the deadline
+     * @param work The work of the request
+     * @param <T> The type of the response
+     * @return A future of the response, failed with a TimeoutException if the deadline passes first
+     * @author Nadeem Shaikh
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public <T> CompletableFuture<T> supply(final String endpoint, final Supplier<T> work) {
+        final RequestAttributes current = RequestContextHolder.getRequestAttributes();
+        final CompletableFuture<T> response = new CompletableFuture<>();
+        final FutureTask<Void> task = new FutureTask<>(() -> {
+            if (response.isDone()) {
+                return;
+            }
+            final RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            if (current instanceof ServletRequestAttributes servlet) {
+                // A fresh instance, as the one of the initial dispatch is marked completed once it returns
+                RequestContextHolder.setRequestAttributes(new DeadlineBoundAttributes(servlet, response));
+            }
+            try {
+                response.complete(work.get());
+            } catch (final RuntimeException e) {
+                response.completeExceptionally(e);
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        }, null);
+        try {
+            requestExecutor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            count("audition.request.rejected", "Asynchronous requests rejected by a full request executor", endpoint);
+            response.completeExceptionally(new SystemException("Too many requests in progress, try again later",
+                "Server Busy", 503, e));
+            return response;
+        }
+        return response
+            .orTimeout(properties.deadline(endpoint).toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((result, failure) -> {
+                if (failure instanceof TimeoutException) {
+                    task.cancel(true);
+                    count("audition.request.timeouts", "Asynchronous requests that missed their deadline", endpoint);
+                }
+            });
+    }
+
+    private void count(final String name, final String description, final String endpoint) {
+        Counter.builder(name)
+            .description(description)
+            .tag(ENDPOINT_TAG, endpoint)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Attributes of the request, readable and writable only until its response future is done. Once the deadline has
+     * passed, work still running no longer touches a request the container may have handed to another exchange.
+     */
+    private static final class DeadlineBoundAttributes extends ServletRequestAttributes {
+
+        private final Future<?> response;
+
+        DeadlineBoundAttributes(final ServletRequestAttributes attributes, final Future<?> response) {
+            super(attributes.getRequest());
+            this.response = response;
+        }
+
+        @Override
+        public Object getAttribute(final String name, final int scope) {
+            return response.isDone() ? null : super.getAttribute(name, scope);
+        }
+
+        @Override
+        public void setAttribute(final String name, final Object value, final int scope) {
+            if (!response.isDone()) {
+                super.setAttribute(name, value, scope);
+            }
+        }
+
+        @Override
+        public void removeAttribute(final String name, final int scope) {
+            if (!response.isDone()) {
+                super.removeAttribute(name, scope);
+            }
+        }
+    }
+}
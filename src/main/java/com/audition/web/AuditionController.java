@@ -1,52 +1,161 @@
 package com.audition.web;
 
+import com.audition.configuration.BatchProperties;
 import com.audition.model.AuditionPost;
+import com.audition.model.BatchPostResult;
 import com.audition.model.Comment;
+import com.audition.model.PostWithComments;
 import com.audition.service.AuditionService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for handling Audition-related HTTP requests.
+ * The post, post by ID and comments endpoints also have asynchronous variants under {@code /async}, which
+ * release the Tomcat worker while the request waits for upstream and answer with 504 once their deadline passes.
+ * The post and comment lists can also be streamed record by record, as NDJSON when the client accepts
+ * {@code application/x-ndjson} or as a chunked JSON array with {@code stream=true}.
  *
  * @author Nadeem Shaikh
  */
 @RestController
 public class AuditionController {
 
+    private static final String POSTS_ENDPOINT = "posts";
+    private static final String POST_ENDPOINT = "post";
+    private static final String COMMENTS_ENDPOINT = "comments";
+
     @Autowired
     private transient AuditionService auditionService;
 
+    @Autowired
+    private transient BatchProperties batchProperties;
+
+    @Autowired
+    private transient SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    private transient AsyncHandlerExecutor asyncHandlerExecutor;
+
+    @Autowired
+    private transient StreamingListWriter streamingListWriter;
+
     /**
-     * Retrieves a list of AuditionPosts, optionally filtered by user ID.
+     * Retrieves a list of AuditionPosts, optionally filtered by user ID, paginated and projected.
+     * The page is written from pre-encoded bytes while the underlying post list is unchanged.
      *
      * @param userId Optional user ID to filter posts
-     * @return List of AuditionPost objects
+     * @param limit Optional maximum number of posts to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated post properties to write, e.g. {@code id,title}
+     * @param acceptEncoding The encodings the client accepts
+     * @param request The current request
+     * @return ResponseEntity containing the encoded page of AuditionPost objects
+     * @throws ResponseStatusException if the limit, cursor or fields are invalid
      * @author Nadeem Shaikh
      */
     @RequestMapping(value = "/posts", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public @ResponseBody List<AuditionPost> getPosts(@RequestParam(required = false) final Integer userId) {
-        List<AuditionPost> allPosts = auditionService.getPosts();
-        if (userId != null) {
-            allPosts = allPosts.stream()
-                .filter(post -> post.getUserId() == userId)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getPosts(@RequestParam(required = false) final Integer userId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+        final HttpServletRequest request) {
+        final Set<String> projection = FieldProjection.parse(fields, FieldProjection.POST_FIELDS);
+        final List<AuditionPost> posts = posts(userId);
+        final SerializedResponseCache.ListKey key = new SerializedResponseCache.ListKey(POSTS_ENDPOINT, userId, limit, cursor, projection);
+        return serializedResponseCache.respond(request, key, posts, limit, cursor, projection, acceptEncoding);
+    }
+
+    /**
+     * Streams a list of AuditionPosts as NDJSON, one post per line, optionally filtered by user ID, paginated and
+     * projected like {@link #getPosts(Integer, Integer, String, String, String, HttpServletRequest)}. Plain requests, with no Accept header or
+     * {@code Accept: *}{@code /*}, keep the JSON response; a batch request by {@code ids} is only answered as JSON.
+     *
+     * @param userId Optional user ID to filter posts
+     * @param limit Optional maximum number of posts to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated post properties to write, e.g. {@code id,title}
+     * @param request The current request
+     * @return ResponseEntity whose body writes the posts as they are serialized
+     * @throws ResponseStatusException if the limit, cursor or fields are invalid, or post IDs are requested
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPosts(@RequestParam(required = false) final Integer userId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields, final HttpServletRequest request) {
+        if (request.getParameter("ids") != null) {
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Posts by ID are only returned as JSON");
         }
-        return allPosts;
+        final Set<String> projection = FieldProjection.parse(fields, FieldProjection.POST_FIELDS);
+        return streamingListWriter.respond(request, posts(userId), limit, cursor, projection, MediaType.APPLICATION_NDJSON);
+    }
+
+    /**
+     * Streams a list of AuditionPosts as a JSON array written in chunks, selected by {@code /posts?stream=true}.
+     *
+     * @param userId Optional user ID to filter posts
+     * @param limit Optional maximum number of posts to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated post properties to write, e.g. {@code id,title}
+     * @param request The current request
+     * @return ResponseEntity whose body writes the posts as they are serialized
+     * @throws ResponseStatusException if the limit, cursor or fields are invalid
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/posts", params = {"stream=true", "!ids"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPostsAsArray(@RequestParam(required = false) final Integer userId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields, final HttpServletRequest request) {
+        final Set<String> projection = FieldProjection.parse(fields, FieldProjection.POST_FIELDS);
+        return streamingListWriter.respond(request, posts(userId), limit, cursor, projection, MediaType.APPLICATION_JSON);
+    }
+
+    private List<AuditionPost> posts(final Integer userId) {
+        return userId != null
+            ? auditionService.getPostsByUserId(userId)
+            : auditionService.getPosts();
+    }
+
+    /**
+     * Retrieves many AuditionPosts by ID in one request, e.g. {@code /posts?ids=1,2,3}.
+     * An ID that cannot be resolved is reported inline in its own result instead of failing the whole batch.
+     *
+     * @param ids The IDs of the posts to retrieve
+     * @return List with one result per distinct ID, in request order
+     * @throws ResponseStatusException if no ID is given or more IDs than {@code audition.batch.max-ids}
+     * @author Nadeem Shaikh
+     */
+    @RequestMapping(value = "/posts", params = "ids", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody List<BatchPostResult> getPostsByIds(@RequestParam final List<String> ids) {
+        final List<String> postIds = ids.stream().filter(StringUtils::isNotBlank).map(String::trim).toList();
+        if (postIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post IDs cannot be null or empty");
+        }
+        if (postIds.size() > batchProperties.getMaxIds()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + batchProperties.getMaxIds() + " post IDs can be requested at once");
+        }
+        return auditionService.getPostsByIds(postIds);
     }
 
     /**
@@ -72,22 +181,161 @@ public class AuditionController {
     }
 
     /**
-     * Retrieves a list of Comments for a specific post.
+     * Retrieves a specific AuditionPost together with its comments in one round trip.
+     * Selected by {@code /posts/{id}?include=comments}; the post and its comments are read concurrently.
+     *
+     * @param postId The ID of the post to retrieve
+     * @return ResponseEntity containing the post with its embedded comments
+     * @throws ResponseStatusException if the post ID is blank or the post is not found
+     * @author Nadeem Shaikh
+     */
+    @RequestMapping(value = "/posts/{id}", params = "include=comments", method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PostWithComments> getPostWithComments(@PathVariable("id") final String postId) {
+        if (StringUtils.isBlank(postId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post ID cannot be null or empty");
+        }
+
+        final PostWithComments postWithComments = auditionService.getPostWithComments(postId);
+        if (postWithComments == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+
+        return ResponseEntity.ok(postWithComments);
+    }
+
+    /**
+     * Retrieves a list of Comments for a specific post, paginated and projected.
+     * The page is written from pre-encoded bytes while the underlying comment list is unchanged.
      *
      * @param postId The ID of the post to retrieve comments for
-     * @return ResponseEntity containing a list of Comment objects
-     * @throws ResponseStatusException if the post ID is blank
+     * @param limit Optional maximum number of comments to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated comment properties to write, e.g. {@code id,name}
+     * @param acceptEncoding The encodings the client accepts
+     * @param request The current request
+     * @return ResponseEntity containing the encoded page of Comment objects
+     * @throws ResponseStatusException if the post ID is blank or the limit, cursor or fields are invalid
      * @author Nadeem Shaikh
      */
-    @GetMapping("/posts/{postId}/comments")
-    public final ResponseEntity<List<Comment>> getCommentsByPostId(@PathVariable final String postId) {
+    @GetMapping(value = "/posts/{postId}/comments", produces = MediaType.APPLICATION_JSON_VALUE)
+    public final ResponseEntity<byte[]> getCommentsByPostId(@PathVariable final String postId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+        final HttpServletRequest request) {
         if (StringUtils.isBlank(postId)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post ID cannot be null or empty");
         }
+        final Set<String> projection = FieldProjection.parse(fields, FieldProjection.COMMENT_FIELDS);
 
         final List<Comment> comments = auditionService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+        final SerializedResponseCache.ListKey key = new SerializedResponseCache.ListKey(COMMENTS_ENDPOINT, postId, limit, cursor, projection);
+        return serializedResponseCache.respond(request, key, comments, limit, cursor, projection, acceptEncoding);
+    }
+
+    /**
+     * Streams the Comments of a specific post as NDJSON, one comment per line, paginated and projected like
+     * {@link #getCommentsByPostId(String, Integer, String, String, String, HttpServletRequest)}.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @param limit Optional maximum number of comments to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated comment properties to write, e.g. {@code id,name}
+     * @param request The current request
+     * @return ResponseEntity whose body writes the comments as they are serialized
+     * @throws ResponseStatusException if the post ID is blank or the limit, cursor or fields are invalid
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/posts/{postId}/comments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCommentsByPostId(@PathVariable final String postId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields, final HttpServletRequest request) {
+        return streamComments(postId, limit, cursor, fields, request, MediaType.APPLICATION_NDJSON);
     }
 
+    /**
+     * Streams the Comments of a specific post as a JSON array written in chunks, selected by
+     * {@code /posts/{postId}/comments?stream=true}.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @param limit Optional maximum number of comments to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated comment properties to write, e.g. {@code id,name}
+     * @param request The current request
+     * @return ResponseEntity whose body writes the comments as they are serialized
+     * @throws ResponseStatusException if the post ID is blank or the limit, cursor or fields are invalid
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/posts/{postId}/comments", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCommentsByPostIdAsArray(@PathVariable final String postId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields, final HttpServletRequest request) {
+        return streamComments(postId, limit, cursor, fields, request, MediaType.APPLICATION_JSON);
+    }
 
-}
\ No newline at end of file
+    private ResponseEntity<StreamingResponseBody> streamComments(final String postId, final Integer limit,
+        final String cursor, final String fields, final HttpServletRequest request, final MediaType mediaType) {
+        if (StringUtils.isBlank(postId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Post ID cannot be null or empty");
+        }
+        final Set<String> projection = FieldProjection.parse(fields, FieldProjection.COMMENT_FIELDS);
+        return streamingListWriter.respond(request, auditionService.getCommentsByPostId(postId), limit, cursor,
+            projection, mediaType);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPosts(Integer, Integer, String, String, String, HttpServletRequest)}.
+     *
+     * @param userId Optional user ID to filter posts
+     * @param limit Optional maximum number of posts to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated post properties to write, e.g. {@code id,title}
+     * @param acceptEncoding The encodings the client accepts
+     * @param request The current request
+     * @return A future of the ResponseEntity containing the encoded page of AuditionPost objects
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/async/posts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getPostsAsync(@RequestParam(required = false) final Integer userId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+        final HttpServletRequest request) {
+        return asyncHandlerExecutor.supply(POSTS_ENDPOINT, () -> getPosts(userId, limit, cursor, fields, acceptEncoding, request));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPosts(String)}.
+     *
+     * @param postId The ID of the post to retrieve
+     * @return A future of the ResponseEntity containing the AuditionPost
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/async/posts/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<AuditionPost>> getPostAsync(@PathVariable("id") final String postId) {
+        return asyncHandlerExecutor.supply(POST_ENDPOINT, () -> getPosts(postId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getCommentsByPostId(String, Integer, String, String, String, HttpServletRequest)}.
+     *
+     * @param postId The ID of the post to retrieve comments for
+     * @param limit Optional maximum number of comments to return
+     * @param cursor Optional cursor of the page to return, taken from the previous page's next-cursor header
+     * @param fields Optional comma separated comment properties to write, e.g. {@code id,name}
+     * @param acceptEncoding The encodings the client accepts
+     * @param request The current request
+     * @return A future of the ResponseEntity containing the encoded page of Comment objects
+     * @author Nadeem Shaikh
+     */
+    @GetMapping(value = "/async/posts/{postId}/comments", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getCommentsByPostIdAsync(@PathVariable final String postId,
+        @RequestParam(required = false) final Integer limit, @RequestParam(required = false) final String cursor,
+        @RequestParam(required = false) final String fields,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding,
+        final HttpServletRequest request) {
+        return asyncHandlerExecutor.supply(COMMENTS_ENDPOINT,
+            () -> getCommentsByPostId(postId, limit, cursor, fields, acceptEncoding, request));
+    }
+}
@@ -0,0 +1,61 @@
+package com.audition.web;
+
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * One page of a list response, selected by the {@code limit} and {@code cursor} request parameters.
+ * The cursor is opaque to clients: they pass back the value of the {@value #NEXT_CURSOR_HEADER} response header
+ * to get the following page, which is absent on the last page.
+ *
+ * @param items The items of the page
+ * @param nextCursor The cursor of the following page, or null on the last page
+ * @param <T> The type of the listed items
+ * @author Nadeem Shaikh
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Cuts one page out of a list.
+     *
+     * @param all The full list
+     * @param limit The maximum number of items of the page, or null for every remaining item
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param <T> The type of the listed items
+     * @return The page
+     * @throws ResponseStatusException if the limit is out of range or the cursor is invalid
+     * @author Nadeem Shaikh
+     */
+    public static <T> CursorPage<T> slice(final List<T> all, final Integer limit, final String cursor) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        final int offset = decode(cursor);
+        if (offset >= all.size()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        final int end = limit == null ? all.size() : (int) Math.min((long) offset + limit, all.size());
+        final String next = end < all.size() ? Integer.toString(end) : null;
+        return new CursorPage<>(all.subList(offset, end), next);
+    }
+
+    private static int decode(final String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            final int offset = Integer.parseInt(cursor);
+            if (offset >= 0) {
+                return offset;
+            }
+        } catch (final NumberFormatException e) {
+            // reported below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,93 @@
+package com.audition.web;
+
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Sparse fieldsets for list responses, selected by the {@code fields} request parameter, e.g. {@code fields=id,title}.
+ * Posts and comments are bound to a Jackson property filter through a mix-in, so the serializer skips the
+ * properties that were not requested instead of writing them and discarding them afterwards.
+ *
+ * @author Nadeem Shaikh
+ */
+public final class FieldProjection {
+
+    public static final String FILTER_ID = "fieldProjection";
+
+    public static final Set<String> POST_FIELDS = Set.of("userId", "id", "title", "body");
+    public static final Set<String> COMMENT_FIELDS = Set.of("id", "postId", "name", "email", "body");
+
+    private FieldProjection() {
+    }
+
+    /**
+     * Binds posts and comments to the projection filter, writing every property unless a request selects fields.
+     *
+     * @param objectMapper The ObjectMapper used to write responses
+     * @author Nadeem Shaikh
+     */
+    public static void register(final ObjectMapper objectMapper) {
+        objectMapper.addMixIn(AuditionPost.class, Projected.class);
+        objectMapper.addMixIn(Comment.class, Projected.class);
+        objectMapper.setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Parses the {@code fields} request parameter.
+     *
+     * @param fields The comma separated property names, or null
+     * @param allowed The properties of the listed type
+     * @return The selected properties, empty to write every property
+     * @throws ResponseStatusException if a property is not one of the allowed properties
+     * @author Nadeem Shaikh
+     */
+    public static Set<String> parse(final String fields, final Set<String> allowed) {
+        if (StringUtils.isBlank(fields)) {
+            return Set.of();
+        }
+        final Set<String> selected = new LinkedHashSet<>();
+        for (final String field : StringUtils.split(fields, ',')) {
+            final String name = field.trim();
+            if (!allowed.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown field '" + name + "', expected any of " + Arrays.toString(allowed.stream().sorted().toArray()));
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * Creates a writer that writes only the selected properties of posts and comments.
+     *
+     * @param objectMapper The ObjectMapper used to write responses
+     * @param fields The selected properties, empty to write every property
+     * @return The writer
+     * @author Nadeem Shaikh
+     */
+    public static ObjectWriter writer(final ObjectMapper objectMapper, final Set<String> fields) {
+        return fields.isEmpty() ? objectMapper.writer() : objectMapper.writer(filters(fields));
+    }
+
+    private static SimpleFilterProvider filters(final Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    /**
+     * Mix-in attaching the projection filter to a model type.
+     */
+    @JsonFilter(FILTER_ID)
+    private interface Projected {
+    }
+}
@@ -0,0 +1,242 @@
+package com.audition.web;
+
+import static com.audition.configuration.CacheConfiguration.SERIALIZED_RESPONSES_CACHE;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Cache of encoded list responses, so that a repeated request for a page of an unchanged list is answered with
+ * bytes written once rather than serialized again.
+ * An entry remembers the list it was encoded from and is only served while the service still returns that same
+ * instance. The post index and the cache tier hand out one list per snapshot or cache entry, so a refresh or an
+ * expiry invalidates the encoded responses without any explicit eviction. The list is only referenced weakly, so an
+ * entry never keeps a replaced snapshot or an evicted list alive.
+ *
+ * <p>Each entry holds the identity encoding and, when server compression is enabled and the body reaches the
+ * compression threshold, a gzip encoding served to clients that accept it. Both carry a strong ETag computed
+ * once. The response bypasses the ETag filter, which would otherwise copy the bytes into its own buffer to hash them
+ * again, and Spring MVC answers a matching {@code If-None-Match} with {@code 304 Not Modified} from that ETag.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class SerializedResponseCache {
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String ANY_CODING = "*";
+
+    private final transient ObjectMapper objectMapper;
+    private final transient Cache serializedResponses;
+    private final boolean compression;
+    private final long compressionMinSize;
+    private final transient Counter hits;
+    private final transient Counter misses;
+
+    /**
+     * Constructs the response cache.
+     *
+     * @param objectMapper The ObjectMapper used to write responses
+     * @param cacheManager The cache manager holding the encoded responses
+     * @param compression Whether server response compression is enabled
+     * @param compressionMinSize The smallest body that is compressed
+     * @param meterRegistry The meter registry to publish hit and miss counts to
+     * @author Nadeem Shaikh
+     */
+    public SerializedResponseCache(final ObjectMapper objectMapper, final CacheManager cacheManager,
+        @Value("${server.compression.enabled:false}") final boolean compression,
+        @Value("${server.compression.min-response-size:2KB}") final DataSize compressionMinSize,
+        final MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.serializedResponses = cacheManager.getCache(SERIALIZED_RESPONSES_CACHE);
+        this.compression = compression;
+        this.compressionMinSize = compressionMinSize.toBytes();
+        this.hits = Counter.builder("audition.response.serialized")
+            .description("List responses written from pre-encoded bytes")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("audition.response.serialized")
+            .description("List responses written from pre-encoded bytes")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the response for one page of a list, from the cached encoding if the list has not changed.
+     *
+     * @param request The current request
+     * @param key The endpoint and query the page is requested with
+     * @param items The full list, as currently returned by the service
+     * @param limit The maximum number of items of the page, or null
+     * @param cursor The cursor of the page, or null for the first page
+     * @param fields The properties to write, empty for every property
+     * @param acceptEncoding The {@code Accept-Encoding} request header, or null
+     * @return ResponseEntity containing the encoded page
+     * @throws org.springframework.web.server.ResponseStatusException if the limit or cursor is invalid
+     * @author Nadeem Shaikh
+     */
+    public ResponseEntity<byte[]> respond(final HttpServletRequest request, final ListKey key, final List<?> items,
+        final Integer limit, final String cursor, final Set<String> fields, final String acceptEncoding) {
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        Encoded encoded = lookup(key, items);
+        if (encoded == null) {
+            misses.increment();
+            encoded = encode(items, limit, cursor, fields);
+            if (serializedResponses != null) {
+                serializedResponses.put(key, encoded);
+            }
+        } else {
+            hits.increment();
+        }
+
+        final boolean gzip = encoded.gzip() != null && acceptsGzip(acceptEncoding);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(gzip ? encoded.gzipETag() : encoded.identityETag());
+        if (encoded.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, encoded.nextCursor());
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(gzip ? encoded.gzip() : encoded.identity());
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts gzip: gzip, or its {@code x-gzip} alias, is listed
+     * with a non-zero quality, or it is not listed and the {@code *} wildcard has a non-zero quality.
+     *
+     * @param acceptEncoding The {@code Accept-Encoding} request header, or null
+     * @return true if a gzip encoded body is acceptable
+     */
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (final String element : acceptEncoding.split(",")) {
+            final String[] parameters = element.split(";");
+            final String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+                gzip = Math.max(gzip, quality(parameters));
+            } else if (ANY_CODING.equals(coding)) {
+                any = Math.max(any, quality(parameters));
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    /**
+     * Reads the {@code q} parameter of an {@code Accept-Encoding} element.
+     *
+     * @param parameters The element split at its semicolons, the coding first
+     * @return The quality, 1 if it is not given and 0 if it cannot be parsed
+     */
+    private static double quality(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String[] parameter = parameters[i].split("=", 2);
+            if (parameter.length == 2 && "q".equalsIgnoreCase(parameter[0].trim())) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (final NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private Encoded lookup(final ListKey key, final List<?> items) {
+        if (serializedResponses == null) {
+            return null;
+        }
+        final Cache.ValueWrapper hit = serializedResponses.get(key);
+        if (hit == null) {
+            return null;
+        }
+        final Encoded encoded = (Encoded) hit.get();
+        return encoded != null && encoded.source().get() == items ? encoded : null;
+    }
+
+    private Encoded encode(final List<?> items, final Integer limit, final String cursor, final Set<String> fields) {
+        final CursorPage<?> page = CursorPage.slice(items, limit, cursor);
+        final byte[] identity;
+        try {
+            identity = FieldProjection.writer(objectMapper, fields).writeValueAsBytes(page.items());
+        } catch (final JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] gzip = compression && identity.length >= compressionMinSize ? gzip(identity) : null;
+        return new Encoded(new WeakReference<>(items), identity, etag(identity), gzip, gzip == null ? null : etag(gzip), page.nextCursor());
+    }
+
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Computes a strong ETag in the format of the ETag filter.
+     *
+     * @param bytes The encoded body
+     * @return The quoted ETag
+     */
+    private static String etag(final byte[] bytes) {
+        return "\"0" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+    }
+
+    /**
+     * The request a list response is cached for.
+     *
+     * @param endpoint The endpoint name
+     * @param scope The filter of the endpoint, e.g. the user or post ID, or null
+     * @param limit The maximum number of items of the page, or null
+     * @param cursor The cursor of the page, or null
+     * @param fields The properties to write, empty for every property
+     */
+    public record ListKey(String endpoint, Object scope, Integer limit, String cursor, Set<String> fields) {
+    }
+
+    /**
+     * The encodings of one page, with the list they were written from.
+     *
+     * @param source The full list the page was cut from, compared by identity and cleared once it is replaced
+     * @param identity The uncompressed body
+     * @param identityETag The ETag of the uncompressed body
+     * @param gzip The gzip compressed body, or null if it is not compressed
+     * @param gzipETag The ETag of the gzip compressed body, or null
+     * @param nextCursor The cursor of the following page, or null on the last page
+     */
+    private record Encoded(WeakReference<List<?>> source, byte[] identity, String identityETag, byte[] gzip, String gzipETag,
+                           String nextCursor) {
+    }
+}
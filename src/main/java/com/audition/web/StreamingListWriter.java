@@ -0,0 +1,119 @@
+package com.audition.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes list responses record by record as they are serialized, instead of encoding the whole page first, so the
+ * first bytes leave as soon as the first record is written and memory does not grow with the size of the page.
+ * Records are written either as NDJSON, one JSON document per line, or as a single JSON array sent in chunks.
+ *
+ * <p>The output goes through a Jackson generator straight to the response stream. The first record is flushed at
+ * once and then every {@code audition.streaming.flush-every} records. Between flushes the generator buffer and the
+ * container's response buffer fill up and are sent when full. A client that reads slowly blocks the write, so the
+ * writer waits for it rather than queuing more output.
+ * Streamed responses bypass the ETag filter, which would otherwise buffer the whole body to hash it.
+ *
+ * @author Nadeem Shaikh
+ */
+@Component
+public class StreamingListWriter {
+
+    private final transient ObjectMapper objectMapper;
+    private final int flushEvery;
+
+    /**
+     * Constructs the streaming writer.
+     *
+     * @param objectMapper The ObjectMapper used to write responses
+     * @param flushEvery The number of records written between two flushes
+     * @author Nadeem Shaikh
+     */
+    public StreamingListWriter(final ObjectMapper objectMapper,
+        @Value("${audition.streaming.flush-every:100}") final int flushEvery) {
+        this.objectMapper = objectMapper;
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * Builds the streamed response for one page of a list.
+     * The page and projection are checked before the response starts, so that invalid parameters are still
+     * answered with 400.
+     *
+     * @param request The current request
+     * @param items The full list, as currently returned by the service
+     * @param limit The maximum number of items of the page, or null
+     * @param cursor The cursor of the page, or null for the first page
+     * @param fields The properties to write, empty for every property
+     * @param mediaType {@link MediaType#APPLICATION_NDJSON} for one record per line, otherwise a JSON array
+     * @return ResponseEntity whose body writes the page when the response is committed
+     * @throws org.springframework.web.server.ResponseStatusException if the limit or cursor is invalid
+     * @author Nadeem Shaikh
+     */
+    public ResponseEntity<StreamingResponseBody> respond(final HttpServletRequest request, final List<?> items,
+        final Integer limit, final String cursor, final Set<String> fields, final MediaType mediaType) {
+        final CursorPage<?> page = CursorPage.slice(items, limit, cursor);
+        final ObjectWriter writer = FieldProjection.writer(objectMapper, fields)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final boolean ndjson = MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType);
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT);
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(out -> write(out, page.items(), writer, ndjson));
+    }
+
+    /**
+     * Writes the records to the response stream, flushing after the first record and every {@link #flushEvery}
+     * records after it.
+     *
+     * @param out The response stream, left open for the container to complete
+     * @param items The records to write
+     * @param writer The writer of a single record
+     * @param ndjson true to write one record per line, false to write a JSON array
+     * @throws IOException if the client has gone away
+     */
+    void write(final OutputStream out, final List<?> items, final ObjectWriter writer, final boolean ndjson)
+        throws IOException {
+        final ObjectWriter recordWriter = ndjson ? writer.withRootValueSeparator("") : writer;
+        try (JsonGenerator generator = recordWriter.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            int written = 0;
+            for (final Object item : items) {
+                recordWriter.writeValue(generator, item);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                written++;
+                if (written == 1 || written % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+}
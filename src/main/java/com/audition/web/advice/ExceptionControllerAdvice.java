@@ -1,11 +1,13 @@
 package com.audition.web.advice;
 
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.METHOD_NOT_ALLOWED;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
 import io.micrometer.common.util.StringUtils;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +29,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 public class ExceptionControllerAdvice extends ResponseEntityExceptionHandler {
     
     public static final String DEFAULT_TITLE = "API Error Occurred";
+    public static final String TIMEOUT_TITLE = "Request Timeout";
     private static final Logger LOG = LoggerFactory.getLogger(ExceptionControllerAdvice.class);
     private static final String ERROR_MESSAGE = " Error Code from Exception could not be mapped to a valid HttpStatus Code - ";
     private static final String DEFAULT_MESSAGE = "API Error occurred. Please contact support or administrator.";
@@ -64,6 +67,22 @@ public class ExceptionControllerAdvice extends ResponseEntityExceptionHandler {
 
     }
 
+    /**
+     * Handles the TimeoutException of an asynchronous request that missed its deadline.
+     *
+     * @param e The TimeoutException
+     * @return A ProblemDetail object with status 504
+     * @author Nadeem Shaikh
+     */
+    @ExceptionHandler(TimeoutException.class)
+    public ProblemDetail handleTimeoutException(final TimeoutException e) {
+        logger.warn(LOG, "Request did not complete within its deadline");
+        final ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(GATEWAY_TIMEOUT,
+            "The request did not complete within its deadline. Please try again later.");
+        problemDetail.setTitle(TIMEOUT_TITLE);
+        return problemDetail;
+    }
+
     /**
      * Handles SystemException.
      *
@@ -0,0 +1,61 @@
+package com.audition.web.advice;
+
+import com.audition.integration.StaleWhileRevalidate;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Controller advice marking responses built from stale upstream data with the {@value #STALE_HEADER} header,
+ * e.g. {@code X-Served-Stale: if-error; age=42}, giving the reason and the age of the data in seconds.
+ *
+ * @author Nadeem Shaikh
+ */
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "X-Served-Stale";
+
+    /**
+     * Applies to every response body.
+     *
+     * @param returnType The return type of the handler
+     * @param converterType The selected converter
+     * @return Always true
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public boolean supports(final MethodParameter returnType, final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /**
+     * Adds the stale header if stale data was served while handling the request.
+     *
+     * @param body The response body
+     * @param returnType The return type of the handler
+     * @param selectedContentType The selected content type
+     * @param selectedConverterType The selected converter
+     * @param request The current request
+     * @param response The current response
+     * @return The unchanged body
+     * @author Nadeem Shaikh
+     */
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType, final MediaType selectedContentType,
+        final Class<? extends HttpMessageConverter<?>> selectedConverterType, final ServerHttpRequest request,
+        final ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            final Object stale = servletRequest.getServletRequest().getAttribute(StaleWhileRevalidate.STALE_ATTRIBUTE);
+            if (stale != null) {
+                response.getHeaders().set(STALE_HEADER, stale.toString());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,66 @@
+package com.audition.actuator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.audition.service.PostIndex;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Test class for PostIndexEndpoint.
+ * This class contains unit tests for the post index actuator endpoint.
+ *
+ * @author Nadeem Shaikh
+ */
+class PostIndexEndpointTest {
+
+    @Mock
+    private transient PostIndex postIndex;
+
+    @InjectMocks
+    private transient PostIndexEndpoint endpoint;
+
+    private transient PostIndex.Snapshot snapshot;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshot = new PostIndex().getSnapshot();
+    }
+
+    /**
+     * Tests that the read operation describes the current snapshot.
+     */
+    @Test
+    void testDescribe() {
+        when(postIndex.getSnapshot()).thenReturn(snapshot);
+
+        final Map<String, Object> state = endpoint.describe();
+
+        assertEquals(false, state.get("ready"));
+        assertEquals(0L, state.get("version"));
+        assertEquals(0, state.get("posts"));
+    }
+
+    /**
+     * Tests that the write operation triggers a refresh.
+     */
+    @Test
+    void testRefresh() {
+        when(postIndex.refresh()).thenReturn(snapshot);
+
+        final Map<String, Object> state = endpoint.refresh();
+
+        verify(postIndex).refresh();
+        assertEquals(0, state.get("users"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.audition.actuator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.audition.configuration.PrefetchProperties;
+import com.audition.service.CommentIndex;
+import com.audition.service.CommentPrefetcher;
+import com.audition.service.PostIndex;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Test class for WarmUpHealthIndicator.
+ * This class contains unit tests for the readiness of the warm-up.
+ *
+ * @author Nadeem Shaikh
+ */
+class WarmUpHealthIndicatorTest {
+
+    @Mock
+    private transient PostIndex postIndex;
+
+    @Mock
+    private transient CommentIndex commentIndex;
+
+    @Mock
+    private transient CommentPrefetcher commentPrefetcher;
+
+    @Spy
+    private transient PrefetchProperties properties = new PrefetchProperties();
+
+    @InjectMocks
+    private transient WarmUpHealthIndicator indicator;
+
+    /**
+     * Sets up an enabled post index.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(postIndex.isEnabled()).thenReturn(true);
+    }
+
+    /**
+     * Tests that the instance is out of service until the posts are loaded and the first prefetch pass is done.
+     */
+    @Test
+    void testOutOfServiceUntilWarmedUp() {
+        when(commentPrefetcher.isFirstPassComplete()).thenReturn(true);
+
+        final Health health = indicator.health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals(false, health.getDetails().get("postsLoaded"));
+        assertEquals(true, health.getDetails().get("commentsPrefetched"));
+    }
+
+    /**
+     * Tests that the instance is up once warmed up.
+     */
+    @Test
+    void testUpWhenWarmedUp() {
+        when(postIndex.isReady()).thenReturn(true);
+        when(commentPrefetcher.isFirstPassComplete()).thenReturn(true);
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+
+    /**
+     * Tests that the instance is out of service until the comment index is loaded, when it is enabled.
+     */
+    @Test
+    void testOutOfServiceUntilCommentsLoaded() {
+        when(postIndex.isReady()).thenReturn(true);
+        when(commentIndex.isEnabled()).thenReturn(true);
+        when(commentPrefetcher.isFirstPassComplete()).thenReturn(true);
+
+        final Health health = indicator.health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals(false, health.getDetails().get("commentsLoaded"));
+    }
+
+    /**
+     * Tests that the instance reports up once the warm-up timeout has passed, even if not warmed up.
+     */
+    @Test
+    void testUpAfterTimeout() {
+        properties.setWarmUpTimeout(Duration.ZERO);
+
+        final Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(true, health.getDetails().get("timedOut"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.audition.common.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for FrequencySketch.
+ * This class contains unit tests for the count-min frequency estimates and their aging.
+ *
+ * @author Nadeem Shaikh
+ */
+class FrequencySketchTest {
+
+    /**
+     * Tests that estimates are never below the true counts and that hot keys outrank cold ones.
+     */
+    @Test
+    void testEstimatesAreAtLeastTheTrueCounts() {
+        final FrequencySketch sketch = new FrequencySketch(100);
+        for (int key = 0; key < 100; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.increment(key);
+            }
+        }
+
+        for (int key = 0; key < 100; key++) {
+            assertTrue(sketch.frequency(key) >= key % 5 + 1);
+        }
+        assertTrue(sketch.frequency(4) > sketch.frequency(5));
+    }
+
+    /**
+     * Tests that every counter is halved once the sample size has been added.
+     */
+    @Test
+    void testCountersAreHalvedAfterSample() {
+        // 16 keys wide, so the sample is 160 additions
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(7);
+        }
+        assertEquals(100, sketch.frequency(7));
+
+        for (int i = 0; i < 60; i++) {
+            sketch.increment(7);
+        }
+
+        assertEquals(80, sketch.frequency(7));
+    }
+}
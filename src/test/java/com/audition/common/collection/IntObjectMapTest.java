@@ -0,0 +1,96 @@
+package com.audition.common.collection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for IntObjectMap.
+ * This class contains unit tests for the primitive-keyed open-addressing map.
+ *
+ * @author Nadeem Shaikh
+ */
+class IntObjectMapTest {
+
+    /**
+     * Tests that values can be stored and retrieved by key.
+     */
+    @Test
+    void testPutAndGet() {
+        final IntObjectMap<String> map = new IntObjectMap<>(4);
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-7, "minus seven"));
+        assertNull(map.put(0, "zero"));
+
+        assertEquals("one", map.get(1));
+        assertEquals("minus seven", map.get(-7));
+        assertEquals("zero", map.get(0));
+        assertEquals(3, map.size());
+    }
+
+    /**
+     * Tests that absent keys return null.
+     */
+    @Test
+    void testGetAbsentKey() {
+        final IntObjectMap<String> map = new IntObjectMap<>(4);
+        map.put(1, "one");
+        assertNull(map.get(2));
+    }
+
+    /**
+     * Tests that putting an existing key replaces its value.
+     */
+    @Test
+    void testPutReplacesValue() {
+        final IntObjectMap<String> map = new IntObjectMap<>(1);
+        map.put(5, "five");
+
+        assertEquals("five", map.put(5, "FIVE"));
+        assertEquals("FIVE", map.get(5));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Tests that the map holds many colliding entries.
+     */
+    @Test
+    void testManyEntries() {
+        final IntObjectMap<Integer> map = new IntObjectMap<>(1000);
+        for (int key = 0; key < 1000; key++) {
+            map.put(key * 1024, key);
+        }
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(key, map.get(key * 1024));
+        }
+        assertEquals(1000, map.keys().length);
+    }
+
+    /**
+     * Tests getOrDefault and keys.
+     */
+    @Test
+    void testGetOrDefaultAndKeys() {
+        final IntObjectMap<String> map = new IntObjectMap<>(2);
+        map.put(3, "three");
+        map.put(9, "nine");
+
+        assertEquals("none", map.getOrDefault(4, "none"));
+        final int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new int[] {3, 9}, keys);
+    }
+
+    /**
+     * Tests that null values are rejected.
+     */
+    @Test
+    void testNullValueIsRejected() {
+        final IntObjectMap<String> map = new IntObjectMap<>(2);
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+}
@@ -0,0 +1,62 @@
+package com.audition.common.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for RequestAbort.
+ *
+ * @author Nadeem Shaikh
+ */
+class RequestAbortTest {
+
+    /**
+     * Tests that aborting runs the action of the exchange in flight.
+     */
+    @Test
+    void testAbortRunsRegisteredAction() {
+        final RequestAbort requestAbort = new RequestAbort();
+        final AtomicInteger aborts = new AtomicInteger();
+
+        requestAbort.run(() -> {
+            RequestAbort.onAbort(aborts::incrementAndGet);
+            requestAbort.abort();
+            return null;
+        });
+
+        assertEquals(1, aborts.get());
+    }
+
+    /**
+     * Tests that an exchange registered after the abort is aborted at once.
+     */
+    @Test
+    void testExchangeAfterAbortIsAbortedAtOnce() {
+        final RequestAbort requestAbort = new RequestAbort();
+        final AtomicInteger aborts = new AtomicInteger();
+        requestAbort.abort();
+
+        requestAbort.run(() -> {
+            RequestAbort.onAbort(aborts::incrementAndGet);
+            return null;
+        });
+
+        assertEquals(1, aborts.get());
+    }
+
+    /**
+     * Tests that exchanges outside a handle register nothing.
+     */
+    @Test
+    void testRegistrationOutsideHandleIsIgnored() {
+        final AtomicInteger aborts = new AtomicInteger();
+        final RequestAbort requestAbort = new RequestAbort();
+
+        RequestAbort.onAbort(aborts::incrementAndGet);
+        requestAbort.abort();
+
+        assertEquals(0, aborts.get());
+    }
+}
@@ -0,0 +1,33 @@
+package com.audition.common.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for VirtualThreads.
+ * This class contains unit tests for the virtual-thread-per-task executor factory.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class VirtualThreadsTest {
+
+    /**
+     * Tests that tasks run on named virtual threads.
+     */
+    @Test
+    void testTasksRunOnNamedVirtualThreads() throws Exception {
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            final Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            assertTrue(thread.isVirtual());
+            assertEquals("test-0", thread.getName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Test class for CacheConfiguration.
+ * This class contains unit tests for the per-resource Caffeine caches.
+ *
+ * @author Nadeem Shaikh
+ */
+class CacheConfigurationTest {
+
+    private transient CacheManager cacheManager;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        final AuditionCacheProperties properties = new AuditionCacheProperties();
+        properties.getPostById().setTtl(Duration.ofSeconds(30));
+        properties.getPostById().setMaximumSize(10);
+        cacheManager = new CacheConfiguration().cacheManager(properties);
+    }
+
+    /**
+     * Tests that one cache is registered per upstream resource.
+     */
+    @Test
+    void testCachesAreRegistered() {
+        assertEquals(6, cacheManager.getCacheNames().size());
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.POSTS_CACHE));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.POST_BY_ID_CACHE));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.COMMENTS_BY_POST_ID_CACHE));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.LAST_KNOWN_GOOD_CACHE));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.VALIDATED_RESPONSES_CACHE));
+        assertTrue(cacheManager.getCacheNames().contains(CacheConfiguration.SERIALIZED_RESPONSES_CACHE));
+    }
+
+    /**
+     * Tests that unknown cache names are not created on the fly.
+     */
+    @Test
+    void testUnknownCacheIsNotCreated() {
+        assertNull(cacheManager.getCache("unknown"));
+    }
+
+    /**
+     * Tests that the cache spec is applied to the native Caffeine cache.
+     */
+    @Test
+    void testCacheSpecIsApplied() {
+        final Cache<Object, Object> nativeCache =
+            ((CaffeineCache) cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE)).getNativeCache();
+
+        assertEquals(10, nativeCache.policy().eviction().orElseThrow().getMaximum());
+        assertEquals(30, nativeCache.policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.SECONDS));
+        assertTrue(nativeCache.policy().isRecordingStats());
+    }
+}
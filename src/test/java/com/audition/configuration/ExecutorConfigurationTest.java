@@ -0,0 +1,145 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for ExecutorConfiguration.
+ * This class contains unit tests for the platform-thread and virtual-thread execution modes.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class ExecutorConfigurationTest {
+
+    private transient ExecutorConfiguration configuration;
+    private transient ThreadingProperties properties;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        configuration = new ExecutorConfiguration();
+        properties = new ThreadingProperties();
+        properties.getUpstream().setPoolSize(4);
+        properties.getUpstream().setQueueCapacity(8);
+    }
+
+    /**
+     * Tests that the upstream executor is a bounded platform-thread pool by default.
+     */
+    @Test
+    void testUpstreamExecutorIsBoundedByDefault() {
+        final ExecutorService executor = configuration.upstreamExecutor(properties);
+        try {
+            assertTrue(executor instanceof ThreadPoolExecutor);
+            final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertEquals(4, pool.getMaximumPoolSize());
+            assertEquals(8, pool.getQueue().remainingCapacity());
+            assertTrue(pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.CallerRunsPolicy);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the upstream executor starts a thread per task in virtual-thread mode.
+     */
+    @Test
+    void testUpstreamExecutorInVirtualThreadMode() throws Exception {
+        properties.getVirtual().setEnabled(true);
+        final ExecutorService executor = configuration.upstreamExecutor(properties);
+        try {
+            assertFalse(executor instanceof ThreadPoolExecutor);
+            final String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            assertTrue(threadName.startsWith("upstream-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the JDK client executor is unbounded and never runs work on the caller's thread.
+     */
+    @Test
+    void testHttpClientExecutorIsSeparateAndUnbounded() throws Exception {
+        final ExecutorService executor = configuration.httpClientExecutor(properties);
+        try {
+            assertFalse(executor instanceof ThreadPoolExecutor pool && pool.getMaximumPoolSize() < Integer.MAX_VALUE);
+            final String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            assertTrue(threadName.startsWith("http-client-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the request executor is bounded, rejects work once full and publishes its queue depth.
+     */
+    @Test
+    void testRequestExecutorIsBoundedAndMetered() {
+        final AsyncProperties asyncProperties = new AsyncProperties();
+        asyncProperties.setPoolSize(2);
+        asyncProperties.setQueueCapacity(3);
+        final ExecutorService executor = configuration.requestExecutor(asyncProperties);
+        try {
+            final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertEquals(2, pool.getMaximumPoolSize());
+            assertEquals(3, pool.getQueue().remainingCapacity());
+            assertTrue(pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+
+            final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            configuration.requestExecutorMetrics(executor).bindTo(meterRegistry);
+            assertEquals(0.0, meterRegistry.get("executor.queued").tag("name", "request").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the prefetch executor queues at most one pass and rejects the rest.
+     */
+    @Test
+    void testPrefetchExecutorQueuesOnePass() {
+        final PrefetchProperties prefetchProperties = new PrefetchProperties();
+        prefetchProperties.setConcurrency(3);
+        prefetchProperties.setTopPosts(5);
+        final ExecutorService executor = configuration.prefetchExecutor(prefetchProperties);
+        try {
+            final ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertEquals(3, pool.getMaximumPoolSize());
+            assertEquals(5, pool.getQueue().remainingCapacity());
+            assertTrue(pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the Tomcat customizer installs the virtual-thread executor, which is left to its owner to stop.
+     */
+    @Test
+    void testVirtualThreadProtocolHandlerCustomizer() {
+        final ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+        final ExecutorService executor = configuration.tomcatHandlerExecutor();
+        try {
+            configuration.virtualThreadProtocolHandlerCustomizer(executor).customize(protocolHandler);
+
+            verify(protocolHandler).setExecutor(executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
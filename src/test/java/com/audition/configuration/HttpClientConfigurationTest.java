@@ -0,0 +1,197 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.concurrent.RequestAbort;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Test class for HttpClientConfiguration.
+ * This class contains unit tests for the pooled and HTTP/2 client engines and the pool metrics.
+ *
+ * @author Nadeem Shaikh
+ */
+class HttpClientConfigurationTest {
+
+    private static final String PAYLOAD = "[{\"id\":1,\"title\":\"compressed\"}]";
+
+    private transient HttpClientConfiguration configuration;
+    private transient HttpClientProperties properties;
+    private transient PoolingHttpClientConnectionManager connectionManager;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        configuration = new HttpClientConfiguration();
+        properties = new HttpClientProperties();
+        properties.setMaxTotalConnections(20);
+        properties.setMaxConnectionsPerRoute(5);
+        connectionManager = configuration.upstreamConnectionManager(properties);
+    }
+
+    /**
+     * Closes the connection manager after each test method.
+     */
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+    /**
+     * Tests that the connection manager honours the configured pool limits.
+     */
+    @Test
+    void testConnectionManagerLimits() {
+        assertEquals(20, connectionManager.getMaxTotal());
+        assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    /**
+     * Tests that the pooled request factory is backed by Apache HttpClient.
+     */
+    @Test
+    void testPooledClientHttpRequestFactory() throws Exception {
+        try (CloseableHttpClient httpClient = configuration.upstreamHttpClient(connectionManager, properties)) {
+            final ClientHttpRequestFactory factory = configuration.pooledClientHttpRequestFactory(httpClient);
+            assertTrue(factory instanceof HttpComponentsClientHttpRequestFactory);
+        }
+    }
+
+    /**
+     * Tests that the pool metrics are published to the meter registry.
+     */
+    @Test
+    void testConnectionPoolMetrics() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.upstreamConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertEquals(20.0, registry.get("audition.http.client.pool.max").tag("pool", "upstream").gauge().value());
+        assertEquals(0.0, registry.get("audition.http.client.pool.leased").gauge().value());
+        assertEquals(0.0, registry.get("audition.http.client.pool.saturation").gauge().value());
+    }
+
+    /**
+     * Tests that the HTTP/2 request factory creates requests for the JDK client.
+     */
+    @Test
+    void testHttp2ClientHttpRequestFactory() throws Exception {
+        final ClientHttpRequestFactory factory = configuration.http2ClientHttpRequestFactory(properties, Runnable::run);
+        final ClientHttpRequest request = factory.createRequest(URI.create("http://localhost/posts"), HttpMethod.GET);
+
+        assertNotNull(request);
+        assertEquals(HttpMethod.GET, request.getMethod());
+        assertEquals(URI.create("http://localhost/posts"), request.getURI());
+    }
+
+    /**
+     * Tests that both engines ask for gzip and hand the decompressed body to the message converters.
+     */
+    @Test
+    void testGzipResponsesAreDecompressed() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/posts", exchange -> {
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            final boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (OutputStream out = gzip ? new GZIPOutputStream(body) : body) {
+                out.write(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+            }
+            if (gzip) {
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        });
+        server.start();
+        final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/posts");
+        try (CloseableHttpClient httpClient = configuration.upstreamHttpClient(connectionManager, properties)) {
+            assertEquals(PAYLOAD, read(configuration.pooledClientHttpRequestFactory(httpClient), uri));
+            assertEquals(PAYLOAD, read(configuration.http2ClientHttpRequestFactory(properties, Runnable::run), uri));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Tests that both engines abort an exchange waiting for a slow upstream through its RequestAbort handle.
+     * The Apache engine reports the released connection of a retried exchange as an IllegalStateException.
+     */
+    @Test
+    void testExchangeIsAborted() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/posts", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/posts");
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try (CloseableHttpClient httpClient = configuration.upstreamHttpClient(connectionManager, properties)) {
+            assertAborted(configuration.pooledClientHttpRequestFactory(httpClient), uri, scheduler);
+            assertAborted(configuration.http2ClientHttpRequestFactory(properties, Runnable::run), uri, scheduler);
+        } finally {
+            scheduler.shutdownNow();
+            server.stop(0);
+        }
+    }
+
+    private static void assertAborted(final ClientHttpRequestFactory factory, final URI uri,
+        final ScheduledExecutorService scheduler) {
+        final RequestAbort requestAbort = new RequestAbort();
+        scheduler.schedule(requestAbort::abort, 200, TimeUnit.MILLISECONDS);
+        final long start = System.nanoTime();
+
+        final Object outcome = requestAbort.run(() -> {
+            try {
+                return read(factory, uri);
+            } catch (final IOException | IllegalStateException e) {
+                return e;
+            }
+        });
+
+        assertTrue(outcome instanceof Exception);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    private static String read(final ClientHttpRequestFactory factory, final URI uri) throws IOException {
+        try (ClientHttpResponse response = factory.createRequest(uri, HttpMethod.GET).execute()) {
+            return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+        }
+    }
+}
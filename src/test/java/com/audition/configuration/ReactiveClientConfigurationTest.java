@@ -0,0 +1,109 @@
+package com.audition.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.audition.model.AuditionPost;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Test class for ReactiveClientConfiguration.
+ * This class contains unit tests for the Reactor Netty pool and the WebClient of the reactive upstream client.
+ *
+ * @author Nadeem Shaikh
+ */
+class ReactiveClientConfigurationTest {
+
+    private static final String PAYLOAD = "[{\"userId\":1,\"id\":1,\"title\":\"compressed\",\"body\":\"Body\"}]";
+
+    private transient ReactiveClientConfiguration configuration;
+    private transient HttpClientProperties properties;
+    private transient ConnectionProvider connectionProvider;
+    private transient HttpServer server;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        configuration = new ReactiveClientConfiguration();
+        properties = new HttpClientProperties();
+        properties.setMaxConnectionsPerRoute(5);
+        connectionProvider = configuration.upstreamConnectionProvider(properties);
+    }
+
+    /**
+     * Disposes the connection pool and stops the upstream after each test method.
+     */
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Tests that the pool is sized from the per-route connection limit.
+     */
+    @Test
+    void testConnectionProviderIsSizedFromProperties() {
+        assertEquals(5, connectionProvider.maxConnections());
+    }
+
+    /**
+     * Tests that the WebClient asks for gzip and binds the decompressed body with the application ObjectMapper.
+     */
+    @Test
+    void testGzipResponsesAreDecompressedAndBound() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/posts", exchange -> {
+            final boolean gzip = String.valueOf(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))
+                .contains("gzip");
+            final byte[] body = gzip ? gzip(PAYLOAD) : PAYLOAD.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+            if (gzip) {
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        final WebClient webClient = configuration.upstreamWebClient(connectionProvider, properties,
+            new WebServiceConfiguration().objectMapper());
+
+        final List<AuditionPost> posts = webClient.get()
+            .uri("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/posts")
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<List<AuditionPost>>() {
+            })
+            .block(Duration.ofSeconds(5));
+
+        assertEquals("compressed", posts.get(0).getTitle());
+    }
+
+    private static byte[] gzip(final String payload) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(payload.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -8,6 +8,14 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpMethod;
@@ -18,6 +26,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +41,7 @@ import static org.mockito.Mockito.when;
  *
  * @author Nadeem Shaikh
  */
+@SuppressWarnings("PMD.ExcessiveImports")
 class WebServiceConfigurationTest {
 
     private transient WebServiceConfiguration configuration;
@@ -49,7 +59,7 @@ class WebServiceConfigurationTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         configuration = new WebServiceConfiguration();
-        loggingInterceptor = configuration.new LoggingInterceptor();
+        loggingInterceptor = configuration.new LoggingInterceptor(new HttpClientProperties.Logging());
     }
 
     /**
@@ -86,7 +96,8 @@ class WebServiceConfigurationTest {
     @Test
     void testRestTemplate() {
         final ObjectMapper objectMapper = configuration.objectMapper();
-        final RestTemplate restTemplate = configuration.restTemplate(objectMapper);
+        final RestTemplate restTemplate = configuration.restTemplate(objectMapper, new SimpleClientHttpRequestFactory(),
+            new HttpClientProperties());
 
         // Test message converters
         assertEquals(1, restTemplate.getMessageConverters().size());
@@ -97,6 +108,17 @@ class WebServiceConfigurationTest {
         assertTrue(restTemplate.getInterceptors().get(0) instanceof WebServiceConfiguration.LoggingInterceptor);
     }
 
+    /**
+     * Tests that strong ETags are registered for the post endpoints.
+     */
+    @Test
+    void testEtagFilterCoversPostEndpoints() {
+        final FilterRegistrationBean<ShallowEtagHeaderFilter> registration = configuration.etagFilter();
+
+        assertTrue(registration.getUrlPatterns().containsAll(List.of("/posts", "/posts/*", "/async/posts", "/async/posts/*")));
+        assertFalse(registration.getFilter().isWriteWeakETag());
+    }
+
     /**
      * Tests the date serialization of the ObjectMapper.
      */
@@ -134,7 +156,7 @@ class WebServiceConfigurationTest {
 
         final byte[] body = "Test body".getBytes(StandardCharsets.UTF_8);
         assertDoesNotThrow(() -> {
-            loggingInterceptor.logRequest(mockRequest, body);
+            loggingInterceptor.logRequest(mockRequest, body, true);
         });
     }
 
@@ -147,7 +169,55 @@ class WebServiceConfigurationTest {
         when(mockResponse.getHeaders()).thenReturn(new HttpHeaders());
         when(mockResponse.getBody()).thenReturn(new ByteArrayInputStream("Test response".getBytes(StandardCharsets.UTF_8)));
 
-        assertDoesNotThrow(() -> loggingInterceptor.logResponse(mockResponse));
+        assertDoesNotThrow(() -> loggingInterceptor.logResponse(mockResponse, false));
+    }
+
+    /**
+     * Tests that the response is streamed to the converters without a buffering request factory by default.
+     */
+    @Test
+    void testRestTemplateStreamsResponsesByDefault() {
+        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        final RestTemplate restTemplate = configuration.restTemplate(configuration.objectMapper(), requestFactory,
+            new HttpClientProperties());
+
+        assertFalse(restTemplate.getRequestFactory() instanceof BufferingClientHttpRequestFactory);
+    }
+
+    /**
+     * Tests that a captured response body is still fully readable by the message converters.
+     */
+    @Test
+    @SuppressWarnings("PMD.CloseResource")
+    void testLogResponseWithBodyCaptureKeepsBodyReadable() throws IOException {
+        final HttpClientProperties.Logging logging = new HttpClientProperties.Logging();
+        logging.setBodyCaptureEnabled(true);
+        logging.setBodyCaptureMaxBytes(4);
+        logging.setBodyCaptureSampleRate(1.0);
+        final WebServiceConfiguration.LoggingInterceptor capturingInterceptor = configuration.new LoggingInterceptor(logging);
+        final Logger interceptorLogger = (Logger) LoggerFactory.getLogger(WebServiceConfiguration.LoggingInterceptor.class);
+        final Level previousLevel = interceptorLogger.getLevel();
+        interceptorLogger.setLevel(Level.DEBUG);
+
+        try {
+            when(mockResponse.getStatusCode()).thenReturn(HttpStatus.OK);
+            when(mockResponse.getHeaders()).thenReturn(new HttpHeaders());
+            when(mockResponse.getBody()).thenReturn(new ByteArrayInputStream("Test response".getBytes(StandardCharsets.UTF_8)));
+
+            assertTrue(capturingInterceptor.shouldCaptureBody());
+            final ClientHttpResponse response = capturingInterceptor.logResponse(mockResponse, true);
+            assertEquals("Test response", StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        } finally {
+            interceptorLogger.setLevel(previousLevel);
+        }
+    }
+
+    /**
+     * Tests that bodies are never captured while capture is disabled.
+     */
+    @Test
+    void testShouldNotCaptureBodyByDefault() {
+        assertFalse(loggingInterceptor.shouldCaptureBody());
     }
 
     @SuppressWarnings("PMD.BeanMembersShouldSerialize")
@@ -1,27 +1,54 @@
 package com.audition.integration;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import com.audition.common.logging.AuditionLogger;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
-import java.util.Collections;
 import java.util.List;
-import org.springframework.core.ParameterizedTypeReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import org.springframework.test.util.ReflectionTestUtils;
 import com.audition.model.AuditionPost;
+import com.audition.configuration.HedgingProperties;
+import com.audition.configuration.WebServiceConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.mockito.stubbing.Answer;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+import com.audition.configuration.SnapshotProperties;
+import com.audition.configuration.StaleProperties;
+import com.audition.configuration.UpstreamProperties;
 import com.audition.model.Comment;
 import com.audition.common.exception.SystemException;
 
@@ -31,12 +58,40 @@ import com.audition.common.exception.SystemException;
  * 
  * @author Nadeem Shaikh
  */
-@SuppressWarnings("PMD.TooManyMethods")
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"})
 class AuditionIntegrationClientTest {
 
     @Mock
     private transient RestTemplate restTemplate;
 
+    @Spy
+    private transient ObjectMapper objectMapper = new WebServiceConfiguration().objectMapper();
+
+    @Spy
+    private transient SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Spy
+    private transient UpstreamResilience upstreamResilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+        BulkheadRegistry.ofDefaults(), RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+        new ConcurrentMapCacheManager(), new SimpleMeterRegistry(), new AuditionLogger(), false, new StaleProperties(),
+        new SnapshotStore(new SnapshotProperties(), new ConcurrentMapCacheManager(), new SimpleMeterRegistry(), new AuditionLogger()));
+
+    @Spy
+    private transient StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate(new StaleProperties(),
+        new ConcurrentMapCacheManager(), Runnable::run, event -> { }, new SimpleMeterRegistry(), new AuditionLogger());
+
+    @Spy
+    private transient UpstreamHedging upstreamHedging = new UpstreamHedging(new HedgingProperties(), Runnable::run,
+        new SimpleMeterRegistry());
+
+    @Spy
+    private transient UpstreamEndpoints upstreamEndpoints = new UpstreamEndpoints(new UpstreamProperties(),
+        new SimpleMeterRegistry(), new AuditionLogger());
+
+    @Spy
+    private transient UpstreamValidators upstreamValidators = new UpstreamValidators(new ConcurrentMapCacheManager(),
+        new SimpleMeterRegistry());
+
     @InjectMocks
     private transient AuditionIntegrationClient auditionIntegrationClient;
 
@@ -50,6 +105,16 @@ class AuditionIntegrationClientTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(auditionIntegrationClient, "upstreamExecutor", (Executor) Runnable::run);
+    }
+
+    private Object executeArray() {
+        return restTemplate.execute(any(URI.class), eq(HttpMethod.GET), any(), any());
+    }
+
+    private static Answer<Object> array(final String json) {
+        return invocation -> invocation.<ResponseExtractor<?>>getArgument(3)
+            .extractData(new MockClientHttpResponse(json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
     }
 
     /**
@@ -58,10 +123,7 @@ class AuditionIntegrationClientTest {
     @Test
     void testGetPosts() {
         // Arrange
-        final List<AuditionPost> mockPosts = Collections.singletonList(new AuditionPost());
-        final ResponseEntity<List<AuditionPost>> responseEntity = ResponseEntity.ok(mockPosts);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
-            any(ParameterizedTypeReference.class))).thenReturn(responseEntity);
+        when(executeArray()).thenAnswer(array("[{\"id\":1}]"));
 
         // Act  
         final List<AuditionPost> posts = auditionIntegrationClient.getPosts();
@@ -71,6 +133,35 @@ class AuditionIntegrationClientTest {
         assertEquals(1, posts.size());
     }
 
+    /**
+     * Tests that the posts are handed to the sink of the attempt as they are read, and that its list is the result.
+     */
+    @Test
+    void testGetPostsFeedsElementSink() {
+        when(executeArray()).thenAnswer(array("[{\"id\":1},{\"id\":2}]"));
+        final ElementSink<AuditionPost> sink = ElementSink.toList();
+
+        final List<AuditionPost> posts = auditionIntegrationClient.getPosts(() -> sink);
+
+        assertSame(sink.elements(), posts);
+        assertEquals(List.of(1, 2), posts.stream().map(AuditionPost::getId).toList());
+    }
+
+    /**
+     * Tests that the sink variants, used by index refreshes, are never answered stale while revalidating.
+     */
+    @Test
+    void testSinkVariantsBypassStaleWhileRevalidate() {
+        when(executeArray()).thenAnswer(array("[{\"id\":1}]"));
+
+        auditionIntegrationClient.getPosts(ElementSink::toList);
+        auditionIntegrationClient.getComments(ElementSink::toList);
+        verify(staleWhileRevalidate, never()).execute(anyString(), any(), anyString(), any());
+
+        auditionIntegrationClient.getPosts();
+        verify(staleWhileRevalidate).execute(anyString(), any(), anyString(), any());
+    }
+
     /**
      * Tests the getPostById method for successful retrieval of a post by ID.
      */
@@ -88,6 +179,8 @@ class AuditionIntegrationClientTest {
 
         // Assert
         assertNotNull(post);
+        verify(singleFlight).execute(eq("getPostById:" + postId), any());
+        verify(upstreamResilience).execute(eq(AuditionIntegrationClient.GET_POST_BY_ID), eq("getPostById:" + postId), any());
     }
 
     /**
@@ -97,11 +190,7 @@ class AuditionIntegrationClientTest {
     void testGetCommentsByPostId() {
         // Arrange
         final String postId = TEST_POST_ID;
-        final List<Comment> mockComments = Collections.singletonList(new Comment());
-        final ResponseEntity<List<Comment>> responseEntity = ResponseEntity.ok(mockComments);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), 
-            any(ParameterizedTypeReference.class), eq(postId)))
-            .thenReturn(responseEntity);
+        when(executeArray()).thenAnswer(array("[{\"id\":1}]"));
 
         // Act
         final List<Comment> comments = auditionIntegrationClient.getCommentsByPostId(postId);
@@ -118,11 +207,7 @@ class AuditionIntegrationClientTest {
     void testGetCommentsForPost() {
         // Arrange
         final String postId = TEST_POST_ID;
-        final List<Comment> mockComments = Collections.singletonList(new Comment());
-        final ResponseEntity<List<Comment>> responseEntity = ResponseEntity.ok(mockComments);
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), 
-            any(ParameterizedTypeReference.class), eq(postId)))
-            .thenReturn(responseEntity);
+        when(executeArray()).thenAnswer(array("[{\"id\":1}]"));
 
         // Act
         final List<Comment> comments = auditionIntegrationClient.getCommentsForPost(postId);
@@ -132,12 +217,25 @@ class AuditionIntegrationClientTest {
         assertEquals(1, comments.size());
     }
 
+    /**
+     * Tests the getComments method for retrieval of every comment in one call.
+     */
+    @Test
+    void testGetComments() {
+        when(executeArray()).thenAnswer(array("[{\"id\":1}]"));
+
+        final List<Comment> comments = auditionIntegrationClient.getComments();
+
+        assertEquals(1, comments.size());
+        verify(restTemplate).execute(argThat((URI uri) -> uri.getPath().endsWith("/comments")), eq(HttpMethod.GET), any(), any());
+    }
+
     /**
      * Tests that getPosts throws a SystemException when an HttpClientErrorException occurs.
      */
     @Test
     void testGetPostsThrowsSystemExceptionOnHttpClientErrorException() {
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+        when(executeArray())
             .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
         final SystemException exception = assertThrows(SystemException.class, () -> auditionIntegrationClient.getPosts());
@@ -176,7 +274,7 @@ class AuditionIntegrationClientTest {
      */
     @Test
     void testGetCommentsByPostIdThrowsSystemExceptionOnNotFound() {
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class), anyString()))
+        when(executeArray())
             .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
         final SystemException exception = assertThrows(SystemException.class, () -> auditionIntegrationClient.getCommentsByPostId(TEST_POST_ID));
@@ -189,7 +287,7 @@ class AuditionIntegrationClientTest {
      */
     @Test
     void testGetCommentsByPostIdThrowsSystemExceptionOnOtherHttpClientErrorException() {
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class), anyString()))
+        when(executeArray())
             .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
         final SystemException exception = assertThrows(SystemException.class, () -> auditionIntegrationClient.getCommentsByPostId(TEST_POST_ID));
@@ -202,7 +300,7 @@ class AuditionIntegrationClientTest {
      */
     @Test
     void testGetCommentsForPostThrowsSystemExceptionOnNotFound() {
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class), anyString()))
+        when(executeArray())
             .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
         final SystemException exception = assertThrows(SystemException.class, () -> auditionIntegrationClient.getCommentsForPost(TEST_POST_ID));
@@ -215,11 +313,58 @@ class AuditionIntegrationClientTest {
      */
     @Test
     void testGetCommentsForPostThrowsSystemExceptionOnOtherHttpClientErrorException() {
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class), anyString()))
+        when(executeArray())
             .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
         final SystemException exception = assertThrows(SystemException.class, () -> auditionIntegrationClient.getCommentsForPost(TEST_POST_ID));
         assertEquals(API_ERROR, exception.getTitle());
         assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that getPostByIdAsync completes with the post fetched on the upstream executor.
+     */
+    @Test
+    void testGetPostByIdAsync() throws Exception {
+        final AuditionPost mockPost = new AuditionPost();
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
+            eq(AuditionPost.class), eq(TEST_POST_ID))).thenReturn(ResponseEntity.ok(mockPost));
+
+        final CompletableFuture<AuditionPost> future = auditionIntegrationClient.getPostByIdAsync(TEST_POST_ID);
+
+        assertSame(mockPost, future.get());
+    }
+
+    /**
+     * Tests that getCommentsByPostIdAsync completes exceptionally with the SystemException of the upstream call.
+     */
+    @Test
+    void testGetCommentsByPostIdAsyncCompletesExceptionally() {
+        when(executeArray())
+            .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND, RESOURCE_NOT_FOUND));
+
+        final CompletableFuture<List<Comment>> future = auditionIntegrationClient.getCommentsByPostIdAsync(TEST_POST_ID);
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertTrue(exception.getCause() instanceof SystemException);
+    }
+
+    /**
+     * Tests that a post is revalidated with its ETag and served from the kept body when upstream answers 304.
+     */
+    @Test
+    void testGetPostByIdRevalidatesWithETag() {
+        final AuditionPost mockPost = new AuditionPost();
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
+            eq(AuditionPost.class), eq(TEST_POST_ID))).thenReturn(ResponseEntity.ok().eTag("\"v1\"").body(mockPost));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+            eq(AuditionPost.class), eq(TEST_POST_ID))).thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        auditionIntegrationClient.getPostById(TEST_POST_ID);
+        final AuditionPost revalidated = auditionIntegrationClient.getPostById(TEST_POST_ID);
+
+        assertSame(mockPost, revalidated);
+        assertEquals(List.of("\"v1\""),
+            upstreamValidators.conditionalRequest("getPostById:" + TEST_POST_ID).getHeaders().getIfNoneMatch());
+    }
+}
@@ -0,0 +1,74 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.audition.configuration.WebServiceConfiguration;
+import com.audition.model.Comment;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Test class for JsonArrayExtractor.
+ *
+ * @author Nadeem Shaikh
+ */
+class JsonArrayExtractorTest {
+
+    private final transient List<ElementSink<Comment>> sinks = new ArrayList<>();
+
+    private final transient JsonArrayExtractor<Comment> extractor = new JsonArrayExtractor<>(
+        new WebServiceConfiguration().objectMapper(), Comment.class, () -> {
+            final ElementSink<Comment> sink = ElementSink.toList();
+            sinks.add(sink);
+            return sink;
+        });
+
+    private static MockClientHttpResponse response(final String body, final HttpStatus status) {
+        return new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status);
+    }
+
+    /**
+     * Tests that the elements are handed to the sink in upstream order and that its list is the body.
+     */
+    @Test
+    void testElementsAreFedToSink() throws IOException {
+        final ResponseEntity<List<Comment>> response = extractor.extractData(
+            response("[{\"id\":1,\"body\":\"First\"},{\"id\":2,\"body\":\"Second\"}]", HttpStatus.OK));
+
+        assertEquals(1, sinks.size());
+        assertSame(sinks.get(0).elements(), response.getBody());
+        assertEquals(List.of(1, 2), response.getBody().stream().map(Comment::getId).toList());
+    }
+
+    /**
+     * Tests that a 304 and an empty body yield a response without a body.
+     */
+    @Test
+    void testNotModifiedAndEmptyBodyHaveNoBody() throws IOException {
+        final ResponseEntity<List<Comment>> notModified = extractor.extractData(response("", HttpStatus.NOT_MODIFIED));
+        final ResponseEntity<List<Comment>> empty = extractor.extractData(response("", HttpStatus.OK));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertNull(empty.getBody());
+    }
+
+    /**
+     * Tests that a body that is not a complete JSON array fails the extraction.
+     */
+    @Test
+    void testMalformedArrayFails() {
+        assertThrows(RestClientException.class, () -> extractor.extractData(response("{\"id\":1}", HttpStatus.OK)));
+        assertThrows(RestClientException.class, () -> extractor.extractData(response("[{\"id\":1}", HttpStatus.OK)));
+    }
+}
@@ -0,0 +1,206 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.SnapshotProperties;
+import com.audition.configuration.StaleProperties;
+import com.audition.configuration.UpstreamProperties;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for ReactiveAuditionIntegrationClient.
+ * Upstream is replaced by an exchange function, so the tests cover binding, error mapping, coalescing and
+ * revalidation without a network.
+ *
+ * @author Nadeem Shaikh
+ */
+class ReactiveAuditionIntegrationClientTest {
+
+    private static final String POST_JSON = "{\"userId\":1,\"id\":1,\"title\":\"Title\",\"body\":\"Body\"}";
+
+    private final transient List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private transient Function<ClientRequest, Mono<ClientResponse>> upstream;
+    private transient ReactiveAuditionIntegrationClient client;
+
+    /**
+     * Sets up the client over an exchange function answering with {@link #upstream}, without retries, fallback
+     * or stale serving.
+     */
+    @BeforeEach
+    void setUp() {
+        final WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.add(request);
+                return upstream.apply(request);
+            })
+            .build();
+        final UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+            BulkheadRegistry.ofDefaults(), RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+            new ConcurrentMapCacheManager(), new SimpleMeterRegistry(), new AuditionLogger(), false, new StaleProperties(),
+            new SnapshotStore(new SnapshotProperties(), new ConcurrentMapCacheManager(), new SimpleMeterRegistry(), new AuditionLogger()));
+        final StaleWhileRevalidate staleWhileRevalidate = new StaleWhileRevalidate(new StaleProperties(),
+            new ConcurrentMapCacheManager(), Runnable::run, event -> { }, new SimpleMeterRegistry(), new AuditionLogger());
+        client = new ReactiveAuditionIntegrationClient(webClient, staleWhileRevalidate,
+            new SingleFlight(new SimpleMeterRegistry()), resilience,
+            new UpstreamEndpoints(new UpstreamProperties(), new SimpleMeterRegistry(), new AuditionLogger()),
+            new UpstreamValidators(new ConcurrentMapCacheManager(), new SimpleMeterRegistry()));
+    }
+
+    private static Mono<ClientResponse> json(final String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body)
+            .build());
+    }
+
+    /**
+     * Tests that the posts are fetched from the posts endpoint and bound.
+     */
+    @Test
+    void testGetPosts() {
+        upstream = request -> json("[" + POST_JSON + "]");
+
+        final List<AuditionPost> posts = client.getPosts();
+
+        assertEquals(1, posts.size());
+        assertEquals("Title", posts.get(0).getTitle());
+        assertEquals("https://jsonplaceholder.typicode.com/posts", requests.get(0).url().toString());
+    }
+
+    /**
+     * Tests that a list body larger than the codec's in-memory limit is decoded, as its elements are decoded one at
+     * a time as they stream in rather than after buffering the whole body.
+     */
+    @Test
+    void testLargeListIsDecodedElementByElement() {
+        final String body = "x".repeat(100);
+        final StringJoiner posts = new StringJoiner(",", "[", "]");
+        for (int id = 1; id <= 3000; id++) {
+            posts.add("{\"userId\":1,\"id\":" + id + ",\"title\":\"Title\",\"body\":\"" + body + "\"}");
+        }
+        upstream = request -> json(posts.toString());
+
+        final List<AuditionPost> result = client.getPosts();
+
+        assertEquals(3000, result.size());
+        assertEquals(3000, result.get(2999).getId());
+    }
+
+    /**
+     * Tests that the comments of a post are requested by post ID.
+     */
+    @Test
+    void testGetCommentsByPostId() {
+        upstream = request -> json("[{\"id\":1,\"postId\":2,\"body\":\"Comment\"}]");
+
+        final List<Comment> comments = client.getCommentsByPostId("2");
+
+        assertEquals("Comment", comments.get(0).getBody());
+        assertEquals("postId=2", requests.get(0).url().getQuery());
+    }
+
+    /**
+     * Tests that every comment is requested in one call, without a post ID.
+     */
+    @Test
+    void testGetComments() {
+        upstream = request -> json("[{\"id\":1,\"postId\":2,\"body\":\"Comment\"},{\"id\":2,\"postId\":3}]");
+
+        final List<Comment> comments = client.getComments();
+
+        assertEquals(2, comments.size());
+        assertEquals(3, comments.get(1).getPostId());
+        assertEquals("https://jsonplaceholder.typicode.com/comments", requests.get(0).url().toString());
+    }
+
+    /**
+     * Tests that a 404 is raised as the SystemException of the blocking client.
+     */
+    @Test
+    void testGetPostByIdNotFound() {
+        upstream = request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+
+        final SystemException exception = assertThrows(SystemException.class, () -> client.getPostById("1"));
+
+        assertEquals("Resource Not Found", exception.getTitle());
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getStatusCode());
+    }
+
+    /**
+     * Tests that a server error is raised as an HttpServerErrorException, unwrapped from the future.
+     */
+    @Test
+    void testServerErrorIsRaisedAsHttpServerErrorException() {
+        upstream = request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        final HttpServerErrorException exception = assertThrows(HttpServerErrorException.class,
+            () -> client.getCommentsForPost("1"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    /**
+     * Tests that concurrent asynchronous reads of one post share a single upstream request.
+     */
+    @Test
+    void testConcurrentAsyncCallsShareOneRequest() {
+        final CompletableFuture<ClientResponse> response = new CompletableFuture<>();
+        upstream = request -> Mono.fromFuture(response);
+
+        final CompletableFuture<AuditionPost> first = client.getPostByIdAsync("1");
+        final CompletableFuture<AuditionPost> second = client.getPostByIdAsync("1");
+        response.complete(json(POST_JSON).block());
+
+        assertEquals("Title", first.join().getTitle());
+        assertSame(first.join(), second.join());
+        assertEquals(1, requests.size());
+    }
+
+    /**
+     * Tests that a repeated read carries the ETag of the previous response and a 304 is answered with the kept body.
+     */
+    @Test
+    void testGetPostByIdRevalidatesWithETag() {
+        upstream = request -> request.headers().getIfNoneMatch().isEmpty()
+            ? Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .body(POST_JSON)
+                .build())
+            : Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        final AuditionPost first = client.getPostById("1");
+        final AuditionPost second = client.getPostById("1");
+
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertSame(first, second);
+    }
+}
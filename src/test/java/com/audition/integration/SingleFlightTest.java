@@ -0,0 +1,199 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.exception.SystemException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for SingleFlight.
+ * This class contains unit tests for the coalescing of identical in-flight upstream calls.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class SingleFlightTest {
+
+    private static final String KEY = "key";
+
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient SingleFlight singleFlight;
+    private transient ExecutorService executor;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    /**
+     * Shuts the executor down after each test method.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that a concurrent caller for the same key shares the in-flight call.
+     */
+    @Test
+    void testConcurrentCallsAreCoalesced() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Object result = new Object();
+
+        final CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(KEY, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return result;
+        }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(KEY, () -> {
+            calls.incrementAndGet();
+            return new Object();
+        }), executor);
+        while (meterRegistry.get("audition.upstream.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that a call made after the previous one finished triggers a new fetch.
+     */
+    @Test
+    void testSequentialCallsAreNotCoalesced() {
+        final AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute(KEY, calls::incrementAndGet);
+        singleFlight.execute(KEY, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertEquals(0.0, meterRegistry.get("audition.upstream.coalesced").counter().count());
+    }
+
+    /**
+     * Tests that failures are propagated and release the key.
+     */
+    @Test
+    void testFailureIsPropagatedAndKeyReleased() {
+        assertThrows(SystemException.class, () -> singleFlight.execute(KEY, () -> {
+            throw new SystemException("Upstream down", 503);
+        }));
+
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals("ok", singleFlight.execute(KEY, () -> "ok"));
+    }
+
+    /**
+     * Tests that an asynchronous caller for the same key shares the in-flight call without blocking, and that
+     * the key is released once the call completes.
+     */
+    @Test
+    void testAsyncCallsAreCoalesced() {
+        final CompletableFuture<Object> upstream = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final Object result = new Object();
+
+        final CompletableFuture<Object> leader = singleFlight.executeAsync(KEY, () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        final CompletableFuture<Object> follower = singleFlight.executeAsync(KEY, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(new Object());
+        });
+        follower.cancel(false);
+        upstream.complete(result);
+
+        assertSame(result, leader.join());
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("audition.upstream.coalesced").counter().count());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that the failure of an asynchronous call is shared unwrapped with a synchronous caller of the key.
+     */
+    @Test
+    void testAsyncFailureIsSharedWithSyncCaller() throws Exception {
+        final CompletableFuture<Object> upstream = new CompletableFuture<>();
+        singleFlight.executeAsync(KEY, () -> upstream);
+        final CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(KEY, Object::new),
+            executor);
+        while (meterRegistry.get("audition.upstream.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        upstream.completeExceptionally(new SystemException("Upstream down", 503));
+
+        final ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof SystemException);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that a leading caller runs its own call instead of joining the one in flight, so that its sinks are fed.
+     */
+    @Test
+    void testLeaderNeverJoinsCallInFlight() {
+        final CompletableFuture<Object> upstream = new CompletableFuture<>();
+        singleFlight.executeAsync(KEY, () -> upstream);
+
+        assertEquals("own", singleFlight.lead(KEY, () -> "own"));
+        assertEquals("own", singleFlight.leadAsync(KEY, () -> CompletableFuture.completedFuture("own")).join());
+
+        assertEquals(0.0, meterRegistry.get("audition.upstream.coalesced").counter().count());
+        upstream.complete("shared");
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    /**
+     * Tests that identical callers join the call of a leading caller while it is in flight.
+     */
+    @Test
+    void testCallersJoinLeaderInFlight() {
+        final CompletableFuture<Object> upstream = new CompletableFuture<>();
+        final CompletableFuture<Object> leader = singleFlight.leadAsync(KEY, () -> upstream);
+
+        final CompletableFuture<Object> follower = singleFlight.executeAsync(KEY, () -> CompletableFuture.completedFuture("own"));
+        upstream.complete("shared");
+
+        assertEquals("shared", leader.join());
+        assertEquals("shared", follower.join());
+        assertEquals(1.0, meterRegistry.get("audition.upstream.coalesced").counter().count());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.CacheConfiguration;
+import com.audition.configuration.SnapshotProperties;
+import com.audition.model.AuditionPost;
+import com.audition.model.Comment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Test class for SnapshotStore.
+ * Each test writes a snapshot through one store and starts another from the same directory, as a restart would.
+ *
+ * @author Nadeem Shaikh
+ */
+class SnapshotStoreTest {
+
+    private static final String POST_KEY = "getPostById:1";
+    private static final String COMMENTS_KEY = "getCommentsByPostId:1";
+    private static final long FETCHED_AT = 1_700_000_000_000L;
+
+    @TempDir
+    private transient Path directory;
+
+    private transient SnapshotProperties properties;
+
+    /**
+     * Enables the snapshot in the temporary directory.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new SnapshotProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+    }
+
+    private SnapshotStore start(final ConcurrentMapCacheManager cacheManager) {
+        final SnapshotStore store = new SnapshotStore(properties, cacheManager, new SimpleMeterRegistry(), new AuditionLogger());
+        store.load();
+        return store;
+    }
+
+    private static Comment comment(final int id, final String body) {
+        final Comment comment = new Comment(id, body);
+        comment.setPostId(1);
+        comment.setEmail("user@example.com");
+        return comment;
+    }
+
+    /**
+     * Tests that recorded values are restored by the next instance, with their fetch time, and seed the last known
+     * good values.
+     */
+    @Test
+    void testRecordedValuesAreRestoredAfterRestart() {
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        store.record(AuditionIntegrationClient.GET_POSTS, new LastKnownGood(
+            List.of(new AuditionPost(1, 1, "Title", "Body"), new AuditionPost(2, 2, "Ünïcode", null)), FETCHED_AT));
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT));
+        store.record(COMMENTS_KEY, new LastKnownGood(List.of(comment(1, "First"), comment(2, "Second")), FETCHED_AT));
+        store.close();
+
+        final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.LAST_KNOWN_GOOD_CACHE);
+        final SnapshotStore restarted = start(cacheManager);
+
+        final List<AuditionPost> posts = restarted.get(AuditionIntegrationClient.GET_POSTS);
+        assertEquals("Ünïcode", posts.get(1).getTitle());
+        assertNull(posts.get(1).getBody());
+        assertEquals(Instant.ofEpochMilli(FETCHED_AT), restarted.getFetchedAt(AuditionIntegrationClient.GET_POSTS));
+        final List<Comment> comments = restarted.get(COMMENTS_KEY);
+        assertEquals("Second", comments.get(1).getBody());
+        assertEquals("user@example.com", comments.get(1).getEmail());
+        assertNull(comments.get(1).getName());
+        final LastKnownGood seeded = (LastKnownGood) cacheManager.getCache(CacheConfiguration.LAST_KNOWN_GOOD_CACHE)
+            .get(POST_KEY).get();
+        assertEquals("Title", ((AuditionPost) seeded.value()).getTitle());
+        assertEquals(FETCHED_AT, seeded.fetchedAt());
+        restarted.close();
+    }
+
+    /**
+     * Tests that a torn record at the end of the file is cut off without losing the records before it.
+     */
+    @Test
+    void testTornRecordIsCutOff() throws IOException {
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT));
+        store.close();
+        final Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        final long size = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        final SnapshotStore restarted = start(new ConcurrentMapCacheManager());
+
+        assertNotNull(restarted.get(POST_KEY));
+        assertEquals(size, Files.size(file));
+        restarted.close();
+    }
+
+    /**
+     * Tests that the log is rewritten with the latest record of each call once it has grown.
+     */
+    @Test
+    void testLogIsCompacted() throws IOException {
+        final Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        long singleRecord = 0;
+        // One record per flush, until there are more than twice as many records as calls plus the slack of 100
+        for (int i = 0; i < 103; i++) {
+            store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, String.format("Title %03d", i), "Body"), FETCHED_AT + i));
+            store.flush();
+            if (i == 0) {
+                singleRecord = Files.size(file);
+            }
+        }
+
+        assertEquals(singleRecord, Files.size(file));
+        store.close();
+        final SnapshotStore restarted = start(new ConcurrentMapCacheManager());
+        assertEquals("Title 102", restarted.<AuditionPost>get(POST_KEY).getTitle());
+        restarted.close();
+    }
+
+    /**
+     * Tests that a value whose content is unchanged is not appended again.
+     */
+    @Test
+    void testUnchangedValueIsNotAppended() throws IOException {
+        final Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT));
+        store.flush();
+        final long size = Files.size(file);
+
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT + 1));
+        store.flush();
+        assertEquals(size, Files.size(file));
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "New title", "Body"), FETCHED_AT + 2));
+        store.flush();
+
+        assertTrue(Files.size(file) > size);
+        store.close();
+    }
+
+    /**
+     * Tests that a second instance does not write into a snapshot directory already in use.
+     */
+    @Test
+    void testDirectoryInUseIsNotShared() throws IOException {
+        final Path file = directory.resolve(SnapshotStore.FILE_NAME);
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT));
+        store.flush();
+        final long size = Files.size(file);
+
+        final SnapshotStore other = start(new ConcurrentMapCacheManager());
+        other.record(COMMENTS_KEY, new LastKnownGood(List.of(comment(1, "First")), FETCHED_AT));
+        other.close();
+
+        assertNull(other.<AuditionPost>get(POST_KEY));
+        assertEquals(size, Files.size(file));
+        store.close();
+    }
+
+    /**
+     * Tests that a disabled store neither writes nor keeps values.
+     */
+    @Test
+    void testDisabledStoreWritesNothing() {
+        properties.setEnabled(false);
+        final SnapshotStore store = start(new ConcurrentMapCacheManager());
+        store.record(POST_KEY, new LastKnownGood(new AuditionPost(1, 1, "Title", "Body"), FETCHED_AT));
+        store.close();
+
+        assertNull(store.get(POST_KEY));
+        assertFalse(Files.exists(directory.resolve(SnapshotStore.FILE_NAME)));
+    }
+}
@@ -0,0 +1,165 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.CacheConfiguration;
+import com.audition.configuration.StaleProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Test class for StaleWhileRevalidate.
+ *
+ * @author Nadeem Shaikh
+ */
+class StaleWhileRevalidateTest {
+
+    private static final String ENDPOINT = "getPostById";
+    private static final String KEY = "getPostById:1";
+    private static final String STALE = "stale";
+    private static final String FRESH = "fresh";
+
+    private transient StaleProperties properties;
+    private transient Cache lastKnownGood;
+    private transient List<Object> events;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient MockHttpServletRequest request;
+    private transient StaleWhileRevalidate staleWhileRevalidate;
+
+    /**
+     * Sets up an enabled stale serving layer refreshing on the calling thread, within a request.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new StaleProperties();
+        properties.setEnabled(true);
+        properties.setMaxAge(Duration.ofSeconds(10));
+        properties.setWhileRevalidate(Duration.ofMinutes(5));
+        final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.LAST_KNOWN_GOOD_CACHE);
+        lastKnownGood = cacheManager.getCache(CacheConfiguration.LAST_KNOWN_GOOD_CACHE);
+        events = new ArrayList<>();
+        meterRegistry = new SimpleMeterRegistry();
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        staleWhileRevalidate = new StaleWhileRevalidate(properties, cacheManager, Runnable::run, events::add,
+            meterRegistry, new AuditionLogger());
+    }
+
+    /**
+     * Clears the request bound in set up.
+     */
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static LastKnownGood staleValue() {
+        return new LastKnownGood(STALE, System.currentTimeMillis() - 30_000);
+    }
+
+    /**
+     * Tests that a recent value is served, marked and refreshed in the background.
+     */
+    @Test
+    void testRecentValueIsServedAndRefreshed() {
+        lastKnownGood.put(KEY, staleValue());
+
+        final String result = staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> FRESH);
+
+        assertSame(STALE, result);
+        assertEquals(List.of(new UpstreamRefreshedEvent(ENDPOINT, "1", FRESH)), events);
+        assertEquals("while-revalidate; age=30", request.getAttribute(StaleWhileRevalidate.STALE_ATTRIBUTE));
+        assertEquals(1.0, meterRegistry.get("audition.upstream.stale").tag("reason", "while-revalidate").counter().count());
+    }
+
+    /**
+     * Tests that a value older than the window is not served and the call runs instead.
+     */
+    @Test
+    void testOldValueIsNotServed() {
+        lastKnownGood.put(KEY, new LastKnownGood(STALE, System.currentTimeMillis() - Duration.ofMinutes(6).toMillis()));
+
+        assertSame(FRESH, staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> FRESH));
+        assertNull(request.getAttribute(StaleWhileRevalidate.STALE_ATTRIBUTE));
+    }
+
+    /**
+     * Tests that a value younger than the max age is fresh: the call runs and nothing is refreshed or marked stale.
+     */
+    @Test
+    void testFreshValueBypassesStaleServing() {
+        lastKnownGood.put(KEY, LastKnownGood.of(STALE));
+
+        assertSame(FRESH, staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> FRESH));
+        assertSame(FRESH, staleWhileRevalidate.executeAsync(ENDPOINT, "1", KEY,
+            () -> CompletableFuture.completedFuture(FRESH)).join());
+        assertEquals(List.of(), events);
+        assertNull(request.getAttribute(StaleWhileRevalidate.STALE_ATTRIBUTE));
+    }
+
+    /**
+     * Tests that the call runs when stale serving is disabled.
+     */
+    @Test
+    void testDisabled() {
+        properties.setEnabled(false);
+        lastKnownGood.put(KEY, LastKnownGood.of(STALE));
+
+        assertSame(FRESH, staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> FRESH));
+    }
+
+    /**
+     * Tests that a failed background refresh publishes nothing and does not block later refreshes.
+     */
+    @Test
+    void testFailedRefreshIsRetriedOnNextRead() {
+        lastKnownGood.put(KEY, staleValue());
+        final AtomicInteger refreshes = new AtomicInteger();
+
+        staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> {
+            refreshes.incrementAndGet();
+            throw new IllegalStateException("upstream down");
+        });
+        staleWhileRevalidate.execute(ENDPOINT, "1", KEY, () -> {
+            refreshes.incrementAndGet();
+            return FRESH;
+        });
+
+        assertEquals(2, refreshes.get());
+        assertEquals(List.of(new UpstreamRefreshedEvent(ENDPOINT, "1", FRESH)), events);
+    }
+
+    /**
+     * Tests that an asynchronous read is answered with a recent value at once and refreshed by the call itself.
+     */
+    @Test
+    void testRecentValueIsServedAndRefreshedAsync() {
+        lastKnownGood.put(KEY, staleValue());
+        final CompletableFuture<Object> refresh = new CompletableFuture<>();
+
+        final CompletableFuture<Object> result = staleWhileRevalidate.executeAsync(ENDPOINT, "1", KEY, () -> refresh);
+        final CompletableFuture<Object> second = staleWhileRevalidate.executeAsync(ENDPOINT, "1", KEY,
+            () -> CompletableFuture.completedFuture(FRESH));
+
+        assertSame(STALE, result.join());
+        assertSame(STALE, second.join());
+        assertEquals(List.of(), events);
+        refresh.complete(FRESH);
+        assertEquals(List.of(new UpstreamRefreshedEvent(ENDPOINT, "1", FRESH)), events);
+    }
+}
@@ -0,0 +1,130 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.UpstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for UpstreamEndpoints.
+ *
+ * @author Nadeem Shaikh
+ */
+class UpstreamEndpointsTest {
+
+    private static final String FIRST = "http://first";
+    private static final String SECOND = "http://second";
+
+    private transient UpstreamProperties properties;
+
+    /**
+     * Sets up two endpoints that are ejected after two consecutive failures.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new UpstreamProperties();
+        properties.setBaseUrls(List.of(FIRST, SECOND + "/"));
+        properties.getEjection().setConsecutiveFailures(2);
+        properties.getEjection().setDuration(Duration.ofMinutes(1));
+    }
+
+    private UpstreamEndpoints endpoints() {
+        return new UpstreamEndpoints(properties, new SimpleMeterRegistry(), new AuditionLogger());
+    }
+
+    /**
+     * Tests that a single base URL is used when no replicas are configured.
+     */
+    @Test
+    void testDefaultsToBaseUrl() {
+        properties.setBaseUrls(List.of());
+        properties.setBaseUrl("http://only");
+        assertEquals("http://only", endpoints().execute(baseUrl -> baseUrl));
+    }
+
+    /**
+     * Tests that round robin alternates between endpoints and strips trailing slashes.
+     */
+    @Test
+    void testRoundRobin() {
+        final UpstreamEndpoints endpoints = endpoints();
+        assertEquals(FIRST, endpoints.execute(baseUrl -> baseUrl));
+        assertEquals(SECOND, endpoints.execute(baseUrl -> baseUrl));
+        assertEquals(FIRST, endpoints.execute(baseUrl -> baseUrl));
+    }
+
+    /**
+     * Tests that least outstanding requests avoids the endpoint with a call in flight.
+     */
+    @Test
+    void testLeastOutstandingRequests() {
+        properties.setLoadBalancing(UpstreamProperties.LoadBalancing.LEAST_OUTSTANDING_REQUESTS);
+        final UpstreamEndpoints endpoints = endpoints();
+
+        final String nested = endpoints.execute(outer -> outer + " " + endpoints.execute(inner -> inner));
+
+        assertEquals(FIRST + " " + SECOND, nested);
+    }
+
+    /**
+     * Tests that an endpoint is ejected after consecutive server errors and others take its calls.
+     */
+    @Test
+    void testEjectsFailingEndpoint() {
+        final UpstreamEndpoints endpoints = endpoints();
+        // Calls alternate, so the first endpoint fails on calls one and three
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> endpoints.execute(baseUrl -> {
+                if (FIRST.equals(baseUrl)) {
+                    throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+                }
+                throw new SystemException("Not found", 404);
+            }));
+        }
+
+        assertEquals(List.of(SECOND), endpoints.healthyEndpoints());
+        assertEquals(SECOND, endpoints.execute(baseUrl -> baseUrl));
+        assertEquals(SECOND, endpoints.execute(baseUrl -> baseUrl));
+    }
+
+    /**
+     * Tests that client errors, answered through SystemException, do not count against an endpoint.
+     */
+    @Test
+    void testSystemExceptionDoesNotEject() {
+        final UpstreamEndpoints endpoints = endpoints();
+        for (int i = 0; i < 6; i++) {
+            assertThrows(SystemException.class, () -> endpoints.execute(baseUrl -> {
+                throw new SystemException("Not found", 404);
+            }));
+        }
+        assertEquals(List.of(FIRST, SECOND), endpoints.healthyEndpoints());
+    }
+
+    /**
+     * Tests that a reactive call selects its endpoint on each subscription and ejects a failing endpoint.
+     */
+    @Test
+    void testReactiveCallsAreBalancedAndEjectFailingEndpoint() {
+        final UpstreamEndpoints endpoints = endpoints();
+        final Mono<String> call = endpoints.executeReactive(baseUrl -> FIRST.equals(baseUrl)
+            ? Mono.<String>error(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)) : Mono.just(baseUrl));
+
+        assertThrows(HttpServerErrorException.class, call::block);
+        assertEquals(SECOND, call.block());
+        assertThrows(HttpServerErrorException.class, call::block);
+
+        assertEquals(List.of(SECOND), endpoints.healthyEndpoints());
+        assertEquals(SECOND, call.block());
+    }
+}
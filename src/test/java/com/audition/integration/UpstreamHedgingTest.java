@@ -0,0 +1,182 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.concurrent.RequestAbort;
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.HedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for UpstreamHedging.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+class UpstreamHedgingTest {
+
+    private static final String ENDPOINT = "getPostById";
+    private static final String SENT = "audition.upstream.hedge.sent";
+    private static final String WON = "audition.upstream.hedge.won";
+
+    private transient ExecutorService executor;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient HedgingProperties properties;
+
+    /**
+     * Sets up hedging after 20 ms on a real executor.
+     */
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(20));
+    }
+
+    /**
+     * Shuts the executor down.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private UpstreamHedging hedging() {
+        return new UpstreamHedging(properties, executor, meterRegistry);
+    }
+
+    /**
+     * Odd invocations are slow, even ones answer at once, so a hedge always beats its primary.
+     */
+    private static Supplier<String> slowThenFast(final AtomicInteger invocations) {
+        return () -> {
+            final int invocation = invocations.incrementAndGet();
+            if (invocation % 2 == 1) {
+                try {
+                    Thread.sleep(300);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "primary";
+            }
+            return "hedge";
+        };
+    }
+
+    /**
+     * Tests that a call is run once, on the calling thread, while hedging is disabled.
+     */
+    @Test
+    void testDisabledRunsCallDirectly() {
+        properties.setEnabled(false);
+        final Thread caller = Thread.currentThread();
+        assertEquals(Boolean.TRUE, hedging().execute(ENDPOINT, () -> Thread.currentThread() == caller));
+    }
+
+    /**
+     * Tests that a slow call is hedged, the faster hedge is used and both are counted.
+     */
+    @Test
+    void testSlowCallIsHedged() {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        assertEquals("hedge", hedging().execute(ENDPOINT, slowThenFast(invocations)));
+        assertEquals(2, invocations.get());
+        assertEquals(1.0, meterRegistry.counter(SENT, "endpoint", ENDPOINT).count());
+        assertEquals(1.0, meterRegistry.counter(WON, "endpoint", ENDPOINT).count());
+    }
+
+    /**
+     * Tests that endpoints outside the configured list are never hedged.
+     */
+    @Test
+    void testUnlistedEndpointIsNotHedged() {
+        final AtomicInteger invocations = new AtomicInteger();
+
+        assertEquals("primary", hedging().execute("getPosts", slowThenFast(invocations)));
+        assertEquals(1, invocations.get());
+    }
+
+    /**
+     * Tests that hedges stop once the budget is spent.
+     */
+    @Test
+    void testHedgesAreCappedByBudget() {
+        properties.setMaxHedgeRatio(0);
+        final UpstreamHedging hedging = hedging();
+        final AtomicInteger invocations = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("hedge", hedging.execute(ENDPOINT, slowThenFast(invocations)));
+        }
+
+        assertEquals("primary", hedging.execute(ENDPOINT, slowThenFast(invocations)));
+        assertEquals(10.0, meterRegistry.counter(SENT, "endpoint", ENDPOINT).count());
+        assertEquals(1.0, meterRegistry.counter("audition.upstream.hedge.throttled", "endpoint", ENDPOINT).count());
+    }
+
+    /**
+     * Tests that a 4xx answer is returned at once without hedging.
+     */
+    @Test
+    void testSystemExceptionIsFinal() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final UpstreamHedging hedging = hedging();
+
+        final SystemException exception = assertThrows(SystemException.class, () -> hedging.execute(ENDPOINT, () -> {
+            invocations.incrementAndGet();
+            throw new SystemException("Cannot find a Post with id 1", 404);
+        }));
+        assertEquals(404, exception.getStatusCode());
+        assertEquals(1, invocations.get());
+    }
+
+    /**
+     * Tests that the first attempt runs on the calling thread.
+     */
+    @Test
+    void testFirstAttemptRunsOnCallingThread() {
+        final Thread caller = Thread.currentThread();
+        assertEquals(Boolean.TRUE, hedging().execute(ENDPOINT, () -> Thread.currentThread() == caller));
+    }
+
+    /**
+     * Tests that the losing attempt is aborted through its request handle as soon as the hedge wins.
+     */
+    @Test
+    void testLosingAttemptIsAborted() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final CountDownLatch aborted = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        final String result = hedging().execute(ENDPOINT, () -> {
+            if (invocations.incrementAndGet() > 1) {
+                return "hedge";
+            }
+            RequestAbort.onAbort(aborted::countDown);
+            try {
+                assertTrue(aborted.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("aborted");
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(0, aborted.getCount());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+}
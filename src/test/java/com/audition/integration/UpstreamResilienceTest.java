@@ -0,0 +1,218 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.CacheConfiguration;
+import com.audition.configuration.SnapshotProperties;
+import com.audition.configuration.StaleProperties;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for UpstreamResilience.
+ * This class contains unit tests for the circuit breaker, bulkhead, retry and last known good fallback.
+ *
+ * @author Nadeem Shaikh
+ */
+@SuppressWarnings("PMD.ExcessiveImports")
+class UpstreamResilienceTest {
+
+    private static final String ENDPOINT = "getPostById";
+    private static final String KEY = "getPostById:1";
+    private static final String RESULT = "post";
+
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient CircuitBreakerRegistry circuitBreakerRegistry;
+    private transient BulkheadRegistry bulkheadRegistry;
+    private transient ConcurrentMapCacheManager cacheManager;
+    private transient StaleProperties staleProperties;
+    private transient UpstreamResilience resilience;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.LAST_KNOWN_GOOD_CACHE);
+        staleProperties = new StaleProperties();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .recordExceptions(HttpServerErrorException.class)
+            .build());
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        final RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(1))
+            .retryExceptions(HttpServerErrorException.class)
+            .build());
+        resilience = createResilience(retryRegistry, true);
+    }
+
+    private UpstreamResilience createResilience(final RetryRegistry retryRegistry, final boolean fallbackEnabled) {
+        return new UpstreamResilience(circuitBreakerRegistry, bulkheadRegistry, retryRegistry,
+            cacheManager, meterRegistry, new AuditionLogger(), fallbackEnabled, staleProperties,
+            new SnapshotStore(new SnapshotProperties(), cacheManager, meterRegistry, new AuditionLogger()));
+    }
+
+    /**
+     * Tests that server errors are retried until the call succeeds.
+     */
+    @Test
+    void testServerErrorsAreRetried() {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = resilience.execute(ENDPOINT, KEY, () -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            return RESULT;
+        });
+
+        assertEquals(RESULT, result);
+        assertEquals(2, attempts.get());
+    }
+
+    /**
+     * Tests that client errors are neither retried nor answered with a fallback.
+     */
+    @Test
+    void testSystemExceptionIsNotRetried() {
+        final AtomicInteger attempts = new AtomicInteger();
+        resilience.execute(ENDPOINT, KEY, () -> RESULT);
+
+        assertThrows(SystemException.class, () -> resilience.execute(ENDPOINT, KEY, () -> {
+            attempts.incrementAndGet();
+            throw new SystemException("Cannot find a Post with id 1", 404);
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    /**
+     * Tests that a failed call is answered with the last known good value.
+     */
+    @Test
+    void testFallbackToLastKnownGood() {
+        resilience.execute(ENDPOINT, KEY, () -> RESULT);
+
+        final String result = resilience.execute(ENDPOINT, KEY, () -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        assertSame(RESULT, result);
+        assertEquals(1.0, meterRegistry.get("audition.upstream.fallback").tag("endpoint", ENDPOINT).counter().count());
+        assertEquals(1.0, meterRegistry.get("audition.upstream.stale").tag("reason", StaleWhileRevalidate.IF_ERROR)
+            .counter().count());
+    }
+
+    /**
+     * Tests that a last known good value older than the stale-if-error limit is not served.
+     */
+    @Test
+    void testFallbackOlderThanStaleIfErrorLimitIsNotServed() {
+        staleProperties.setIfError(Duration.ofMinutes(10));
+        resilience = createResilience(RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()), true);
+        cacheManager.getCache(CacheConfiguration.LAST_KNOWN_GOOD_CACHE).put(KEY,
+            new LastKnownGood(RESULT, System.currentTimeMillis() - Duration.ofMinutes(11).toMillis()));
+
+        assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, KEY, () -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+    }
+
+    /**
+     * Tests that an open circuit breaker fails fast with a 503 when there is no fallback.
+     */
+    @Test
+    void testOpenCircuitBreakerFailsFast() {
+        resilience = createResilience(RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()), false);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, KEY, () -> {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }));
+        }
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> resilience.execute(ENDPOINT, KEY, attempts::incrementAndGet));
+
+        assertEquals(503, exception.getStatusCode());
+        assertTrue(exception.getCause() instanceof CallNotPermittedException);
+        assertEquals(0, attempts.get());
+    }
+
+    /**
+     * Tests that a full bulkhead rejects the call with a 503.
+     */
+    @Test
+    void testFullBulkheadRejectsCall() {
+        bulkheadRegistry.bulkhead(ENDPOINT).acquirePermission();
+
+        final SystemException exception = assertThrows(SystemException.class,
+            () -> resilience.execute(ENDPOINT, KEY, () -> RESULT));
+
+        assertEquals(503, exception.getStatusCode());
+        assertEquals(UpstreamResilience.UPSTREAM_UNAVAILABLE, exception.getTitle());
+    }
+
+    /**
+     * Tests that a reactive call is retried by resubscribing and that its result becomes the fallback of a later
+     * failed reactive call.
+     */
+    @Test
+    void testReactiveCallIsRetriedAndFallsBack() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Mono<String> flaky = Mono.fromSupplier(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            return RESULT;
+        });
+
+        assertEquals(RESULT, resilience.executeReactive(ENDPOINT, KEY, flaky).block());
+        assertEquals(2, attempts.get());
+
+        final String fallback = resilience.executeReactive(ENDPOINT, KEY,
+            Mono.<String>error(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))).block();
+        assertEquals(RESULT, fallback);
+        assertEquals(1.0, meterRegistry.get("audition.upstream.fallback").tag("endpoint", ENDPOINT).counter().count());
+    }
+
+    /**
+     * Tests that a client error of a reactive call is signalled as is.
+     */
+    @Test
+    void testReactiveSystemExceptionIsNotRetried() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Mono<String> notFound = Mono.fromSupplier(() -> {
+            attempts.incrementAndGet();
+            throw new SystemException("Cannot find a Post with id 1", 404);
+        });
+
+        assertThrows(SystemException.class, () -> resilience.executeReactive(ENDPOINT, KEY, notFound).block());
+        assertEquals(1, attempts.get());
+    }
+}
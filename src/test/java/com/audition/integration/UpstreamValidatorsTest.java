@@ -0,0 +1,127 @@
+package com.audition.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.audition.configuration.CacheConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Test class for UpstreamValidators.
+ *
+ * @author Nadeem Shaikh
+ */
+class UpstreamValidatorsTest {
+
+    private static final String KEY = "getPostById:1";
+    private static final String ETAG = "\"v1\"";
+
+    private transient ConcurrentMapCacheManager cacheManager;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient UpstreamValidators validators;
+
+    /**
+     * Sets up the validator store over an in-memory cache.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.VALIDATED_RESPONSES_CACHE);
+        validators = new UpstreamValidators(cacheManager, meterRegistry);
+    }
+
+    /**
+     * Tests that an unseen resource is requested unconditionally.
+     */
+    @Test
+    void testNoConditionalRequestWithoutValidators() {
+        assertNull(validators.conditionalRequest(KEY));
+        validators.resolve(KEY, ResponseEntity.ok("body"));
+        assertNull(validators.conditionalRequest(KEY));
+    }
+
+    /**
+     * Tests that the validators of a response are sent with the next request.
+     */
+    @Test
+    void testConditionalRequestCarriesValidators() {
+        validators.resolve(KEY, ResponseEntity.ok().eTag(ETAG).lastModified(1_000_000L).body("body"));
+
+        final HttpEntity<Void> request = validators.conditionalRequest(KEY);
+
+        assertEquals(List.of(ETAG), request.getHeaders().getIfNoneMatch());
+        assertEquals(1_000_000L, request.getHeaders().getIfModifiedSince());
+    }
+
+    /**
+     * Tests that a 304 is served from the kept body and counted.
+     */
+    @Test
+    void testNotModifiedServesKeptBody() {
+        final String body = "body";
+        validators.resolve(KEY, ResponseEntity.ok().eTag(ETAG).body(body));
+
+        final String revalidated = validators.resolve(KEY, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertSame(body, revalidated);
+        assertEquals(1.0, meterRegistry.counter("audition.upstream.not-modified").count());
+    }
+
+    /**
+     * Tests that a changed resource replaces the kept body and validators.
+     */
+    @Test
+    void testChangedResourceReplacesValidators() {
+        validators.resolve(KEY, ResponseEntity.ok().eTag(ETAG).body("old"));
+        validators.resolve(KEY, ResponseEntity.ok().eTag("\"v2\"").body("new"));
+
+        assertEquals(List.of("\"v2\""), validators.conditionalRequest(KEY).getHeaders().getIfNoneMatch());
+        assertEquals("new", validators.resolve(KEY, ResponseEntity.status(HttpStatus.NOT_MODIFIED).<String>build()));
+    }
+
+    /**
+     * Tests that a 304 whose kept body has been evicted is not resolved to a missing body.
+     */
+    @Test
+    void testNotModifiedAfterEvictionFails() {
+        validators.resolve(KEY, ResponseEntity.ok().eTag(ETAG).body("body"));
+        cacheManager.getCache(CacheConfiguration.VALIDATED_RESPONSES_CACHE).evict(KEY);
+
+        assertThrows(ResourceAccessException.class,
+            () -> validators.resolve(KEY, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+    }
+
+    /**
+     * Tests that a request answered 304 after its kept body was evicted is sent again without validators.
+     */
+    @Test
+    void testExchangeRepeatsUnconditionallyAfterEviction() {
+        validators.resolve(KEY, ResponseEntity.ok().eTag(ETAG).body("old"));
+        final List<HttpEntity<Void>> sent = new ArrayList<>();
+
+        final String body = validators.exchange(KEY, conditional -> {
+            sent.add(conditional);
+            if (conditional != null) {
+                cacheManager.getCache(CacheConfiguration.VALIDATED_RESPONSES_CACHE).evict(KEY);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag("\"v2\"").body("new");
+        });
+
+        assertEquals("new", body);
+        assertEquals(2, sent.size());
+        assertNull(sent.get(1));
+        assertEquals(List.of("\"v2\""), validators.conditionalRequest(KEY).getHeaders().getIfNoneMatch());
+    }
+}
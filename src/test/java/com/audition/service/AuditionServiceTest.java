@@ -1,18 +1,37 @@
 package com.audition.service;
 
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import com.audition.integration.AuditionClient;
 import com.audition.integration.AuditionIntegrationClient;
+import com.audition.integration.UpstreamRefreshedEvent;
 import com.audition.model.AuditionPost;
+import com.audition.model.BatchPostResult;
 import com.audition.model.Comment;
+import com.audition.model.PostWithComments;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.BatchProperties;
+import com.audition.configuration.CacheConfiguration;
+import com.audition.configuration.PrefetchProperties;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Test class for AuditionService.
@@ -20,6 +39,7 @@ import java.util.List;
  *
  * @author Nadeem Shaikh
  */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"})
 class AuditionServiceTest {
 
     private static final String POST_1_TITLE = "Title of post 1";
@@ -28,7 +48,22 @@ class AuditionServiceTest {
     private static final String POST_2_BODY = "Body of post 2";
 
     @Mock
-    private transient AuditionIntegrationClient auditionIntegrationClient;
+    private transient AuditionClient auditionIntegrationClient;
+
+    @Mock
+    private transient PostIndex postIndex;
+
+    @Mock
+    private transient CommentIndex commentIndex;
+
+    @Spy
+    private transient ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    @Spy
+    private transient BatchProperties batchProperties = new BatchProperties();
+
+    @Spy
+    private transient PostDemand postDemand = new PostDemand(new PrefetchProperties());
 
     @InjectMocks
     private transient AuditionService auditionService;
@@ -70,6 +105,21 @@ class AuditionServiceTest {
         assertEquals(POST_1_BODY, result.getBody());
     }
 
+    /**
+     * Tests that refreshing the comments of a post replaces the cached ones.
+     */
+    @Test
+    void testRefreshCommentsByPostId() {
+        final List<Comment> cached = List.of(new Comment(1, "Old"));
+        final List<Comment> refreshed = List.of(new Comment(1, "New"));
+        cacheManager.getCache(CacheConfiguration.COMMENTS_BY_POST_ID_CACHE).put("1", cached);
+        when(auditionIntegrationClient.getCommentsByPostId("1")).thenReturn(refreshed);
+
+        auditionService.refreshCommentsByPostId("1");
+
+        assertSame(refreshed, auditionService.getCommentsByPostId("1"));
+    }
+
     /**
      * Tests the getCommentsByPostId method of AuditionService.
      */
@@ -81,4 +131,251 @@ class AuditionServiceTest {
         assertEquals(2, result.size());
         assertEquals("Comment 1", result.get(0).getBody());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that comments are served from the comment index once it is loaded, without an upstream call.
+     */
+    @Test
+    void testGetCommentsByPostIdFromIndex() {
+        final Comment comment = new Comment(1, "Comment 1");
+        comment.setPostId(4);
+        when(commentIndex.isReady()).thenReturn(true);
+        when(commentIndex.getSnapshot()).thenReturn(CommentIndex.Snapshot.build(List.of(comment), 1, Instant.now()));
+
+        when(auditionIntegrationClient.getPostById("4")).thenReturn(new AuditionPost(1, 4, POST_1_TITLE, POST_1_BODY));
+
+        assertEquals(List.of(comment), auditionService.getCommentsByPostId("4"));
+        assertEquals(List.of(comment), auditionService.getPostWithComments("4").getComments());
+        verify(auditionIntegrationClient, never()).getCommentsByPostId(anyString());
+        verify(auditionIntegrationClient, never()).getCommentsByPostIdAsync(anyString());
+    }
+
+    /**
+     * Tests that repeated reads of the same post are served from the cache.
+     */
+    @Test
+    void testGetPostByIdIsCached() {
+        final AuditionPost post = new AuditionPost(1, 2, POST_1_TITLE, POST_1_BODY);
+        when(auditionIntegrationClient.getPostById("2")).thenReturn(post);
+
+        final AuditionPost first = auditionService.getPostById("2");
+        final AuditionPost second = auditionService.getPostById("2");
+
+        assertSame(first, second);
+        assertSame(post, cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE).get("2").get());
+        verify(auditionIntegrationClient, times(1)).getPostById("2");
+    }
+
+    /**
+     * Tests that repeated reads of the full post list are served from the cache.
+     */
+    @Test
+    void testGetPostsIsCached() {
+        when(auditionIntegrationClient.getPosts()).thenReturn(List.of(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY)));
+
+        auditionService.getPosts();
+        auditionService.getPosts();
+
+        verify(auditionIntegrationClient, times(1)).getPosts();
+    }
+
+    /**
+     * Tests that upstream failures are propagated unchanged and are not cached.
+     */
+    @Test
+    void testGetCommentsByPostIdPropagatesSystemException() {
+        when(auditionIntegrationClient.getCommentsByPostId("3")).thenThrow(new SystemException("Upstream down", 503));
+
+        final SystemException exception = assertThrows(SystemException.class, () -> auditionService.getCommentsByPostId("3"));
+        assertEquals(503, exception.getStatusCode());
+        assertThrows(SystemException.class, () -> auditionService.getCommentsByPostId("3"));
+        verify(auditionIntegrationClient, times(2)).getCommentsByPostId("3");
+    }
+
+    /**
+     * Tests that getPostsByUserId filters all posts while the post index is not loaded.
+     */
+    @Test
+    void testGetPostsByUserIdWithoutIndex() {
+        when(auditionIntegrationClient.getPosts()).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(2, 2, POST_2_TITLE, POST_2_BODY)
+        ));
+
+        final List<AuditionPost> result = auditionService.getPostsByUserId(2);
+
+        assertEquals(1, result.size());
+        assertEquals(POST_2_TITLE, result.get(0).getTitle());
+    }
+
+    /**
+     * Tests that getPostsByUserId is served from the post index once it is loaded.
+     */
+    @Test
+    void testGetPostsByUserIdFromIndex() {
+        final PostIndex.Snapshot snapshot = PostIndex.Snapshot.build(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(2, 2, POST_2_TITLE, POST_2_BODY)
+        ), 1);
+        when(postIndex.isReady()).thenReturn(true);
+        when(postIndex.getSnapshot()).thenReturn(snapshot);
+
+        final List<AuditionPost> result = auditionService.getPostsByUserId(1);
+
+        assertEquals(1, result.size());
+        assertEquals(POST_1_TITLE, result.get(0).getTitle());
+        verify(auditionIntegrationClient, times(0)).getPosts();
+    }
+
+    /**
+     * Tests that getPostWithComments embeds the comments of the post.
+     */
+    @Test
+    void testGetPostWithComments() {
+        when(auditionIntegrationClient.getPostById("1")).thenReturn(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY));
+        when(auditionIntegrationClient.getCommentsByPostIdAsync("1")).thenReturn(CompletableFuture.completedFuture(
+            Arrays.asList(new Comment(1, "Comment 1"), new Comment(2, "Comment 2"))));
+
+        final PostWithComments result = auditionService.getPostWithComments("1");
+
+        assertEquals(1, result.getId());
+        assertEquals(POST_1_TITLE, result.getTitle());
+        assertEquals(2, result.getComments().size());
+        assertEquals("Comment 2", result.getComments().get(1).getBody());
+    }
+
+    /**
+     * Tests that getPostWithComments requests the comments before reading the post and does not wait for them
+     * until the post has been read, so both reads are in flight together.
+     */
+    @Test
+    void testGetPostWithCommentsReadsConcurrently() {
+        final CompletableFuture<List<Comment>> comments = new CompletableFuture<>();
+        when(auditionIntegrationClient.getCommentsByPostIdAsync("4")).thenReturn(comments);
+        when(auditionIntegrationClient.getPostById("4")).thenAnswer(invocation -> {
+            verify(auditionIntegrationClient).getCommentsByPostIdAsync("4");
+            comments.complete(List.of(new Comment(1, "Comment 1")));
+            return new AuditionPost(1, 4, POST_1_TITLE, POST_1_BODY);
+        });
+
+        final PostWithComments result = auditionService.getPostWithComments("4");
+
+        assertEquals(4, result.getId());
+        assertEquals(1, result.getComments().size());
+        assertSame(comments.join(), cacheManager.getCache(CacheConfiguration.COMMENTS_BY_POST_ID_CACHE).get("4").get());
+    }
+
+    /**
+     * Tests that a failed comments read surfaces its SystemException unwrapped.
+     */
+    @Test
+    void testGetPostWithCommentsPropagatesSystemException() {
+        when(auditionIntegrationClient.getPostById("5")).thenReturn(new AuditionPost(1, 5, POST_1_TITLE, POST_1_BODY));
+        when(auditionIntegrationClient.getCommentsByPostIdAsync("5"))
+            .thenReturn(CompletableFuture.failedFuture(new SystemException("Upstream down", 503)));
+
+        final SystemException exception = assertThrows(SystemException.class, () -> auditionService.getPostWithComments("5"));
+        assertEquals(503, exception.getStatusCode());
+    }
+
+    /**
+     * Tests that getPostWithComments returns null when the post is not found.
+     */
+    @Test
+    void testGetPostWithCommentsMissingPost() {
+        when(auditionIntegrationClient.getCommentsByPostIdAsync("6")).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertNull(auditionService.getPostWithComments("6"));
+    }
+
+    /**
+     * Tests that a batch fetches cache misses one by one and reports per-id failures inline.
+     */
+    @Test
+    void testGetPostsByIdsFetchesMissesAndReportsErrorsInline() {
+        final AuditionPost cached = new AuditionPost(1, 7, POST_1_TITLE, POST_1_BODY);
+        cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE).put("7", cached);
+        when(auditionIntegrationClient.getPostByIdAsync("8"))
+            .thenReturn(CompletableFuture.completedFuture(new AuditionPost(1, 8, POST_2_TITLE, POST_2_BODY)));
+        when(auditionIntegrationClient.getPostByIdAsync("9"))
+            .thenReturn(CompletableFuture.failedFuture(new SystemException("Cannot find a Post with id 9", 404)));
+
+        final List<BatchPostResult> results = auditionService.getPostsByIds(List.of("7", "8", "9", "7"));
+
+        assertEquals(3, results.size());
+        assertSame(cached, results.get(0).getPost());
+        assertEquals(POST_2_TITLE, results.get(1).getPost().getTitle());
+        assertEquals(404, results.get(2).getStatus());
+        assertNull(results.get(2).getPost());
+        verify(auditionIntegrationClient, times(0)).getPostByIdAsync("7");
+        verify(auditionIntegrationClient, times(0)).getPosts();
+    }
+
+    /**
+     * Tests that a batch with many cache misses is resolved from the full post list in one upstream call.
+     */
+    @Test
+    void testGetPostsByIdsUsesPostListAboveThreshold() {
+        batchProperties.setSnapshotThreshold(2);
+        when(auditionIntegrationClient.getPosts()).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(2, 2, POST_2_TITLE, POST_2_BODY)
+        ));
+
+        final List<BatchPostResult> results = auditionService.getPostsByIds(List.of("2", "1", "3"));
+
+        assertEquals(POST_2_TITLE, results.get(0).getPost().getTitle());
+        assertEquals(POST_1_TITLE, results.get(1).getPost().getTitle());
+        assertEquals(404, results.get(2).getStatus());
+        assertNotNull(cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE).get("1"));
+        verify(auditionIntegrationClient, times(0)).getPostByIdAsync(anyString());
+    }
+
+    /**
+     * Tests that a batch is served from the post index once it is loaded.
+     */
+    @Test
+    void testGetPostsByIdsFromIndex() {
+        final PostIndex.Snapshot snapshot = PostIndex.Snapshot.build(List.of(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY)), 1);
+        when(postIndex.isReady()).thenReturn(true);
+        when(postIndex.getSnapshot()).thenReturn(snapshot);
+
+        final List<BatchPostResult> results = auditionService.getPostsByIds(List.of("1", "abc"));
+
+        assertEquals(POST_1_TITLE, results.get(0).getPost().getTitle());
+        assertEquals(404, results.get(1).getStatus());
+        verify(auditionIntegrationClient, times(0)).getPostByIdAsync(anyString());
+    }
+
+    /**
+     * Tests that a value refreshed in the background replaces the cached stale value.
+     */
+    @Test
+    void testRefreshedValueReplacesCachedValue() {
+        final AuditionPost stale = new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY);
+        final AuditionPost fresh = new AuditionPost(1, 1, POST_2_TITLE, POST_2_BODY);
+        cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE).put("1", stale);
+
+        auditionService.onUpstreamRefreshed(new UpstreamRefreshedEvent(AuditionIntegrationClient.GET_POST_BY_ID, "1", fresh));
+
+        assertSame(fresh, auditionService.getPostById("1"));
+        verify(auditionIntegrationClient, times(0)).getPostById(anyString());
+    }
+
+    /**
+     * Tests that a miss is loaded outside the cache's lock and does not replace a value refreshed meanwhile.
+     */
+    @Test
+    void testValueRefreshedDuringLoadIsKept() {
+        final AuditionPost loaded = new AuditionPost(1, 3, POST_1_TITLE, POST_1_BODY);
+        final AuditionPost refreshed = new AuditionPost(1, 3, POST_2_TITLE, POST_2_BODY);
+        when(auditionIntegrationClient.getPostById("3")).thenAnswer(invocation -> {
+            auditionService.onUpstreamRefreshed(
+                new UpstreamRefreshedEvent(AuditionIntegrationClient.GET_POST_BY_ID, "3", refreshed));
+            return loaded;
+        });
+
+        assertSame(refreshed, auditionService.getPostById("3"));
+        assertSame(refreshed, cacheManager.getCache(CacheConfiguration.POST_BY_ID_CACHE).get("3").get());
+    }
+}
@@ -0,0 +1,166 @@
+package com.audition.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.integration.AuditionIntegrationClient;
+import com.audition.integration.ElementSink;
+import com.audition.integration.SnapshotStore;
+import com.audition.model.Comment;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test class for CommentIndex.
+ * This class contains unit tests for the background-refreshed comment index.
+ *
+ * @author Nadeem Shaikh
+ */
+class CommentIndexTest {
+
+    @Mock
+    private transient AuditionIntegrationClient auditionIntegrationClient;
+
+    @Mock
+    private transient SnapshotStore snapshotStore;
+
+    @Mock
+    private transient AuditionLogger logger;
+
+    @InjectMocks
+    private transient CommentIndex commentIndex;
+
+    private static Comment comment(final int id, final int postId) {
+        final Comment comment = new Comment(id, "Comment " + id);
+        comment.setPostId(postId);
+        return comment;
+    }
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(commentIndex, "enabled", true);
+        when(auditionIntegrationClient.getComments(any())).thenReturn(Arrays.asList(
+            comment(1, 1), comment(2, 2), comment(3, 1), comment(4, 3), comment(5, 2)
+        ));
+    }
+
+    /**
+     * Tests that the index is not ready before its first refresh.
+     */
+    @Test
+    void testNotReadyBeforeRefresh() {
+        assertFalse(commentIndex.isReady());
+        assertTrue(commentIndex.getSnapshot().getCommentsByPostId(1).isEmpty());
+    }
+
+    /**
+     * Tests that comments are grouped by post into shared lists, in upstream order within each post.
+     */
+    @Test
+    void testRefreshGroupsCommentsByPost() {
+        final CommentIndex.Snapshot snapshot = commentIndex.refresh();
+
+        assertTrue(commentIndex.isReady());
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(5, snapshot.getCommentCount());
+        assertEquals(3, snapshot.getPostCount());
+        final List<Comment> comments = snapshot.getCommentsByPostId(2);
+        assertEquals(Arrays.asList(2, 5), comments.stream().map(Comment::getId).toList());
+        assertSame(comments, snapshot.getCommentsByPostId(2));
+        assertTrue(snapshot.getCommentsByPostId(9).isEmpty());
+    }
+
+    /**
+     * Tests that comments fed in post order to the builder of the answering attempt are indexed without sorting.
+     */
+    @Test
+    void testRefreshFromStreamedAttempt() {
+        when(auditionIntegrationClient.getComments(any())).thenAnswer(invocation -> {
+            final Supplier<ElementSink<Comment>> sinks = invocation.getArgument(0);
+            final ElementSink<Comment> sink = sinks.get();
+            sink.accept(comment(1, 1));
+            sink.accept(comment(2, 1));
+            sink.accept(comment(3, 4));
+            return sink.elements();
+        });
+
+        final CommentIndex.Snapshot snapshot = commentIndex.refresh();
+
+        assertEquals(3, snapshot.getCommentCount());
+        assertEquals(2, snapshot.getPostCount());
+        assertEquals(Arrays.asList(1, 2), snapshot.getCommentsByPostId(1).stream().map(Comment::getId).toList());
+        assertEquals(1, snapshot.getCommentsByPostId(4).size());
+    }
+
+    /**
+     * Tests that the comment lists of a snapshot cannot be modified.
+     */
+    @Test
+    void testCommentListsAreUnmodifiable() {
+        final List<Comment> comments = commentIndex.refresh().getCommentsByPostId(1);
+        assertThrows(UnsupportedOperationException.class, () -> comments.add(comment(6, 1)));
+    }
+
+    /**
+     * Tests that a failed scheduled refresh keeps serving the previous snapshot.
+     */
+    @Test
+    void testScheduledRefreshKeepsSnapshotOnFailure() {
+        commentIndex.scheduledRefresh();
+        final CommentIndex.Snapshot loaded = commentIndex.getSnapshot();
+        when(auditionIntegrationClient.getComments(any())).thenThrow(new SystemException("Upstream down", 503));
+
+        commentIndex.scheduledRefresh();
+
+        assertSame(loaded, commentIndex.getSnapshot());
+        verify(logger).logErrorWithException(any(), anyString(), any(SystemException.class));
+    }
+
+    /**
+     * Tests that the scheduled refresh does nothing while the index is disabled.
+     */
+    @Test
+    void testScheduledRefreshDisabled() {
+        ReflectionTestUtils.setField(commentIndex, "enabled", false);
+        commentIndex.scheduledRefresh();
+        assertFalse(commentIndex.isReady());
+    }
+
+    /**
+     * Tests that the index starts from the comments of the local snapshot, with their original fetch time.
+     */
+    @Test
+    void testRestoreFromSnapshotStore() {
+        final Instant fetchedAt = Instant.parse("2024-01-01T00:00:00Z");
+        when(snapshotStore.get(AuditionIntegrationClient.GET_COMMENTS)).thenReturn(List.of(comment(1, 7)));
+        when(snapshotStore.getFetchedAt(AuditionIntegrationClient.GET_COMMENTS)).thenReturn(fetchedAt);
+
+        commentIndex.restore();
+
+        assertTrue(commentIndex.isReady());
+        assertEquals(1, commentIndex.getSnapshot().getCommentsByPostId(7).size());
+        assertEquals(fetchedAt, commentIndex.getSnapshot().getRefreshedAt());
+        assertEquals(2, commentIndex.refresh().getVersion());
+    }
+}
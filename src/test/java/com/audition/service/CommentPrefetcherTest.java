@@ -0,0 +1,157 @@
+package com.audition.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.PrefetchProperties;
+import com.audition.model.AuditionPost;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CommentPrefetcher.
+ * This class contains unit tests for the selection, execution and completion of prefetch passes.
+ *
+ * @author Nadeem Shaikh
+ */
+class CommentPrefetcherTest {
+
+    private transient AuditionService auditionService;
+    private transient PostDemand postDemand;
+    private transient CommentIndex commentIndex;
+    private transient PostIndex postIndex;
+    private transient PrefetchProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Sets up demand for posts 1 and 2, with 2 the most requested.
+     */
+    @BeforeEach
+    void setUp() {
+        auditionService = mock(AuditionService.class);
+        commentIndex = mock(CommentIndex.class);
+        postIndex = mock(PostIndex.class);
+        properties = new PrefetchProperties();
+        properties.setTopPosts(1);
+        postDemand = new PostDemand(properties);
+        postDemand.record("1");
+        postDemand.record("2");
+        postDemand.record("2");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Tests that a pass refreshes the comments of the most requested posts and completes the first pass.
+     */
+    @Test
+    void testPrefetchRefreshesMostRequestedPosts() {
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, postDemand, commentIndex, postIndex, properties,
+            Runnable::run, meterRegistry, new AuditionLogger());
+        assertFalse(prefetcher.isFirstPassComplete());
+
+        prefetcher.prefetch();
+
+        verify(auditionService).refreshCommentsByPostId("2");
+        verify(auditionService, never()).refreshCommentsByPostId("1");
+        assertTrue(prefetcher.isFirstPassComplete());
+        assertEquals(1.0, meterRegistry.get("audition.prefetch.comments").tag("result", "success").counter().count());
+    }
+
+    /**
+     * Tests that a failed fetch is counted and still completes the pass.
+     */
+    @Test
+    void testFailedFetchCompletesPass() {
+        doThrow(new SystemException("Upstream down", 503)).when(auditionService).refreshCommentsByPostId(anyString());
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, postDemand, commentIndex, postIndex, properties,
+            Runnable::run, meterRegistry, new AuditionLogger());
+
+        prefetcher.prefetch();
+
+        assertTrue(prefetcher.isFirstPassComplete());
+        assertEquals(1.0, meterRegistry.get("audition.prefetch.comments").tag("result", "failure").counter().count());
+    }
+
+    /**
+     * Tests that a pass does not start while the previous one is still running.
+     */
+    @Test
+    void testPassesDoNotOverlap() {
+        final List<Runnable> queued = new ArrayList<>();
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, postDemand, commentIndex, postIndex, properties,
+            queued::add, meterRegistry, new AuditionLogger());
+
+        prefetcher.prefetch();
+        prefetcher.prefetch();
+
+        assertEquals(1, queued.size());
+        assertFalse(prefetcher.isFirstPassComplete());
+        queued.get(0).run();
+        assertTrue(prefetcher.isFirstPassComplete());
+    }
+
+    /**
+     * Tests that a disabled prefetcher fetches nothing and does not hold back the warm-up.
+     */
+    @Test
+    void testDisabled() {
+        properties.setEnabled(false);
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, postDemand, commentIndex, postIndex, properties,
+            Runnable::run, meterRegistry, new AuditionLogger());
+
+        prefetcher.prefetch();
+
+        verify(auditionService, never()).refreshCommentsByPostId(anyString());
+        assertTrue(prefetcher.isFirstPassComplete());
+    }
+
+    /**
+     * Tests that nothing is fetched once the comment index serves every comment thread.
+     */
+    @Test
+    void testNothingFetchedOnceCommentsAreIndexed() {
+        when(commentIndex.isReady()).thenReturn(true);
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, postDemand, commentIndex, postIndex, properties,
+            Runnable::run, meterRegistry, new AuditionLogger());
+
+        prefetcher.prefetch();
+
+        verify(auditionService, never()).refreshCommentsByPostId(anyString());
+        assertTrue(prefetcher.isFirstPassComplete());
+    }
+
+    /**
+     * Tests that without demand the first pass takes the first posts of the post index, and waits for the index.
+     */
+    @Test
+    void testFirstPassWithoutDemandTakesIndexedPosts() {
+        final CommentPrefetcher prefetcher = new CommentPrefetcher(auditionService, new PostDemand(properties), commentIndex,
+            postIndex, properties, Runnable::run, meterRegistry, new AuditionLogger());
+        when(postIndex.isEnabled()).thenReturn(true);
+
+        prefetcher.prefetch();
+
+        assertFalse(prefetcher.isFirstPassComplete());
+        when(postIndex.isReady()).thenReturn(true);
+        when(postIndex.getSnapshot()).thenReturn(PostIndex.Snapshot.build(List.of(
+            new AuditionPost(1, 7, "Post 7", "Body 7"), new AuditionPost(1, 8, "Post 8", "Body 8")), 1));
+
+        prefetcher.prefetch();
+
+        verify(auditionService).refreshCommentsByPostId("7");
+        verify(auditionService, never()).refreshCommentsByPostId("8");
+        assertTrue(prefetcher.isFirstPassComplete());
+    }
+}
@@ -0,0 +1,43 @@
+package com.audition.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.configuration.PrefetchProperties;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PostDemand.
+ * This class contains unit tests for the selection of the most requested posts.
+ *
+ * @author Nadeem Shaikh
+ */
+class PostDemandTest {
+
+    /**
+     * Tests that the most requested posts come first and that ids which are not numbers are ignored.
+     */
+    @Test
+    void testTopReturnsMostRequestedFirst() {
+        final PostDemand demand = new PostDemand(new PrefetchProperties());
+        demand.record("1");
+        demand.record("2");
+        demand.record("2");
+        demand.record("3");
+        demand.record("3");
+        demand.record("3");
+        demand.record("abc");
+
+        assertEquals(List.of("3", "2"), demand.top(2));
+        assertEquals(3, demand.top(10).size());
+    }
+
+    /**
+     * Tests that nothing is returned before any post has been requested.
+     */
+    @Test
+    void testTopWithoutRequests() {
+        assertTrue(new PostDemand(new PrefetchProperties()).top(5).isEmpty());
+    }
+}
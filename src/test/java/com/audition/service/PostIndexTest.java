@@ -0,0 +1,178 @@
+package com.audition.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.audition.common.exception.SystemException;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.integration.AuditionIntegrationClient;
+import com.audition.integration.ElementSink;
+import com.audition.integration.SnapshotStore;
+import com.audition.model.AuditionPost;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test class for PostIndex.
+ * This class contains unit tests for the background-refreshed post index.
+ *
+ * @author Nadeem Shaikh
+ */
+class PostIndexTest {
+
+    @Mock
+    private transient AuditionIntegrationClient auditionIntegrationClient;
+
+    @Mock
+    private transient SnapshotStore snapshotStore;
+
+    @Mock
+    private transient AuditionLogger logger;
+
+    @InjectMocks
+    private transient PostIndex postIndex;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(postIndex, "enabled", true);
+        when(auditionIntegrationClient.getPosts(any())).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, "Post 1", "Body 1"),
+            new AuditionPost(2, 2, "Post 2", "Body 2"),
+            new AuditionPost(1, 3, "Post 3", "Body 3")
+        ));
+    }
+
+    /**
+     * Tests that the index is not ready before its first refresh.
+     */
+    @Test
+    void testNotReadyBeforeRefresh() {
+        assertFalse(postIndex.isReady());
+        assertTrue(postIndex.getSnapshot().getPosts().isEmpty());
+    }
+
+    /**
+     * Tests the lookups of a refreshed snapshot.
+     */
+    @Test
+    void testRefreshBuildsLookups() {
+        final PostIndex.Snapshot snapshot = postIndex.refresh();
+
+        assertTrue(postIndex.isReady());
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(3, snapshot.getPosts().size());
+        assertEquals(2, snapshot.getUserCount());
+        assertEquals("Post 2", snapshot.getPost(2).getTitle());
+        assertNull(snapshot.getPost(4));
+    }
+
+    /**
+     * Tests that posts grouped by user are shared, ordered lists.
+     */
+    @Test
+    void testRefreshGroupsPostsByUser() {
+        final PostIndex.Snapshot snapshot = postIndex.refresh();
+        final List<AuditionPost> userPosts = snapshot.getPostsByUserId(1);
+        assertEquals(Arrays.asList(1, 3), userPosts.stream().map(AuditionPost::getId).toList());
+        assertSame(userPosts, snapshot.getPostsByUserId(1));
+        assertTrue(snapshot.getPostsByUserId(9).isEmpty());
+    }
+
+    /**
+     * Tests that posts fed to the builder of the answering attempt are grouped by user as they arrive.
+     */
+    @Test
+    void testRefreshFromStreamedAttempt() {
+        when(auditionIntegrationClient.getPosts(any())).thenAnswer(invocation -> {
+            final Supplier<ElementSink<AuditionPost>> sinks = invocation.getArgument(0);
+            // A hedged attempt that lost the race
+            sinks.get().accept(new AuditionPost(9, 9, "Lost", "Body"));
+            final ElementSink<AuditionPost> sink = sinks.get();
+            sink.accept(new AuditionPost(1, 1, "Post 1", "Body 1"));
+            sink.accept(new AuditionPost(1, 2, "Post 2", "Body 2"));
+            sink.accept(new AuditionPost(2, 3, "Post 3", "Body 3"));
+            return sink.elements();
+        });
+
+        final PostIndex.Snapshot snapshot = postIndex.refresh();
+
+        assertEquals(3, snapshot.getPosts().size());
+        assertNull(snapshot.getPost(9));
+        assertEquals(Arrays.asList(1, 2), snapshot.getPostsByUserId(1).stream().map(AuditionPost::getId).toList());
+        assertEquals(2, snapshot.getUserCount());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getPostsByUserId(2).clear());
+    }
+
+    /**
+     * Tests that a failed scheduled refresh keeps serving the previous snapshot.
+     */
+    @Test
+    void testScheduledRefreshKeepsSnapshotOnFailure() {
+        postIndex.scheduledRefresh();
+        final PostIndex.Snapshot loaded = postIndex.getSnapshot();
+        when(auditionIntegrationClient.getPosts(any())).thenThrow(new SystemException("Upstream down", 503));
+
+        postIndex.scheduledRefresh();
+
+        assertSame(loaded, postIndex.getSnapshot());
+        verify(logger).logErrorWithException(any(), anyString(), any(SystemException.class));
+        assertThrows(SystemException.class, () -> postIndex.refresh());
+    }
+
+    /**
+     * Tests that the scheduled refresh does nothing while the index is disabled.
+     */
+    @Test
+    void testScheduledRefreshDisabled() {
+        ReflectionTestUtils.setField(postIndex, "enabled", false);
+        postIndex.scheduledRefresh();
+        assertFalse(postIndex.isReady());
+    }
+
+    /**
+     * Tests that the index starts from the posts of the local snapshot, with their original fetch time.
+     */
+    @Test
+    void testRestoreFromSnapshotStore() {
+        final Instant fetchedAt = Instant.parse("2024-01-01T00:00:00Z");
+        when(snapshotStore.get(AuditionIntegrationClient.GET_POSTS))
+            .thenReturn(List.of(new AuditionPost(1, 7, "Saved", "Body")));
+        when(snapshotStore.getFetchedAt(AuditionIntegrationClient.GET_POSTS)).thenReturn(fetchedAt);
+
+        postIndex.restore();
+
+        assertTrue(postIndex.isReady());
+        assertEquals("Saved", postIndex.getSnapshot().getPost(7).getTitle());
+        assertEquals(fetchedAt, postIndex.getSnapshot().getRefreshedAt());
+        assertEquals(2, postIndex.refresh().getVersion());
+    }
+
+    /**
+     * Tests that the index stays empty when the local snapshot holds no posts.
+     */
+    @Test
+    void testRestoreWithoutSnapshot() {
+        postIndex.restore();
+        assertFalse(postIndex.isReady());
+    }
+}
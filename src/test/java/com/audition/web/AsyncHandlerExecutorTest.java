@@ -0,0 +1,147 @@
+package com.audition.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.audition.common.exception.SystemException;
+import com.audition.configuration.AsyncProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Test class for AsyncHandlerExecutor.
+ *
+ * @author Nadeem Shaikh
+ */
+class AsyncHandlerExecutorTest {
+
+    private static final String ENDPOINT = "post";
+
+    private transient AsyncProperties properties;
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient MockHttpServletRequest request;
+
+    /**
+     * Sets up a short deadline for the endpoint, within a request.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new AsyncProperties();
+        properties.getDeadlines().put(ENDPOINT, Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    /**
+     * Clears the request bound in set up.
+     */
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * Tests that the work runs on the executor with the current request bound to it.
+     */
+    @Test
+    void testWorkRunsWithRequestBound() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final AsyncHandlerExecutor executor = new AsyncHandlerExecutor(tasks::add, properties, meterRegistry);
+
+        final CompletableFuture<String> response = executor.supply(ENDPOINT, () -> {
+            RequestContextHolder.currentRequestAttributes().setAttribute("marker", "set", 0);
+            return "ok";
+        });
+        RequestContextHolder.resetRequestAttributes();
+        tasks.get(0).run();
+
+        assertEquals("ok", response.join());
+        assertEquals("set", request.getAttribute("marker"));
+        assertNull(RequestContextHolder.getRequestAttributes());
+    }
+
+    /**
+     * Tests that work still queued when the deadline passes times out and is never started.
+     */
+    @Test
+    void testDeadlineTimesOutAndDropsQueuedWork() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicBoolean started = new AtomicBoolean();
+        final AsyncHandlerExecutor executor = new AsyncHandlerExecutor(tasks::add, properties, meterRegistry);
+
+        final CompletableFuture<String> response = executor.supply(ENDPOINT, () -> {
+            started.set(true);
+            return "late";
+        });
+
+        final CompletionException failure = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        tasks.get(0).run();
+        assertFalse(started.get());
+        assertEquals(1.0, meterRegistry.get("audition.request.timeouts").tag("endpoint", ENDPOINT).counter().count());
+    }
+
+    /**
+     * Tests that work still running when the deadline passes is interrupted and no longer writes to the request.
+     */
+    @Test
+    void testDeadlineInterruptsRunningWorkAndUnbindsRequest() throws InterruptedException {
+        final CountDownLatch finished = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final AsyncHandlerExecutor executor = new AsyncHandlerExecutor(task -> new Thread(task).start(), properties,
+            meterRegistry);
+
+        final CompletableFuture<String> response = executor.supply(ENDPOINT, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (final InterruptedException e) {
+                interrupted.set(true);
+            }
+            RequestContextHolder.currentRequestAttributes().setAttribute("marker", "late", 0);
+            finished.countDown();
+            return "late";
+        });
+
+        final CompletionException failure = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+        assertNull(request.getAttribute("marker"));
+    }
+
+    /**
+     * Tests that a full executor fails the request with a 503 SystemException.
+     */
+    @Test
+    void testFullExecutorRejectsWith503() {
+        final AsyncHandlerExecutor executor = new AsyncHandlerExecutor(task -> {
+            throw new RejectedExecutionException("full");
+        }, properties, meterRegistry);
+
+        final CompletionException failure = assertThrows(CompletionException.class,
+            () -> executor.supply(ENDPOINT, () -> "ok").join());
+
+        assertEquals(503, ((SystemException) failure.getCause()).getStatusCode());
+        assertEquals(1.0, meterRegistry.get("audition.request.rejected").tag("endpoint", ENDPOINT).counter().count());
+    }
+}
@@ -1,23 +1,44 @@
 package com.audition.web;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.mockito.Mockito.when;
+import com.audition.common.logging.AuditionLogger;
+import com.audition.configuration.AsyncProperties;
+import com.audition.configuration.BatchProperties;
+import com.audition.configuration.WebServiceConfiguration;
 import com.audition.model.AuditionPost;
+import com.audition.model.BatchPostResult;
 import com.audition.model.Comment;
+import com.audition.model.PostWithComments;
 import com.audition.service.AuditionService;
+import com.audition.web.advice.ExceptionControllerAdvice;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.server.ResponseStatusException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -31,6 +52,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
  *
  * @author Nadeem Shaikh
  */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.ExcessiveImports"})
 class AuditionControllerTest {
 
     private static final String POST_1_TITLE = "Title of post 1";
@@ -41,6 +63,22 @@ class AuditionControllerTest {
     @Mock
     private transient AuditionService auditionService;
 
+    @Spy
+    private transient BatchProperties batchProperties = new BatchProperties();
+
+    @Spy
+    private transient SerializedResponseCache serializedResponseCache = new SerializedResponseCache(
+        new WebServiceConfiguration().objectMapper(), new ConcurrentMapCacheManager(), false, DataSize.ofKilobytes(2),
+        new SimpleMeterRegistry());
+
+    @Spy
+    private transient AsyncHandlerExecutor asyncHandlerExecutor = new AsyncHandlerExecutor(Runnable::run,
+        new AsyncProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private transient StreamingListWriter streamingListWriter = new StreamingListWriter(
+        new WebServiceConfiguration().objectMapper(), 100);
+
     @InjectMocks
     private transient AuditionController auditionController;
 
@@ -52,7 +90,10 @@ class AuditionControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(auditionController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(auditionController)
+            .setMessageConverters(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(new WebServiceConfiguration().objectMapper()))
+            .build();
     }
 
     /**
@@ -64,7 +105,7 @@ class AuditionControllerTest {
             new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
             new AuditionPost(1, 2, POST_2_TITLE, POST_2_BODY)
         );
-        when(auditionService.getPosts()).thenReturn(posts);
+        when(auditionService.getPostsByUserId(1)).thenReturn(posts);
 
         mockMvc.perform(get("/posts").param("userId", "1"))
             .andExpect(status().isOk())
@@ -79,6 +120,143 @@ class AuditionControllerTest {
         assertEquals(POST_2_BODY, posts.get(1).getBody(), "Second post body should match");
     }
 
+    /**
+     * Tests that a conditional GET with the ETag of the previous response is answered with 304.
+     */
+    @Test
+    void testGetPostByIdAnswersConditionalGetWithNotModified() throws Exception {
+        final MockMvc etagMockMvc = MockMvcBuilders.standaloneSetup(auditionController)
+            .setMessageConverters(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(new WebServiceConfiguration().objectMapper()))
+            .addFilters(new ShallowEtagHeaderFilter())
+            .build();
+        when(auditionService.getPostById("1")).thenReturn(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY));
+
+        final String etag = etagMockMvc.perform(get("/posts/1"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        etagMockMvc.perform(get("/posts/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    /**
+     * Tests that a pre-encoded page bypasses the ETag filter and is still answered with 304 from its own ETag.
+     */
+    @Test
+    void testGetPostsAnswersConditionalGetWithCachedETag() throws Exception {
+        final MockMvc etagMockMvc = MockMvcBuilders.standaloneSetup(auditionController)
+            .setMessageConverters(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(new WebServiceConfiguration().objectMapper()))
+            .addFilters(new ShallowEtagHeaderFilter())
+            .build();
+        when(auditionService.getPosts()).thenReturn(List.of(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY)));
+
+        final String etag = etagMockMvc.perform(get("/posts"))
+            .andExpect(status().isOk())
+            .andExpect(request().attribute(ShallowEtagHeaderFilter.class.getName() + ".STREAMING", true))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        etagMockMvc.perform(get("/posts").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    /**
+     * Tests that getPosts returns every post when no user ID is given.
+     */
+    @Test
+    @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+    void testGetPostsWithoutUserId() throws Exception {
+        when(auditionService.getPosts()).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(2, 2, POST_2_TITLE, POST_2_BODY)
+        ));
+
+        mockMvc.perform(get("/posts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].userId").value(1))
+            .andExpect(jsonPath("$[1].userId").value(2));
+    }
+
+    /**
+     * Tests that the batch lookup returns one result per id, with failures inline.
+     */
+    @Test
+    @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+    void testGetPostsByIds() throws Exception {
+        when(auditionService.getPostsByIds(List.of("1", "2"))).thenReturn(Arrays.asList(
+            BatchPostResult.found("1", new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY)),
+            BatchPostResult.failed("2", 404, "Cannot find a Post with id 2")
+        ));
+
+        mockMvc.perform(get("/posts").param("ids", "1,2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].post.title").value(POST_1_TITLE))
+            .andExpect(jsonPath("$[1].status").value(404))
+            .andExpect(jsonPath("$[1].post").doesNotExist());
+    }
+
+    /**
+     * Tests that a batch larger than the configured limit is rejected.
+     */
+    @Test
+    void testGetPostsByIdsTooManyIdsThrowsBadRequest() {
+        batchProperties.setMaxIds(1);
+        assertThrows(ResponseStatusException.class, () -> auditionController.getPostsByIds(List.of("1", "2")));
+    }
+
+    /**
+     * Tests that getPosts pages the list and writes only the requested fields.
+     */
+    @Test
+    @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+    void testGetPostsPaginatedAndProjected() throws Exception {
+        when(auditionService.getPosts()).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(1, 2, POST_2_TITLE, POST_2_BODY),
+            new AuditionPost(2, 3, POST_2_TITLE, POST_2_BODY)
+        ));
+
+        mockMvc.perform(get("/posts").param("limit", "1").param("cursor", "1").param("fields", "id,title"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "2"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(2))
+            .andExpect(jsonPath("$[0].title").value(POST_2_TITLE))
+            .andExpect(jsonPath("$[0].body").doesNotExist())
+            .andExpect(jsonPath("$[0].userId").doesNotExist());
+    }
+
+    /**
+     * Tests that getCommentsByPostId writes only the requested fields and omits the cursor on the last page.
+     */
+    @Test
+    @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+    void testGetCommentsByPostIdProjected() throws Exception {
+        when(auditionService.getCommentsByPostId("1")).thenReturn(Arrays.asList(
+            new Comment(1, "Comment 1"),
+            new Comment(2, "Comment 2")
+        ));
+
+        mockMvc.perform(get("/posts/1/comments").param("limit", "5").param("fields", "id"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER))
+            .andExpect(jsonPath("$[1].id").value(2))
+            .andExpect(jsonPath("$[1].body").doesNotExist());
+    }
+
+    /**
+     * Tests that an unknown projected field is rejected.
+     */
+    @Test
+    void testGetPostsUnknownFieldThrowsBadRequest() {
+        assertThrows(ResponseStatusException.class, () -> auditionController.getPosts(null, null, null, "id,secret", null, null));
+    }
+
     /**
      * Tests the getPostById method of AuditionController.
      */
@@ -99,6 +277,108 @@ class AuditionControllerTest {
         assertEquals(POST_1_BODY, post.getBody(), "Post body should match");
     }
 
+    /**
+     * Tests that a client accepting any media type keeps the buffered JSON response.
+     */
+    @Test
+    void testGetPostsWithAnyAcceptIsJson() throws Exception {
+        when(auditionService.getPosts()).thenReturn(List.of(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY)));
+
+        mockMvc.perform(get("/posts").accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncNotStarted())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    /**
+     * Tests that a batch request by ID is not streamed as NDJSON.
+     */
+    @Test
+    void testStreamPostsByIdsIsNotAcceptable() throws Exception {
+        mockMvc.perform(get("/posts").param("ids", "1,2").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isNotAcceptable());
+    }
+
+    /**
+     * Tests that posts are streamed as NDJSON, one post per line, when the client accepts it.
+     */
+    @Test
+    void testStreamPostsAsNdjson() throws Exception {
+        when(auditionService.getPosts()).thenReturn(Arrays.asList(
+            new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            new AuditionPost(1, 2, POST_2_TITLE, POST_2_BODY)
+        ));
+
+        final MvcResult result = mockMvc.perform(get("/posts").param("fields", "id").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    /**
+     * Tests that the comments of a post are streamed as a chunked JSON array with stream=true.
+     */
+    @Test
+    void testStreamCommentsAsJsonArray() throws Exception {
+        when(auditionService.getCommentsByPostId("1")).thenReturn(Arrays.asList(
+            new Comment(1, "Comment 1"), new Comment(2, "Comment 2")));
+
+        final MvcResult result = mockMvc.perform(get("/posts/1/comments").param("stream", "true").param("limit", "1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "1"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].body").value("Comment 1"));
+    }
+
+    /**
+     * Tests that the asynchronous variant answers through an async dispatch.
+     */
+    @Test
+    void testGetPostAsync() throws Exception {
+        when(auditionService.getPostById("1")).thenReturn(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY));
+
+        final MvcResult result = mockMvc.perform(get("/async/posts/1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(POST_1_TITLE));
+    }
+
+    /**
+     * Tests that an asynchronous request that misses its deadline is answered with a 504 timeout ProblemDetail.
+     */
+    @Test
+    void testGetCommentsByPostIdAsyncDeadlineAnswersGatewayTimeout() throws Exception {
+        final AsyncProperties properties = new AsyncProperties();
+        properties.getDeadlines().put("comments", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(auditionController, "asyncHandlerExecutor",
+            new AsyncHandlerExecutor(task -> { }, properties, new SimpleMeterRegistry()));
+        final ExceptionControllerAdvice advice = new ExceptionControllerAdvice();
+        ReflectionTestUtils.setField(advice, "logger", new AuditionLogger());
+        final MockMvc adviceMockMvc = MockMvcBuilders.standaloneSetup(auditionController)
+            .setControllerAdvice(advice)
+            .build();
+
+        final MvcResult result = adviceMockMvc.perform(get("/async/posts/1/comments"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        adviceMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isGatewayTimeout())
+            .andExpect(jsonPath("$.title").value(ExceptionControllerAdvice.TIMEOUT_TITLE));
+    }
+
     /**
      * Tests the getCommentsByPostId method of AuditionController.
      */
@@ -121,6 +401,33 @@ class AuditionControllerTest {
         assertEquals("Comment 2", comments.get(1).getBody(), "Second comment body should match");
     }
 
+    /**
+     * Tests that include=comments serves the post with its comments embedded.
+     */
+    @Test
+    @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+    void testGetPostWithComments() throws Exception {
+        final PostWithComments post = new PostWithComments(new AuditionPost(1, 1, POST_1_TITLE, POST_1_BODY),
+            Arrays.asList(new Comment(1, "Comment 1"), new Comment(2, "Comment 2")));
+        when(auditionService.getPostWithComments("1")).thenReturn(post);
+
+        mockMvc.perform(get("/posts/1").param("include", "comments"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.title").value(POST_1_TITLE))
+            .andExpect(jsonPath("$.comments[1].body").value("Comment 2"));
+    }
+
+    /**
+     * Tests that getPostWithComments throws a NotFound exception when the post is null.
+     */
+    @Test
+    void testGetPostWithCommentsNullPostThrowsNotFound() {
+        when(auditionService.getPostWithComments("1")).thenReturn(null);
+        assertThrows(ResponseStatusException.class, () -> auditionController.getPostWithComments("1"));
+    }
+
     /**
      * Tests that getPosts throws a BadRequest exception when given a blank ID.
      */
@@ -143,6 +450,6 @@ class AuditionControllerTest {
      */
     @Test
     void testGetCommentsByPostIdBlankIdThrowsBadRequest() {
-        assertThrows(ResponseStatusException.class, () -> auditionController.getCommentsByPostId(""));
+        assertThrows(ResponseStatusException.class, () -> auditionController.getCommentsByPostId("", null, null, null, null, null));
     }
 }
\ No newline at end of file
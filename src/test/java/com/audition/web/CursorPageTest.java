@@ -0,0 +1,67 @@
+package com.audition.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Test class for CursorPage.
+ *
+ * @author Nadeem Shaikh
+ */
+class CursorPageTest {
+
+    private static final List<Integer> ITEMS = List.of(1, 2, 3, 4, 5);
+
+    /**
+     * Tests that following the next cursor walks the whole list.
+     */
+    @Test
+    void testSliceFollowsCursor() {
+        final CursorPage<Integer> first = CursorPage.slice(ITEMS, 2, null);
+        assertEquals(List.of(1, 2), first.items());
+
+        final CursorPage<Integer> second = CursorPage.slice(ITEMS, 2, first.nextCursor());
+        assertEquals(List.of(3, 4), second.items());
+
+        final CursorPage<Integer> last = CursorPage.slice(ITEMS, 2, second.nextCursor());
+        assertEquals(List.of(5), last.items());
+        assertNull(last.nextCursor());
+    }
+
+    /**
+     * Tests that without a limit the remaining list is returned as the last page.
+     */
+    @Test
+    void testSliceWithoutLimit() {
+        final CursorPage<Integer> page = CursorPage.slice(ITEMS, null, null);
+        assertEquals(ITEMS, page.items());
+        assertNull(page.nextCursor());
+    }
+
+    /**
+     * Tests that a cursor past the end yields an empty last page.
+     */
+    @Test
+    void testSlicePastEnd() {
+        final CursorPage<Integer> page = CursorPage.slice(ITEMS, 2, "10");
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    /**
+     * Tests that an invalid limit or cursor is rejected.
+     */
+    @Test
+    void testSliceRejectsInvalidInput() {
+        assertThrows(ResponseStatusException.class, () -> CursorPage.slice(ITEMS, 0, null));
+        assertThrows(ResponseStatusException.class, () -> CursorPage.slice(ITEMS, CursorPage.MAX_LIMIT + 1, null));
+        assertThrows(ResponseStatusException.class, () -> CursorPage.slice(ITEMS, 2, "abc"));
+        assertThrows(ResponseStatusException.class, () -> CursorPage.slice(ITEMS, 2, "-1"));
+    }
+}
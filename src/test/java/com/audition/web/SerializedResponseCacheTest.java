@@ -0,0 +1,137 @@
+package com.audition.web;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.audition.configuration.CacheConfiguration;
+import com.audition.configuration.WebServiceConfiguration;
+import com.audition.model.AuditionPost;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Test class for SerializedResponseCache.
+ *
+ * @author Nadeem Shaikh
+ */
+class SerializedResponseCacheTest {
+
+    private static final SerializedResponseCache.ListKey KEY =
+        new SerializedResponseCache.ListKey("posts", null, 1, null, Set.of());
+
+    private transient SimpleMeterRegistry meterRegistry;
+    private transient SerializedResponseCache responseCache;
+
+    /**
+     * Sets up a response cache that compresses bodies of any size.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new SerializedResponseCache(new WebServiceConfiguration().objectMapper(),
+            new ConcurrentMapCacheManager(CacheConfiguration.SERIALIZED_RESPONSES_CACHE), true, DataSize.ofBytes(0),
+            meterRegistry);
+    }
+
+    private static List<AuditionPost> posts() {
+        return List.of(new AuditionPost(1, 1, "First", "Body"), new AuditionPost(1, 2, "Second", "Body"));
+    }
+
+    private double count(final String result) {
+        return meterRegistry.counter("audition.response.serialized", "result", result).count();
+    }
+
+    /**
+     * Tests that a page of an unchanged list is written from the cached bytes.
+     */
+    @Test
+    void testUnchangedListIsServedFromCache() {
+        final List<AuditionPost> posts = posts();
+
+        final ResponseEntity<byte[]> first = responseCache.respond(new MockHttpServletRequest(), KEY, posts, 1, null, Set.of(), null);
+        final ResponseEntity<byte[]> second = responseCache.respond(new MockHttpServletRequest(), KEY, posts, 1, null, Set.of(), null);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals("1", second.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER));
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(1.0, count("hit"));
+        assertEquals(1.0, count("miss"));
+    }
+
+    /**
+     * Tests that a new list instance, e.g. after a snapshot refresh, is encoded again.
+     */
+    @Test
+    void testChangedListIsEncodedAgain() {
+        responseCache.respond(new MockHttpServletRequest(), KEY, posts(), 1, null, Set.of(), null);
+        responseCache.respond(new MockHttpServletRequest(), KEY, posts(), 1, null, Set.of(), null);
+
+        assertEquals(0.0, count("hit"));
+        assertEquals(2.0, count("miss"));
+    }
+
+    /**
+     * Tests that clients accepting gzip get the pre-compressed encoding with its own ETag.
+     */
+    @Test
+    void testGzipEncodingIsServedWhenAccepted() throws IOException {
+        final List<AuditionPost> posts = posts();
+
+        final ResponseEntity<byte[]> identity = responseCache.respond(new MockHttpServletRequest(), KEY, posts, 1, null, Set.of(), null);
+        final ResponseEntity<byte[]> gzip = responseCache.respond(new MockHttpServletRequest(), KEY, posts, 1, null, Set.of(), "gzip, deflate, br");
+
+        assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(identity.getHeaders().getETag(), gzip.getHeaders().getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+            assertArrayEquals(identity.getBody(), in.readAllBytes());
+        }
+    }
+
+    /**
+     * Tests that gzip is only chosen when the Accept-Encoding header gives it, or the wildcard, a non-zero quality.
+     */
+    @Test
+    void testGzipFollowsAcceptEncodingQuality() {
+        assertEquals("gzip", contentEncoding("br;q=1.0, GZIP;q=0.5"));
+        assertEquals("gzip", contentEncoding("x-gzip"));
+        assertEquals("gzip", contentEncoding("*"));
+        assertNull(contentEncoding("gzip;q=0"));
+        assertNull(contentEncoding("gzip; q=0.0, *"));
+        assertNull(contentEncoding("x-gzip-foo, deflate"));
+        assertNull(contentEncoding("*;q=0"));
+        assertNull(contentEncoding(""));
+    }
+
+    private String contentEncoding(final String acceptEncoding) {
+        return responseCache.respond(new MockHttpServletRequest(), KEY, posts(), 1, null, Set.of(), acceptEncoding).getHeaders()
+            .getFirst(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    /**
+     * Tests that the projected fields are applied to the encoded page.
+     */
+    @Test
+    void testProjectionIsApplied() {
+        final ResponseEntity<byte[]> response = responseCache.respond(new MockHttpServletRequest(),
+            new SerializedResponseCache.ListKey("posts", null, null, null, Set.of("id")), posts(), null, null,
+            Set.of("id"), null);
+
+        assertEquals("[{\"id\":1},{\"id\":2}]", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.audition.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.audition.configuration.WebServiceConfiguration;
+import com.audition.model.AuditionPost;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Test class for StreamingListWriter.
+ *
+ * @author Nadeem Shaikh
+ */
+class StreamingListWriterTest {
+
+    private static final String FIRST = "{\"userId\":1,\"id\":1,\"title\":\"First\",\"body\":\"Body\"}";
+    private static final String SECOND = "{\"userId\":1,\"id\":2,\"title\":\"Second\",\"body\":\"Body\"}";
+
+    private static List<AuditionPost> posts(final int count) {
+        final List<AuditionPost> posts = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            posts.add(new AuditionPost(1, id, id == 1 ? "First" : "Second", "Body"));
+        }
+        return posts;
+    }
+
+    private static String body(final ResponseEntity<StreamingResponseBody> response) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StreamingResponseBody body = response.getBody();
+        assertNotNull(body);
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static StreamingListWriter writer(final int flushEvery) {
+        return new StreamingListWriter(new WebServiceConfiguration().objectMapper(), flushEvery);
+    }
+
+    /**
+     * Tests that NDJSON is written as one record per line, each line terminated.
+     */
+    @Test
+    void testNdjsonWritesOneRecordPerLine() throws IOException {
+        final ResponseEntity<StreamingResponseBody> response = writer(100)
+            .respond(new MockHttpServletRequest(), posts(2), null, null, Set.of(), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(FIRST + "\n" + SECOND + "\n", body(response));
+    }
+
+    /**
+     * Tests that the JSON array mode writes a single array of the projected records of the page.
+     */
+    @Test
+    void testJsonArrayWritesProjectedPage() throws IOException {
+        final ResponseEntity<StreamingResponseBody> response = writer(100)
+            .respond(new MockHttpServletRequest(), posts(3), 2, "1", Set.of("id"), MediaType.APPLICATION_JSON);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("[{\"id\":2},{\"id\":3}]", body(response));
+        assertNull(response.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER));
+    }
+
+    /**
+     * Tests that the first record is flushed on its own and then every flush-every records.
+     */
+    @Test
+    void testFlushesFirstRecordThenEveryFlushEveryRecords() throws IOException {
+        final List<String> flushed = new ArrayList<>();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushed.add(toString(StandardCharsets.UTF_8));
+            }
+        };
+
+        writer(2).respond(new MockHttpServletRequest(), posts(5), null, null, Set.of(), MediaType.APPLICATION_NDJSON)
+            .getBody().writeTo(out);
+
+        // After records 1, 2 and 4, then once more when the generator is closed
+        assertEquals(4, flushed.size());
+        assertEquals(FIRST + "\n", flushed.get(0));
+        assertEquals(5, flushed.get(3).split("\n").length);
+    }
+}
@@ -2,6 +2,7 @@ package com.audition.web.advice;
 
 import com.audition.common.exception.SystemException;
 import com.audition.common.logging.AuditionLogger;
+import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -79,6 +80,18 @@ class ExceptionControllerAdviceTest {
         verify(logger).error(any(), any());
     }
 
+    /**
+     * Tests that a missed deadline is answered with a 504 timeout ProblemDetail.
+     */
+    @Test
+    void testHandleTimeoutException() {
+        final ProblemDetail result = advice.handleTimeoutException(new TimeoutException());
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT.value(), result.getStatus());
+        assertEquals(ExceptionControllerAdvice.TIMEOUT_TITLE, result.getTitle());
+        verify(logger).warn(any(), any());
+    }
+
     /**
      * Tests getting HTTP status code from HttpClientErrorException.
      */
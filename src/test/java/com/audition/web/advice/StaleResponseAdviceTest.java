@@ -0,0 +1,61 @@
+package com.audition.web.advice;
+
+import com.audition.integration.StaleWhileRevalidate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Test class for StaleResponseAdvice.
+ *
+ * @author Nadeem Shaikh
+ */
+class StaleResponseAdviceTest {
+
+    private static final String BODY = "body";
+
+    private transient StaleResponseAdvice advice;
+    private transient MockHttpServletRequest request;
+    private transient ServletServerHttpResponse response;
+
+    /**
+     * Sets up the test environment before each test method.
+     */
+    @BeforeEach
+    void setUp() {
+        advice = new StaleResponseAdvice();
+        request = new MockHttpServletRequest();
+        response = new ServletServerHttpResponse(new MockHttpServletResponse());
+    }
+
+    /**
+     * Tests that a response built from stale data is marked.
+     */
+    @Test
+    void testStaleResponseIsMarked() {
+        request.setAttribute(StaleWhileRevalidate.STALE_ATTRIBUTE, "if-error; age=42");
+
+        final Object body = advice.beforeBodyWrite(BODY, null, MediaType.APPLICATION_JSON, null,
+            new ServletServerHttpRequest(request), response);
+
+        assertEquals(BODY, body);
+        assertEquals("if-error; age=42", response.getHeaders().getFirst(StaleResponseAdvice.STALE_HEADER));
+    }
+
+    /**
+     * Tests that a response built from fresh data is not marked.
+     */
+    @Test
+    void testFreshResponseIsNotMarked() {
+        advice.beforeBodyWrite(BODY, null, MediaType.APPLICATION_JSON, null, new ServletServerHttpRequest(request), response);
+
+        assertFalse(response.getHeaders().containsKey(StaleResponseAdvice.STALE_HEADER));
+    }
+}